@@ -0,0 +1,74 @@
+package com.mihaiLita.ecommerce.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Throughput and latency distribution of the catalog read path. Run with
+ * {@code java -jar target/benchmarks.jar CatalogReadBenchmark -p productCount=100000} to pick a size.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogReadBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Benchmark
+    public Object findByCategoryIdFirstPage(CatalogState state) {
+        return state.productRepository.findByCategoryId(randomCategory(), PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object findByCategoryIdDeepPage(CatalogState state) {
+        int lastPage = state.productCount / CatalogSeeder.CATEGORY_COUNT / PAGE_SIZE - 1;
+        return state.productRepository.findByCategoryId(randomCategory(), PageRequest.of(lastPage, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object findByNameContaining(CatalogState state) {
+        return state.productRepository.findByNameContaining("Python", firstPage());
+    }
+
+    @Benchmark
+    public Object findByNameContainingIndexed(CatalogState state) {
+        return state.searchIndex.findByNameContaining("Python", firstPage());
+    }
+
+    @Benchmark
+    public Object findById(CatalogState state) {
+        return state.productRepository.findById(ThreadLocalRandom.current().nextLong(1, state.productCount + 1));
+    }
+
+    @Benchmark
+    public byte[] productPageHalJson(CatalogState state) throws Exception {
+        return state.mockMvc.perform(get("/api/products/search/findByCategoryId")
+                        .param("id", String.valueOf(randomCategory()))
+                        .param("page", "0")
+                        .param("size", String.valueOf(PAGE_SIZE)))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+
+    private static long randomCategory() {
+        return ThreadLocalRandom.current().nextLong(1, CatalogSeeder.CATEGORY_COUNT + 1);
+    }
+
+    private static Pageable firstPage() {
+        return PageRequest.of(0, PAGE_SIZE);
+    }
+}
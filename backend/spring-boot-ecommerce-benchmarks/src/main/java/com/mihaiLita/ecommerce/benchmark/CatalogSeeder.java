@@ -0,0 +1,116 @@
+package com.mihaiLita.ecommerce.benchmark;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Fills the benchmark database with products shaped like
+ * {@code db-scripts/refresh-database-with-100-products.sql}: the same four categories, sku
+ * patterns, name templates, description lengths and image paths, round-robin over categories.
+ */
+public final class CatalogSeeder {
+    public static final int CATEGORY_COUNT = 4;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] BOOK_PREFIXES = {
+            "Crash Course in", "Become a Guru in", "Exploring", "Advanced Techniques in",
+            "Beginners Guide to", "Introduction to", "The Expert Guide to"
+    };
+
+    private static final String[] BOOK_TOPICS = {
+            "Python", "JavaScript", "Vue.js", "Big Data", "SQL", "Spring Boot", "React.js",
+            "Data Science", "Java", "DevOps", "C#", "Machine Learning"
+    };
+
+    private static final String[] DESIGN_NAMES = {
+            "Express", "Cherish", "Dynamic", "Fractal", "Radiant", "Ripple", "Spiral", "Vortex", "Zen", "Infinity"
+    };
+
+    private static final String BOOK_DESCRIPTION = "Learn %s at your own pace. The author explains how the technology "
+            + "works in easy-to-understand language. This book includes working examples that you can apply to your "
+            + "own projects. Purchase the book and get started today!";
+
+    private static final String MUG_DESCRIPTION = "Do you love mathematics? If so, then you need this elegant coffee "
+            + "mug with an amazing fractal design. You don't have to worry about boring coffee mugs anymore. This "
+            + "coffee mug will be the topic of conversation in the office, guaranteed! Buy it now!";
+
+    private static final String MOUSE_PAD_DESCRIPTION = "Fractal images are amazing! You can now own a mouse pad "
+            + "with a unique and amazing fractal. The mouse pad is made of a durable and smooth material. Your mouse "
+            + "will easily glide across the mouse pad. This mouse pad will brighten your workspace. Buy it now!";
+
+    private static final String LUGGAGE_TAG_DESCRIPTION = "This luggage tag will help you identify your luggage. "
+            + "The luggage tag is very unique and it will stand out from the crowd. The luggage tag is created out "
+            + "of a rugged and durable plastic. Buy this luggage tag now to make it easy to identify your luggage!";
+
+    private CatalogSeeder() {
+    }
+
+    public static void seed(DataSource dataSource, int productCount) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("insert into product_category (category_name) values ('Books')");
+                statement.executeUpdate("insert into product_category (category_name) values ('Coffee Mugs')");
+                statement.executeUpdate("insert into product_category (category_name) values ('Mouse Pads')");
+                statement.executeUpdate("insert into product_category (category_name) values ('Luggage Tags')");
+            }
+
+            String sql = "insert into product (sku, name, description, image_url, active, units_in_stock, "
+                    + "unit_price, category_id, date_created, last_updated) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (int i = 0; i < productCount; i++) {
+                    int category = i % CATEGORY_COUNT + 1;
+                    int number = 1000 + i / CATEGORY_COUNT;
+                    String design = DESIGN_NAMES[(i / CATEGORY_COUNT) % DESIGN_NAMES.length];
+
+                    switch (category) {
+                        case 1 -> {
+                            String topic = BOOK_TOPICS[(i / CATEGORY_COUNT) % BOOK_TOPICS.length];
+                            String prefix = BOOK_PREFIXES[(i / CATEGORY_COUNT / BOOK_TOPICS.length) % BOOK_PREFIXES.length];
+                            bind(insert, "BOOK-TECH-" + number, prefix + " " + topic, BOOK_DESCRIPTION.formatted(topic),
+                                    "assets/images/products/books/book-luv2code-" + number + ".png", "14.99", category, now);
+                        }
+                        case 2 -> bind(insert, "COFFEEMUG-" + number, "Coffee Mug - " + design, MUG_DESCRIPTION,
+                                "assets/images/products/coffeemugs/coffeemug-luv2code-" + number + ".png", "18.99", category, now);
+                        case 3 -> bind(insert, "MOUSEPAD-" + number, "Mouse Pad - " + design, MOUSE_PAD_DESCRIPTION,
+                                "assets/images/products/mousepads/mousepad-luv2code-" + number + ".png", "17.99", category, now);
+                        default -> bind(insert, "LUGGAGETAG-" + number, "Luggage Tag - " + design, LUGGAGE_TAG_DESCRIPTION,
+                                "assets/images/products/luggagetags/luggagetag-luv2code-" + number + ".png", "16.99", category, now);
+                    }
+
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+
+            connection.commit();
+        }
+    }
+
+    private static void bind(PreparedStatement insert, String sku, String name, String description, String imageUrl,
+                             String unitPrice, int category, Timestamp now) throws SQLException {
+        insert.setString(1, sku);
+        insert.setString(2, name);
+        insert.setString(3, description);
+        insert.setString(4, imageUrl);
+        insert.setBoolean(5, true);
+        insert.setInt(6, 100);
+        insert.setBigDecimal(7, new BigDecimal(unitPrice));
+        insert.setLong(8, category);
+        insert.setTimestamp(9, now);
+        insert.setTimestamp(10, now);
+    }
+}
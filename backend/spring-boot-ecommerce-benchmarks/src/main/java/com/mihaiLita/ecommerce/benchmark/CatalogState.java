@@ -0,0 +1,53 @@
+package com.mihaiLita.ecommerce.benchmark;
+
+import com.mihaiLita.ecommerce.SpringBootEcommerceApplication;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.search.ProductSearchIndex;
+import com.mihaiLita.ecommerce.search.ProductSearchIndexLoader;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+
+/**
+ * Boots the application once per trial against an in-memory H2 database seeded with
+ * {@link #productCount} products.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+    @Param({"10000", "100000", "1000000"})
+    public int productCount;
+
+    public ConfigurableApplicationContext context;
+    public ProductRepository productRepository;
+    public ProductSearchIndex searchIndex;
+    public MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(SpringBootEcommerceApplication.class)
+                .profiles("benchmark")
+                .run();
+
+        CatalogSeeder.seed(context.getBean(DataSource.class), productCount);
+        context.getBean(ProductSearchIndexLoader.class).rebuild();
+
+        productRepository = context.getBean(ProductRepository.class);
+        searchIndex = context.getBean(ProductSearchIndex.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
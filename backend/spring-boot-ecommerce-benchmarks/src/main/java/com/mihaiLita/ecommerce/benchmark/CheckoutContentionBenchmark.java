@@ -0,0 +1,151 @@
+package com.mihaiLita.ecommerce.benchmark;
+
+import com.mihaiLita.ecommerce.SpringBootEcommerceApplication;
+import com.mihaiLita.ecommerce.dto.CartItem;
+import com.mihaiLita.ecommerce.dto.CustomerDetails;
+import com.mihaiLita.ecommerce.dto.Purchase;
+import com.mihaiLita.ecommerce.inventory.InMemoryInventoryService;
+import com.mihaiLita.ecommerce.inventory.InventoryService;
+import com.mihaiLita.ecommerce.service.CheckoutService;
+import com.mihaiLita.ecommerce.service.InsufficientStockException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 1,000 buyers released at once against a single hot SKU. Each invocation measures how long it takes
+ * to drain the stock and fails the run if more units were sold than were in stock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CheckoutContentionBenchmark {
+    private static final int BUYERS = 1000;
+    private static final long HOT_PRODUCT_ID = 1L;
+
+    @Param({"100", "1000"})
+    public int stock;
+
+    private ConfigurableApplicationContext context;
+    private CheckoutService checkoutService;
+    private InventoryService inventoryService;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(SpringBootEcommerceApplication.class)
+                .profiles("benchmark")
+                .run();
+
+        DataSource dataSource = context.getBean(DataSource.class);
+        CatalogSeeder.seed(dataSource, CatalogSeeder.CATEGORY_COUNT);
+
+        checkoutService = context.getBean(CheckoutService.class);
+        inventoryService = context.getBean(InventoryService.class);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        executor = Executors.newFixedThreadPool(BUYERS);
+    }
+
+    // with ecommerce.inventory.mode=memory the counters are authoritative: the last run's sales are written
+    // out first, and the counter is reseeded from the restocked row
+    @Setup(Level.Invocation)
+    public void restock() throws IOException {
+        flushInventory();
+        jdbcTemplate.update("delete from order_item");
+        jdbcTemplate.update("delete from orders");
+        jdbcTemplate.update("delete from customer");
+        jdbcTemplate.update("update product set units_in_stock = ? where id = ?", stock, HOT_PRODUCT_ID);
+        inventoryService.invalidate(HOT_PRODUCT_ID);
+    }
+
+    @Benchmark
+    public int hotSku() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+
+        List<Future<?>> buyers = new ArrayList<>(BUYERS);
+        for (int i = 0; i < BUYERS; i++) {
+            Purchase purchase = purchase(i);
+            buyers.add(executor.submit(() -> {
+                start.await();
+                try {
+                    checkoutService.placeOrder(purchase);
+                    placed.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    // sold out, expected for every buyer past the stock
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get();
+        }
+
+        flushInventory();
+        Integer unitsInStock = jdbcTemplate.queryForObject(
+                "select units_in_stock from product where id = ?", Integer.class, HOT_PRODUCT_ID);
+        if (unitsInStock == null || unitsInStock < 0 || placed.get() != Math.min(stock, BUYERS)) {
+            throw new IllegalStateException("Oversold: " + placed.get() + " orders placed for " + stock
+                    + " units, " + unitsInStock + " left");
+        }
+        return placed.get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    private void flushInventory() throws IOException {
+        if (inventoryService instanceof InMemoryInventoryService inMemory) {
+            inMemory.flush();
+        }
+    }
+
+    private static Purchase purchase(int buyer) {
+        CustomerDetails customer = new CustomerDetails();
+        customer.setFirstName("Buyer");
+        customer.setLastName(String.valueOf(buyer));
+        customer.setEmail("buyer" + buyer + "@example.com");
+
+        CartItem item = new CartItem();
+        item.setProductId(HOT_PRODUCT_ID);
+        item.setQuantity(1);
+
+        Purchase purchase = new Purchase();
+        purchase.setCustomer(customer);
+        purchase.setCartItems(List.of(item));
+        return purchase;
+    }
+}
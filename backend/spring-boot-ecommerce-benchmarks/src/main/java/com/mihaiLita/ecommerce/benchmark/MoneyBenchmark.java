@@ -0,0 +1,116 @@
+package com.mihaiLita.ecommerce.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.mihaiLita.ecommerce.money.Cents;
+import com.mihaiLita.ecommerce.money.CentsSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal prices against long cents for the operations that touch many prices at once: writing
+ * them as JSON, adding up a large cart and sorting by price. Run with
+ * {@code java -jar target/benchmarks.jar MoneyBenchmark -prof gc} to see the allocation rate too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<DecimalPrice> decimalPrices;
+    private List<CentsPrice> centsPrices;
+    private BigDecimal[] decimals;
+    private long[] cents;
+    private int[] quantities;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        decimalPrices = new ArrayList<>(count);
+        centsPrices = new ArrayList<>(count);
+        decimals = new BigDecimal[count];
+        cents = new long[count];
+        quantities = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            long price = 99 + random.nextInt(50_000);
+            decimals[i] = BigDecimal.valueOf(price, 2);
+            cents[i] = price;
+            quantities[i] = 1 + random.nextInt(5);
+            decimalPrices.add(new DecimalPrice(i, decimals[i]));
+            centsPrices.add(new CentsPrice(i, price));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBigDecimal() throws Exception {
+        return objectMapper.writeValueAsBytes(decimalPrices);
+    }
+
+    @Benchmark
+    public byte[] serializeCents() throws Exception {
+        return objectMapper.writeValueAsBytes(centsPrices);
+    }
+
+    @Benchmark
+    public BigDecimal cartTotalBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < count; i++) {
+            total = total.add(decimals[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal cartTotalCents() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total = Math.addExact(total, Math.multiplyExact(cents[i], quantities[i]));
+        }
+        return Cents.toBigDecimal(total);
+    }
+
+    @Benchmark
+    public BigDecimal[] sortBigDecimal() {
+        BigDecimal[] sorted = decimals.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public long[] sortCents() {
+        long[] sorted = cents.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    public record DecimalPrice(long id, BigDecimal unitPrice) {
+    }
+
+    public record CentsPrice(long id, @JsonSerialize(using = CentsSerializer.class) long unitPrice) {
+    }
+}
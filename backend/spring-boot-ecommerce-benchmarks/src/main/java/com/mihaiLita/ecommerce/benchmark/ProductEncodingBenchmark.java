@@ -0,0 +1,94 @@
+package com.mihaiLita.ecommerce.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * A category page as HAL JSON against the sparse JSON and CBOR bodies of {@code SparseCatalogController}.
+ * Bytes on the wire, plain and gzipped, are printed once per trial; the benchmarks measure the CPU of
+ * querying and rendering, add {@code -prof gc} for allocation. Run with
+ * {@code java -jar target/benchmarks.jar ProductEncodingBenchmark -p productCount=10000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ProductEncodingBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final String LIST_FIELDS = "id,name,unitPrice,imageUrl";
+    private static final String CBOR = "application/cbor";
+
+    @Setup(Level.Trial)
+    public void reportSizes(CatalogState state) throws Exception {
+        report("HAL JSON", render(state, page(1)));
+        report("sparse JSON", render(state, page(1).param("fields", LIST_FIELDS)));
+        report("sparse CBOR", render(state, page(1).param("fields", LIST_FIELDS).header(HttpHeaders.ACCEPT, CBOR)));
+        report("all fields CBOR", render(state, page(1).header(HttpHeaders.ACCEPT, CBOR)));
+    }
+
+    @Benchmark
+    public byte[] halJson(CatalogState state) throws Exception {
+        return render(state, page(randomCategory()));
+    }
+
+    @Benchmark
+    public byte[] sparseJson(CatalogState state) throws Exception {
+        return render(state, page(randomCategory()).param("fields", LIST_FIELDS));
+    }
+
+    @Benchmark
+    public byte[] sparseCbor(CatalogState state) throws Exception {
+        return render(state, page(randomCategory()).param("fields", LIST_FIELDS).header(HttpHeaders.ACCEPT, CBOR));
+    }
+
+    @Benchmark
+    public byte[] allFieldsCbor(CatalogState state) throws Exception {
+        return render(state, page(randomCategory()).header(HttpHeaders.ACCEPT, CBOR));
+    }
+
+    private static MockHttpServletRequestBuilder page(long categoryId) {
+        return get("/api/products/search/findByCategoryId")
+                .param("id", String.valueOf(categoryId))
+                .param("page", "0")
+                .param("size", String.valueOf(PAGE_SIZE));
+    }
+
+    private static byte[] render(CatalogState state, MockHttpServletRequestBuilder request) throws Exception {
+        return state.mockMvc.perform(request)
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+
+    private static void report(String format, byte[] body) throws Exception {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(body);
+        }
+        System.out.printf("%-16s %7d bytes, %6d gzipped%n", format, body.length, gzipped.size());
+    }
+
+    private static long randomCategory() {
+        return ThreadLocalRandom.current().nextLong(1, CatalogSeeder.CATEGORY_COUNT + 1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.mihaiLita.ecommerce.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold start: time from launching {@code java} to the first 200 from {@code /api/products}, one sample per
+ * fresh application process, so JVM startup and class loading are included.
+ * <p>
+ * Runs the application built by {@code mvn -Pfast-start package}, from its {@code target/fast-start}
+ * directory ({@code -jvmArgsAppend -Dbenchmark.fast-start-dir=...} to point elsewhere). {@code jar} starts
+ * it plainly, {@code fast-start} with {@code -Dspring.aot.enabled=true}, the class data sharing archive and
+ * the fast-start profile. Both use the database configured in the application's properties.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    @Param({"jar", "fast-start"})
+    public String mode;
+
+    private Process application;
+
+    @Benchmark
+    public int timeToFirstProductsResponse() throws Exception {
+        Path directory = Paths.get(System.getProperty("benchmark.fast-start-dir",
+                "../spring-boot-ecommerce/target/fast-start"));
+        int port = freePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xms1g");
+        command.add("-Xmx1g");
+        if ("fast-start".equals(mode)) {
+            command.add("-XX:SharedArchiveFile=application.jsa");
+            command.add("-Dspring.aot.enabled=true");
+            command.add("-Dspring.profiles.active=fast-start");
+        }
+        command.add("-jar");
+        command.add(executableJar(directory));
+        command.add("--server.port=" + port);
+
+        application = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT_NANOS;
+        while (true) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("Application exited with " + application.exitValue());
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Application did not answer within two minutes");
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly();
+            }
+        }
+    }
+
+    private static String executableJar(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith("-exec.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No executable jar in " + directory.toAbsolutePath()
+                            + ", build it with mvn -Pfast-start package"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
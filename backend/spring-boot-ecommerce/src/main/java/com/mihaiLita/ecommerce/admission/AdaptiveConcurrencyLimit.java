@@ -0,0 +1,111 @@
+package com.mihaiLita.ecommerce.admission;
+
+/**
+ * A concurrency limit that follows observed latency, after the gradient limiters used for adaptive load
+ * shedding.
+ * <p>
+ * Latencies are averaged per window of {@code windowSize} completed requests and compared with a slow
+ * moving baseline. While the window is no slower than {@code TOLERANCE} times the baseline the limit grows
+ * by about its square root per window; when queueing makes requests slower the limit shrinks in proportion,
+ * by at most half. A request that failed for overload (a full connection gate) cuts the limit by a tenth
+ * right away. Windows in which less than half the limit was in use leave it alone, so a quiet period does
+ * not inflate it.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    // windows it takes the baseline to follow a lasting change in latency
+    private static final double BASELINE_WINDOWS = 60;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private double baselineNanos;
+    private long windowNanos;
+    private int windowCount;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int theMinLimit, int theMaxLimit, int theWindowSize) {
+        minLimit = theMinLimit;
+        maxLimit = theMaxLimit;
+        windowSize = theWindowSize;
+        limit = Math.max(theMinLimit, Math.min(theMaxLimit, initialLimit));
+    }
+
+    public synchronized boolean tryAcquire(Priority priority) {
+        if (inFlight >= Math.max(1, (int) (limit * priority.getShare()))) {
+            return false;
+        }
+        inFlight++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        inFlight--;
+
+        if (overloaded) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            resetWindow();
+            return;
+        }
+
+        windowNanos += latencyNanos;
+        if (++windowCount < windowSize) {
+            return;
+        }
+
+        double windowAverage = (double) windowNanos / windowCount;
+        boolean limited = windowMaxInFlight >= limit / 2;
+        resetWindow();
+        if (windowAverage <= 0) {
+            return;
+        }
+
+        if (baselineNanos == 0) {
+            baselineNanos = windowAverage;
+        } else {
+            baselineNanos += (windowAverage - baselineNanos) / BASELINE_WINDOWS;
+            // after a slow spell let the baseline come back down quickly
+            if (baselineNanos > 2 * windowAverage) {
+                baselineNanos *= 0.95;
+            }
+        }
+        if (!limited) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineNanos / windowAverage));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    // for a request whose latency is not a load signal; an overload still backs off
+    public synchronized void releaseUnmeasured(boolean overloaded) {
+        inFlight--;
+
+        if (overloaded) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            resetWindow();
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void resetWindow() {
+        windowNanos = 0;
+        windowCount = 0;
+        windowMaxInFlight = inFlight;
+    }
+}
@@ -0,0 +1,163 @@
+package com.mihaiLita.ecommerce.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mihaiLita.ecommerce.jdbc.JdbcGateExceptionHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the API: every request takes tokens from its client's bucket and a slot under an
+ * {@link AdaptiveConcurrencyLimit}, or is turned away at once with {@code Retry-After}: 429 when the
+ * client is over its rate, 503 when the service is at its limit. Reference data and checkout are admitted
+ * up to the full limit, name searches only up to half of it and exports up to a quarter, see {@link Priority}.
+ * <p>
+ * Off unless {@code ecommerce.admission.enabled} is set. Clients are told apart by remote address, so
+ * behind a proxy or load balancer {@code server.forward-headers-strategy} must be set as well, or every
+ * client shares the proxy's bucket. The change event stream, import and admin calls are long-running by
+ * design and not admitted here, nor are images, which are files sent by the kernel, nor
+ * {@code OPTIONS} requests, which a browser sends ahead of the request it is about to make.
+ * <p>
+ * Runs after {@link com.mihaiLita.ecommerce.config.CorsConfig}, so rejections carry the CORS headers and
+ * the browser lets the client read them.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "ecommerce.admission.enabled", havingValue = "true")
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final List<String> BYPASS = List.of("/events", "/products/import", "/admin/", "/images/");
+    private static final List<String> HIGH = List.of("/countries", "/states", "/checkout/");
+    private static final List<String> LOW = List.of("/products/search/findByName");
+    private static final List<String> BULK = List.of("/products/export");
+
+    private RepositoryRestConfiguration restConfiguration;
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    private double clientRate;
+    private double clientBurst;
+    private MeterRegistry meterRegistry;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    @Autowired
+    public AdmissionControlFilter(RepositoryRestConfiguration theRestConfiguration,
+                                  @Value("${ecommerce.admission.initial-limit:20}") int theInitialLimit,
+                                  @Value("${ecommerce.admission.min-limit:4}") int theMinLimit,
+                                  @Value("${ecommerce.admission.max-limit:200}") int theMaxLimit,
+                                  @Value("${ecommerce.admission.window-size:50}") int theWindowSize,
+                                  @Value("${ecommerce.admission.client-rate:50}") double theClientRate,
+                                  @Value("${ecommerce.admission.client-burst:100}") double theClientBurst,
+                                  @Value("${ecommerce.admission.client-idle-timeout:10m}") Duration theClientIdleTimeout,
+                                  MeterRegistry theMeterRegistry) {
+        restConfiguration = theRestConfiguration;
+        concurrencyLimit = new AdaptiveConcurrencyLimit(theInitialLimit, theMinLimit, theMaxLimit, theWindowSize);
+        clientRate = theClientRate;
+        clientBurst = theClientBurst;
+        meterRegistry = theMeterRegistry;
+
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(theClientIdleTimeout)
+                .maximumSize(100_000)
+                .build();
+
+        Gauge.builder("catalog.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("catalog.admission.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = apiPath(request);
+        return path == null
+                || HttpMethod.OPTIONS.matches(request.getMethod())
+                || BYPASS.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Priority priority = priority(apiPath(request));
+
+        long now = System.nanoTime();
+        long wait = buckets.get(request.getRemoteAddr(), client -> new TokenBucket(clientRate, clientBurst, now))
+                .tryConsume(priority.getCost(), now);
+        if (wait > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait) + 1, priority);
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire(priority)) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, priority);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            filterChain.doFilter(request, response);
+            // e.g. a full connection gate, see JdbcGateExceptionHandler
+            overloaded = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+        } catch (ServletException | IOException | RuntimeException e) {
+            // a rejection that escaped Spring MVC, e.g. from a filter; the status is set only after this returns
+            overloaded = JdbcGateExceptionHandler.isGateRejection(e);
+            throw e;
+        } finally {
+            if (priority.isMeasured()) {
+                concurrencyLimit.release(System.nanoTime() - start, overloaded);
+            } else {
+                concurrencyLimit.releaseUnmeasured(overloaded);
+            }
+        }
+    }
+
+    static Priority priority(String path) {
+        if (HIGH.stream().anyMatch(path::startsWith)) {
+            return Priority.HIGH;
+        }
+        if (LOW.stream().anyMatch(path::startsWith)) {
+            return Priority.LOW;
+        }
+        if (BULK.stream().anyMatch(path::startsWith)) {
+            return Priority.BULK;
+        }
+        return Priority.NORMAL;
+    }
+
+    // the path below the API base path, null outside of it
+    private String apiPath(HttpServletRequest request) {
+        String basePath = request.getContextPath() + restConfiguration.getBasePath().getPath();
+        String uri = request.getRequestURI();
+        return uri.startsWith(basePath + "/") ? uri.substring(basePath.length()) : null;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, Priority priority) {
+        Counter.builder("catalog.admission.rejections")
+                .tag("status", String.valueOf(status.value()))
+                .tag("priority", priority.name())
+                .register(meterRegistry)
+                .increment();
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+}
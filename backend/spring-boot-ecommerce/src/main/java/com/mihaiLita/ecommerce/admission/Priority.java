@@ -0,0 +1,43 @@
+package com.mihaiLita.ecommerce.admission;
+
+/**
+ * Admission classes. A request is only admitted while the in-flight count is below its share of the
+ * concurrency limit, so under load the expensive class is shed first and the cheap one last; the cost is
+ * what it takes from the client's token bucket.
+ */
+public enum Priority {
+    // reference data and checkout
+    HIGH(1.0, 1),
+    NORMAL(0.9, 1),
+    // LIKE searches that can fall back to a table scan
+    LOW(0.5, 3),
+    // streaming exports, which hold a connection for the whole table; how long they take says nothing
+    // about load, so their latency is left out of the limit
+    BULK(0.25, 10, false);
+
+    private final double share;
+    private final int cost;
+    private final boolean measured;
+
+    Priority(double theShare, int theCost) {
+        this(theShare, theCost, true);
+    }
+
+    Priority(double theShare, int theCost, boolean theMeasured) {
+        share = theShare;
+        cost = theCost;
+        measured = theMeasured;
+    }
+
+    public double getShare() {
+        return share;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public boolean isMeasured() {
+        return measured;
+    }
+}
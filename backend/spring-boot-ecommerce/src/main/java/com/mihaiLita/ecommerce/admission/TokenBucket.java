@@ -0,0 +1,34 @@
+package com.mihaiLita.ecommerce.admission;
+
+/**
+ * Requests per client: refills at a steady rate up to a burst. Times are {@link System#nanoTime()} values
+ * passed in by the caller.
+ */
+class TokenBucket {
+    private final double nanosPerToken;
+    private final double burst;
+
+    // guarded by this
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, double theBurst, long now) {
+        nanosPerToken = 1_000_000_000d / ratePerSecond;
+        burst = theBurst;
+        tokens = theBurst;
+        refilledAt = now;
+    }
+
+    // 0 when the tokens were taken, otherwise the nanos until they would be available
+    synchronized long tryConsume(int cost, long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) / nanosPerToken);
+        refilledAt = now;
+
+        double needed = Math.min(cost, burst);
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) * nanosPerToken);
+    }
+}
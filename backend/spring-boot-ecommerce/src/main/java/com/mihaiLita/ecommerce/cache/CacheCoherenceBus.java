@@ -0,0 +1,221 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.mihaiLita.ecommerce.events.CategoryChanged;
+import com.mihaiLita.ecommerce.events.ChangeEvent;
+import com.mihaiLita.ecommerce.events.ChangeEventSubscriber;
+import com.mihaiLita.ecommerce.events.ProductChanged;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the catalog caches of several nodes coherent: every product and category change committed here
+ * is sent to the other nodes through an {@link InvalidationTransport}, and what they send is evicted here
+ * through {@link CatalogCacheInvalidator}, which covers the Spring caches, the HAL responses and the
+ * Hibernate second-level cache.
+ * <p>
+ * Staleness is bounded. A received invalidation is applied again after {@code repeatAfter}, which drops
+ * an entry that a read begun before the other node's commit put back in the meantime. When the transport
+ * has not caught up for longer than {@code maxStaleness}, e.g. because the database is unreachable, every
+ * local cache is cleared, and cleared again each check until it recovers. Sends that fail are retried with
+ * the next batch.
+ */
+public class CacheCoherenceBus implements ChangeEventSubscriber {
+    private static final Logger logger = LoggerFactory.getLogger(CacheCoherenceBus.class);
+
+    // beyond this many unsent invalidations one ALL says the same
+    private static final int MAX_PENDING = 10_000;
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private InvalidationTransport transport;
+    private CatalogCacheInvalidator invalidator;
+    private ObjectProvider<HalResponseCache> responseCacheProvider;
+    private Duration maxStaleness;
+    private Duration repeatAfter;
+
+    // guarded by this
+    private List<CacheInvalidation> pending = new ArrayList<>();
+    private volatile boolean stale;
+
+    private ScheduledExecutorService scheduler;
+
+    private final Counter sent;
+    private final Counter sendFailures;
+    private final Counter received;
+    private final Counter flushes;
+    private final Timer fanOutLatency;
+
+    public CacheCoherenceBus(InvalidationTransport theTransport, CatalogCacheInvalidator theInvalidator,
+                             ObjectProvider<HalResponseCache> theResponseCacheProvider, Duration theMaxStaleness,
+                             Duration theRepeatAfter, MeterRegistry meterRegistry) {
+        transport = theTransport;
+        invalidator = theInvalidator;
+        responseCacheProvider = theResponseCacheProvider;
+        maxStaleness = theMaxStaleness;
+        repeatAfter = theRepeatAfter;
+
+        sent = Counter.builder("catalog.cache.coherence.sent").register(meterRegistry);
+        sendFailures = Counter.builder("catalog.cache.coherence.send.failures").register(meterRegistry);
+        received = Counter.builder("catalog.cache.coherence.received").register(meterRegistry);
+        flushes = Counter.builder("catalog.cache.coherence.flushes").register(meterRegistry);
+        // sender's clock to this node's, so clock skew between nodes shows up here
+        fanOutLatency = Timer.builder("catalog.cache.coherence.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.coherence.lag", this, CacheCoherenceBus::lagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-coherence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transport.start(origin, this::receive);
+
+        long interval = Math.max(1, maxStaleness.toMillis() / 2);
+        scheduler.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        transport.stop();
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    @Override
+    public void onEvents(List<ChangeEvent> events) {
+        List<CacheInvalidation> invalidations = new ArrayList<>(events.size());
+        long now = System.currentTimeMillis();
+        for (ChangeEvent event : events) {
+            if (event instanceof ProductChanged product) {
+                invalidations.add(new CacheInvalidation(origin, CacheInvalidation.Kind.PRODUCT, product.productId(),
+                        product.categoryId(), product.previousCategoryId(), now));
+            } else if (event instanceof CategoryChanged category) {
+                invalidations.add(new CacheInvalidation(origin, CacheInvalidation.Kind.PRODUCT_CATEGORY,
+                        category.categoryId(), null, null, now));
+            }
+        }
+        send(invalidations);
+    }
+
+    // for writes too broad to name, like a bulk import
+    public void broadcastAll() {
+        send(List.of(new CacheInvalidation(origin, CacheInvalidation.Kind.ALL, null, null, null,
+                System.currentTimeMillis())));
+    }
+
+    private synchronized void send(List<CacheInvalidation> invalidations) {
+        pending.addAll(invalidations);
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (pending.size() > MAX_PENDING) {
+            pending = new ArrayList<>(List.of(new CacheInvalidation(origin, CacheInvalidation.Kind.ALL, null, null,
+                    null, System.currentTimeMillis())));
+        }
+
+        try {
+            transport.send(pending);
+            sent.increment(pending.size());
+            pending = new ArrayList<>();
+        } catch (RuntimeException e) {
+            sendFailures.increment();
+            logger.warn("Sending {} cache invalidations failed, retrying with the next batch", pending.size(), e);
+        }
+    }
+
+    void receive(List<CacheInvalidation> invalidations) {
+        long now = System.currentTimeMillis();
+        for (CacheInvalidation invalidation : invalidations) {
+            applyQuietly(invalidation);
+            received.increment();
+            fanOutLatency.record(Math.max(0, now - invalidation.sentAt()), TimeUnit.MILLISECONDS);
+        }
+        scheduler.schedule(() -> invalidations.forEach(this::applyQuietly), repeatAfter.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void apply(CacheInvalidation invalidation) {
+        switch (invalidation.kind()) {
+            case PRODUCT -> {
+                invalidator.evictProduct(invalidation.entityId());
+                if (invalidation.categoryId() != null) {
+                    invalidator.evictCategoryPages(invalidation.categoryId());
+                } else {
+                    responseCacheProvider.ifAvailable(HalResponseCache::clear);
+                }
+                if (invalidation.previousCategoryId() != null) {
+                    invalidator.evictCategoryPages(invalidation.previousCategoryId());
+                }
+            }
+            case PRODUCT_CATEGORY -> {
+                invalidator.evictProductCategory(invalidation.entityId());
+                invalidator.evictCategoryPages(invalidation.entityId());
+                responseCacheProvider.ifAvailable(HalResponseCache::evictMenu);
+            }
+            case ALL -> invalidator.evictAll();
+        }
+    }
+
+    private void applyQuietly(CacheInvalidation invalidation) {
+        try {
+            apply(invalidation);
+        } catch (RuntimeException e) {
+            logger.warn("Applying cache invalidation {} failed", invalidation, e);
+        }
+    }
+
+    private void check() {
+        try {
+            synchronized (this) {
+                if (!pending.isEmpty()) {
+                    send(List.of());
+                }
+            }
+
+            if (lagMillis() <= maxStaleness.toMillis()) {
+                if (stale) {
+                    logger.info("Cache invalidations caught up again");
+                    stale = false;
+                }
+                return;
+            }
+            if (!stale) {
+                logger.warn("Cache invalidations are more than {} behind, clearing local caches until they catch up",
+                        maxStaleness);
+                stale = true;
+            }
+            invalidator.evictAll();
+            flushes.increment();
+        } catch (RuntimeException e) {
+            logger.warn("Checking cache coherence failed", e);
+        }
+    }
+
+    private long lagMillis() {
+        return Math.max(0, System.currentTimeMillis() - transport.deliveredUpTo());
+    }
+}
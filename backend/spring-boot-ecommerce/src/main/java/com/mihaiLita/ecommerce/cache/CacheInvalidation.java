@@ -0,0 +1,15 @@
+package com.mihaiLita.ecommerce.cache;
+
+/**
+ * A write one node tells the others about: the product or category that changed, or {@code ALL} after a
+ * write too broad to name. {@code sentAt} is the sender's wall clock, for fan-out latency.
+ */
+public record CacheInvalidation(String origin, Kind kind, Long entityId, Long categoryId, Long previousCategoryId,
+                                long sentAt) {
+
+    public enum Kind {
+        PRODUCT,
+        PRODUCT_CATEGORY,
+        ALL
+    }
+}
@@ -0,0 +1,66 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.mihaiLita.ecommerce.entity.Country;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import com.mihaiLita.ecommerce.entity.State;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cached catalog reads after a JPA write to a catalog entity has committed.
+ */
+@Component
+public class CatalogCacheEvictionListener {
+    private final ObjectProvider<CatalogCacheInvalidator> invalidatorProvider;
+
+    @Autowired
+    public CatalogCacheEvictionListener(ObjectProvider<CatalogCacheInvalidator> theInvalidatorProvider) {
+        invalidatorProvider = theInvalidatorProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void entityChanged(Object entity) {
+        CatalogCacheInvalidator invalidator = invalidatorProvider.getIfAvailable();
+        if (invalidator == null) {
+            return;
+        }
+
+        Runnable eviction = eviction(invalidator, entity);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private static Runnable eviction(CatalogCacheInvalidator invalidator, Object entity) {
+        if (entity instanceof Product product) {
+            Long productId = product.getId();
+            return () -> invalidator.evictProduct(productId);
+        }
+        if (entity instanceof ProductCategory category) {
+            Long categoryId = category.getId();
+            return () -> invalidator.evictProductCategory(categoryId);
+        }
+        if (entity instanceof Country || entity instanceof State) {
+            return invalidator::evictReferenceData;
+        }
+        return () -> { };
+    }
+}
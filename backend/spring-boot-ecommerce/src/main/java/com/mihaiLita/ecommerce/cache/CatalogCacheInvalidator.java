@@ -0,0 +1,88 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.mihaiLita.ecommerce.config.CatalogCacheConfig;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Explicit invalidation of the catalog caches. Used by {@link CatalogCacheEvictionListener} for
+ * writes that go through JPA; rows changed out-of-band (SQL scripts, other services) can be dropped
+ * with {@code DELETE /actuator/caches/{name}} or by calling these methods. Entries of the Hibernate
+ * second-level cache are dropped along with them, so the methods also serve invalidations from other
+ * nodes, see {@link CacheCoherenceBus}.
+ */
+@Component
+public class CatalogCacheInvalidator {
+    private CacheManager cacheManager;
+    private ObjectProvider<HalResponseCache> responseCacheProvider;
+    private ObjectProvider<EntityManagerFactory> entityManagerFactoryProvider;
+
+    @Autowired
+    public CatalogCacheInvalidator(CacheManager theCacheManager, ObjectProvider<HalResponseCache> theResponseCacheProvider,
+                                   ObjectProvider<EntityManagerFactory> theEntityManagerFactoryProvider) {
+        cacheManager = theCacheManager;
+        responseCacheProvider = theResponseCacheProvider;
+        entityManagerFactoryProvider = theEntityManagerFactoryProvider;
+    }
+
+    public void evictProduct(Long productId) {
+        secondLevelCache(cache -> cache.evictEntityData(Product.class, productId));
+        evict(CatalogCacheConfig.PRODUCTS, CatalogCacheConfig.key("findById", productId));
+        // any page may contain the product, paged results are cheap to rebuild
+        clear(CatalogCacheConfig.PRODUCT_PAGES);
+    }
+
+    // cached HAL pages of a category, for writes that bypass Hibernate
+    public void evictCategoryPages(Long categoryId) {
+        responseCacheProvider.ifAvailable(responseCache -> responseCache.evictCategory(categoryId));
+    }
+
+    public void evictProductCategory(Long categoryId) {
+        secondLevelCache(cache -> {
+            cache.evictEntityData(ProductCategory.class, categoryId);
+            cache.evictQueryRegions();
+        });
+        // the category list and its pages are small, drop them together with the item
+        clear(CatalogCacheConfig.PRODUCT_CATEGORIES);
+        clear(CatalogCacheConfig.PRODUCT_PAGES);
+    }
+
+    public void evictReferenceData() {
+        clear(CatalogCacheConfig.COUNTRIES);
+        clear(CatalogCacheConfig.STATES);
+    }
+
+    public void evictAll() {
+        secondLevelCache(org.hibernate.Cache::evictAllRegions);
+        CatalogCacheConfig.CACHE_NAMES.forEach(this::clear);
+        responseCacheProvider.ifAvailable(HalResponseCache::clear);
+    }
+
+    private void secondLevelCache(Consumer<org.hibernate.Cache> eviction) {
+        entityManagerFactoryProvider.ifAvailable(entityManagerFactory ->
+                eviction.accept(entityManagerFactory.unwrap(SessionFactory.class).getCache()));
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * What the catalog caches hold instead of entities: immutable records of products, categories and pages
+ * of them. Every read turns a record back into new, detached entities, so no two callers, threads or
+ * persistence contexts share an instance, and nothing in the cache is a lazy proxy. Other values are
+ * stored as they are.
+ */
+public final class CatalogSnapshots {
+
+    private CatalogSnapshots() {
+    }
+
+    public static Object toSnapshot(Object value) {
+        if (value instanceof Product product) {
+            return ProductSnapshot.of(product);
+        }
+        if (value instanceof ProductCategory category) {
+            return CategorySnapshot.of(category);
+        }
+        if (value instanceof Page<?> page) {
+            List<Object> content = new ArrayList<>(page.getNumberOfElements());
+            page.forEach(element -> content.add(toSnapshot(element)));
+            return new PageSnapshot(List.copyOf(content), page.getPageable(), page.getTotalElements());
+        }
+        return value;
+    }
+
+    public static Object fromSnapshot(Object value) {
+        if (value instanceof ProductSnapshot product) {
+            return product.toEntity();
+        }
+        if (value instanceof CategorySnapshot category) {
+            return category.toEntity();
+        }
+        if (value instanceof PageSnapshot page) {
+            List<Object> content = new ArrayList<>(page.content().size());
+            page.content().forEach(element -> content.add(fromSnapshot(element)));
+            return new PageImpl<>(content, page.pageable(), page.total());
+        }
+        return value;
+    }
+
+    record ProductSnapshot(Long id, CategorySnapshot category, String sku, String name, String description,
+                           BigDecimal unitPrice, String imageUrl, boolean active, int unitsInStock,
+                           Long dateCreated, Long lastUpdated) {
+
+        static ProductSnapshot of(Product product) {
+            return new ProductSnapshot(product.getId(),
+                    product.getCategory() == null ? null : CategorySnapshot.of(product.getCategory()),
+                    product.getSku(), product.getName(), product.getDescription(), product.getUnitPrice(),
+                    product.getImageUrl(), product.isActive(), product.getUnitsInStock(),
+                    millis(product.getDateCreated()), millis(product.getLastUpdated()));
+        }
+
+        Product toEntity() {
+            Product product = new Product();
+            product.setId(id);
+            product.setCategory(category == null ? null : category.toEntity());
+            product.setSku(sku);
+            product.setName(name);
+            product.setDescription(description);
+            product.setUnitPrice(unitPrice);
+            product.setImageUrl(imageUrl);
+            product.setActive(active);
+            product.setUnitsInStock(unitsInStock);
+            product.setDateCreated(dateCreated == null ? null : new Date(dateCreated));
+            product.setLastUpdated(lastUpdated == null ? null : new Date(lastUpdated));
+            return product;
+        }
+    }
+
+    // the products collection is left out, it is never read from a cached category
+    record CategorySnapshot(Long id, String categoryName) {
+
+        // only the id of a category that was not fetched, reading its name would hit the database
+        static CategorySnapshot of(ProductCategory category) {
+            return new CategorySnapshot(category.getId(),
+                    Hibernate.isInitialized(category) ? category.getCategoryName() : null);
+        }
+
+        ProductCategory toEntity() {
+            ProductCategory category = new ProductCategory();
+            category.setId(id);
+            category.setCategoryName(categoryName);
+            return category;
+        }
+    }
+
+    record PageSnapshot(List<Object> content, Pageable pageable, long total) {
+    }
+
+    private static Long millis(Date date) {
+        return date == null ? null : date.getTime();
+    }
+}
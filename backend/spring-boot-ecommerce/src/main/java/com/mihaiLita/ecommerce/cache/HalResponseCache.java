@@ -0,0 +1,142 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished HAL responses for the hottest catalog pages, stored as identity and gzip bytes in direct
+ * (off-heap) buffers so a hit is a buffer copy to the socket. Entries are grouped: the pages of one
+ * category are dropped together when a product in that category changes, the category menu when a
+ * category changes. Bounded by {@code ecommerce.response-cache.max-size} bytes.
+ */
+@Component
+public class HalResponseCache {
+    public static final String MENU = "menu";
+
+    private final Cache<Key, CachedResponse> cache;
+    private final Map<String, Set<Key>> keysByGroup = new ConcurrentHashMap<>();
+
+    // bumped on every eviction; a response rendered across an eviction is not stored
+    private final AtomicLong generation = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    @Autowired
+    public HalResponseCache(@Value("${ecommerce.response-cache.max-size:64MB}") DataSize theMaxSize,
+                            ObjectProvider<MeterRegistry> theMeterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(theMaxSize.toBytes())
+                .weigher((Key key, CachedResponse response) -> response.weight())
+                .evictionListener((Key key, CachedResponse response, RemovalCause cause) -> unindex(key))
+                .recordStats()
+                .build();
+
+        theMeterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "halResponses"));
+    }
+
+    public static String categoryGroup(Long categoryId) {
+        return "category:" + categoryId;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public CachedResponse get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public CachedResponse put(Key key, long renderedAt, byte[] body, String contentType, String etag,
+                              long lastModified) {
+        CachedResponse response = new CachedResponse(direct(body), direct(gzip(body)), contentType, etag,
+                lastModified);
+
+        synchronized (writeLock) {
+            if (generation.get() == renderedAt) {
+                cache.put(key, response);
+                keysByGroup.computeIfAbsent(key.group(), group -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        }
+        return response;
+    }
+
+    public void evictCategory(Long categoryId) {
+        evictGroup(categoryGroup(categoryId));
+    }
+
+    public void evictMenu() {
+        evictGroup(MENU);
+    }
+
+    public void clear() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+            keysByGroup.clear();
+        }
+    }
+
+    private void evictGroup(String group) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            Set<Key> keys = keysByGroup.remove(group);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = keysByGroup.get(key.group());
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param url base URL, path and sorted query; HAL links are absolute, so the host is part of it
+     */
+    public record Key(String group, String url, String accept) {
+    }
+
+    public record CachedResponse(ByteBuffer identity, ByteBuffer gzip, String contentType, String etag,
+                                 long lastModified) {
+
+        int weight() {
+            return identity.capacity() + gzip.capacity();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached HAL responses after product and category writes commit. Registered with Hibernate
+ * rather than as a JPA entity listener because a product moved to another category must also drop
+ * the pages of the category it left, and only Hibernate's update event carries the old state. Hibernate
+ * is handed it by {@link com.mihaiLita.ecommerce.config.HibernateListenerConfig}.
+ */
+@Component
+public class HalResponseCacheInvalidator
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private final HalResponseCache responseCache;
+
+    @Autowired
+    public HalResponseCacheInvalidator(HalResponseCache theResponseCache) {
+        responseCache = theResponseCache;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return entityClass == Product.class || entityClass == ProductCategory.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        entityChanged(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        entityChanged(event.getEntity());
+
+        if (event.getEntity() instanceof Product && event.getOldState() != null) {
+            int category = event.getPersister().getPropertyIndex("category");
+            if (event.getOldState()[category] instanceof ProductCategory previous) {
+                responseCache.evictCategory(previous.getId());
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        entityChanged(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void entityChanged(Object entity) {
+        if (entity instanceof Product product) {
+            if (product.getCategory() != null) {
+                responseCache.evictCategory(product.getCategory().getId());
+            } else {
+                responseCache.clear();
+            }
+        } else if (entity instanceof ProductCategory category) {
+            responseCache.evictMenu();
+            responseCache.evictCategory(category.getId());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.mihaiLita.ecommerce.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link CacheInvalidation}s between the nodes running the application, for
+ * {@link CacheCoherenceBus}.
+ */
+public interface InvalidationTransport {
+
+    // delivers what other nodes send to the receiver until stop(); a node never receives its own
+    void start(String origin, Consumer<List<CacheInvalidation>> receiver);
+
+    void stop();
+
+    // throws when the invalidations could not be handed over, the caller retries
+    void send(List<CacheInvalidation> invalidations);
+
+    // wall-clock millis before which everything other nodes sent has been delivered
+    long deliveredUpTo();
+}
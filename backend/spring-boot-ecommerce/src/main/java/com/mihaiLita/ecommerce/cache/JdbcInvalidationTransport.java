@@ -0,0 +1,176 @@
+package com.mihaiLita.ecommerce.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidations through the {@code cache_invalidation} table of the shared database, so no
+ * infrastructure is needed beyond what every node already talks to. Senders insert rows; every node polls
+ * for rows above the highest id it has seen and skips its own.
+ * <p>
+ * An id can show up before a lower one when inserts race. The lower id is waited for, and
+ * {@link #deliveredUpTo()} stays at the last poll without such a gap, until it arrives or
+ * {@code gapTimeout} passes and the id is taken to be one that was never committed. Rows older than
+ * {@code retention} are deleted.
+ */
+public class JdbcInvalidationTransport implements InvalidationTransport {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+
+    private static final String INSERT = "insert into cache_invalidation "
+            + "(origin, kind, entity_id, category_id, previous_category_id, sent_at) values (?, ?, ?, ?, ?, ?)";
+    private static final String SENT_AFTER = "select id, origin, kind, entity_id, category_id, previous_category_id, "
+            + "sent_at from cache_invalidation where id > ? order by id limit ?";
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private JdbcTemplate jdbcTemplate;
+    private Duration pollInterval;
+    private int batchSize;
+    private Duration gapTimeout;
+    private Duration retention;
+
+    private String origin;
+    private Consumer<List<CacheInvalidation>> receiver;
+
+    // touched by the poller thread only after start(): every id up to the watermark has been seen, and the
+    // ids seen above it
+    private long watermark;
+    private final TreeSet<Long> seenAboveWatermark = new TreeSet<>();
+    private long gapSince;
+    private long purgedAt;
+
+    private volatile long deliveredUpTo;
+    private ScheduledExecutorService poller;
+
+    public JdbcInvalidationTransport(JdbcTemplate theJdbcTemplate, Duration thePollInterval, int theBatchSize,
+                                     Duration theGapTimeout, Duration theRetention) {
+        jdbcTemplate = theJdbcTemplate;
+        pollInterval = thePollInterval;
+        batchSize = theBatchSize;
+        gapTimeout = theGapTimeout;
+        retention = theRetention;
+    }
+
+    @Override
+    public void start(String theOrigin, Consumer<List<CacheInvalidation>> theReceiver) {
+        origin = theOrigin;
+        receiver = theReceiver;
+
+        // history is not replayed, a starting node has nothing cached
+        deliveredUpTo = System.currentTimeMillis();
+        Long newest = jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class);
+        watermark = newest == null ? 0 : newest;
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    @Override
+    public void send(List<CacheInvalidation> invalidations) {
+        jdbcTemplate.batchUpdate(INSERT, invalidations, invalidations.size(), (statement, invalidation) -> {
+            statement.setString(1, invalidation.origin());
+            statement.setString(2, invalidation.kind().name());
+            statement.setObject(3, invalidation.entityId());
+            statement.setObject(4, invalidation.categoryId());
+            statement.setObject(5, invalidation.previousCategoryId());
+            statement.setLong(6, invalidation.sentAt());
+        });
+    }
+
+    @Override
+    public long deliveredUpTo() {
+        return deliveredUpTo;
+    }
+
+    // package-private for tests, normally run by the poller thread
+    void poll() {
+        long pollStart = System.currentTimeMillis();
+
+        List<CacheInvalidation> received = new ArrayList<>();
+        long after = watermark;
+        List<SentRow> rows;
+        do {
+            rows = jdbcTemplate.query(SENT_AFTER, (resultSet, rowNum) -> new SentRow(resultSet.getLong("id"),
+                    new CacheInvalidation(resultSet.getString("origin"),
+                            CacheInvalidation.Kind.valueOf(resultSet.getString("kind")),
+                            resultSet.getObject("entity_id", Long.class),
+                            resultSet.getObject("category_id", Long.class),
+                            resultSet.getObject("previous_category_id", Long.class),
+                            resultSet.getLong("sent_at"))), after, batchSize);
+            for (SentRow row : rows) {
+                after = row.id();
+                if (seenAboveWatermark.add(row.id()) && !origin.equals(row.invalidation().origin())) {
+                    received.add(row.invalidation());
+                }
+            }
+        } while (rows.size() == batchSize);
+
+        if (!received.isEmpty()) {
+            receiver.accept(received);
+        }
+        if (advanceWatermark(pollStart)) {
+            deliveredUpTo = pollStart;
+        }
+
+        if (pollStart - purgedAt > PURGE_INTERVAL_MILLIS) {
+            jdbcTemplate.update("delete from cache_invalidation where created_at < ?",
+                    Timestamp.from(Instant.now().minus(retention)));
+            purgedAt = pollStart;
+        }
+    }
+
+    // true when every id up to the newest seen has been seen
+    private boolean advanceWatermark(long now) {
+        while (true) {
+            while (!seenAboveWatermark.isEmpty() && seenAboveWatermark.first() == watermark + 1) {
+                watermark = seenAboveWatermark.pollFirst();
+            }
+            if (seenAboveWatermark.isEmpty()) {
+                gapSince = 0;
+                return true;
+            }
+            if (gapSince == 0) {
+                gapSince = now;
+                return false;
+            }
+            if (now - gapSince < gapTimeout.toMillis()) {
+                return false;
+            }
+            // the missing ids were never committed
+            watermark = seenAboveWatermark.first() - 1;
+            gapSince = 0;
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Polling cache invalidations failed", e);
+        }
+    }
+
+    private record SentRow(long id, CacheInvalidation invalidation) {
+    }
+}
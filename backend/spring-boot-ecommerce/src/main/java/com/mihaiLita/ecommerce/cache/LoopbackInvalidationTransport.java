@@ -0,0 +1,52 @@
+package com.mihaiLita.ecommerce.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Connects nodes in the same JVM, e.g. several application contexts in a test. Delivery happens on the
+ * sending thread before {@link #send} returns, so a receiver is never behind.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+    // the nodes of the application contexts in this JVM
+    public static final Network JVM = new Network();
+
+    private final Network network;
+    private volatile String origin;
+    private volatile Consumer<List<CacheInvalidation>> receiver;
+
+    public LoopbackInvalidationTransport(Network theNetwork) {
+        network = theNetwork;
+    }
+
+    @Override
+    public void start(String theOrigin, Consumer<List<CacheInvalidation>> theReceiver) {
+        origin = theOrigin;
+        receiver = theReceiver;
+        network.nodes.add(this);
+    }
+
+    @Override
+    public void stop() {
+        network.nodes.remove(this);
+    }
+
+    @Override
+    public void send(List<CacheInvalidation> invalidations) {
+        for (LoopbackInvalidationTransport node : network.nodes) {
+            if (node != this && !node.origin.equals(origin)) {
+                node.receiver.accept(invalidations);
+            }
+        }
+    }
+
+    @Override
+    public long deliveredUpTo() {
+        return System.currentTimeMillis();
+    }
+
+    public static class Network {
+        private final List<LoopbackInvalidationTransport> nodes = new CopyOnWriteArrayList<>();
+    }
+}
@@ -0,0 +1,206 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A catalog cache whose misses are single-flight: concurrent {@code @Cacheable(sync = true)} calls with the
+ * same key share one repository call, run by the first caller, and the others wait for its result.
+ * <p>
+ * Every loaded value is also kept in a longer-lived stale tier that evictions do not touch. A waiting
+ * caller gets the stale value once the load has taken longer than {@code staleWait}, and every caller
+ * gets it if the load fails, so a slow or briefly unavailable database does not fail catalog reads that
+ * were answered before. The caller running the load always waits for it. Counted as
+ * {@code catalog.cache.flights} by outcome: {@code executed}, {@code collapsed}, {@code stale_slow},
+ * {@code stale_error} and {@code timeout}; a waiter with no stale value gives up after {@code loadTimeout}.
+ * <p>
+ * Entities are stored as {@link CatalogSnapshots} and every caller, waiters included, gets its own
+ * detached copies.
+ */
+public class SingleFlightCache extends CaffeineCache {
+    private final Cache<Object, Object> stale;
+    private final Duration staleWait;
+    private final Duration loadTimeout;
+    private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    // bumped on every eviction; a value loaded across an eviction is returned but not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    private final Counter executed;
+    private final Counter collapsed;
+    private final Counter staleSlow;
+    private final Counter staleError;
+    private final Counter timeouts;
+
+    public SingleFlightCache(String name, Cache<Object, Object> cache, Cache<Object, Object> staleCache,
+                             boolean allowNullValues, Duration theStaleWait, Duration theLoadTimeout,
+                             MeterRegistry meterRegistry) {
+        super(name, cache, allowNullValues);
+        stale = staleCache;
+        staleWait = theStaleWait;
+        loadTimeout = theLoadTimeout;
+
+        executed = counter(meterRegistry, name, "executed");
+        collapsed = counter(meterRegistry, name, "collapsed");
+        staleSlow = counter(meterRegistry, name, "stale_slow");
+        staleError = counter(meterRegistry, name, "stale_error");
+        timeouts = counter(meterRegistry, name, "timeout");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        Flight flight = new Flight(generation.get());
+        Flight running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            collapsed.increment();
+            return (T) fromStoreValue(running.await(key, valueLoader));
+        }
+
+        try {
+            return (T) fromStoreValue(lead(key, valueLoader, flight));
+        } finally {
+            flights.remove(key, flight);
+            // no-op unless the load threw an Error, which would otherwise leave the waiters hanging
+            flight.result.completeExceptionally(new IllegalStateException("Loading " + key + " did not complete"));
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        synchronized (writeLock) {
+            super.put(key, value);
+            stale.put(key, toStoreValue(value));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            flights.remove(key);
+            super.evict(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            flights.remove(key);
+            return super.evictIfPresent(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            flights.clear();
+            super.clear();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            flights.clear();
+            return super.invalidate();
+        }
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        return super.toStoreValue(CatalogSnapshots.toSnapshot(userValue));
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return CatalogSnapshots.fromSnapshot(super.fromStoreValue(storeValue));
+    }
+
+    private Object lead(Object key, Callable<?> valueLoader, Flight flight) {
+        executed.increment();
+        Object value;
+        try {
+            value = toStoreValue(valueLoader.call());
+        } catch (Exception e) {
+            Object staleValue = stale.getIfPresent(key);
+            if (staleValue == null) {
+                flight.result.completeExceptionally(e);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            staleError.increment();
+            flight.result.complete(staleValue);
+            return staleValue;
+        }
+
+        synchronized (writeLock) {
+            stale.put(key, value);
+            // an eviction since the load started may have been for a write this result does not show
+            if (generation.get() == flight.generation) {
+                getNativeCache().put(key, value);
+            }
+        }
+        flight.result.complete(value);
+        return value;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String cacheName, String outcome) {
+        return Counter.builder("catalog.cache.flights")
+                .tag("cache", cacheName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private class Flight {
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(long theGeneration) {
+            generation = theGeneration;
+        }
+
+        Object await(Object key, Callable<?> valueLoader) {
+            try {
+                try {
+                    return result.get(staleWait.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    Object staleValue = stale.getIfPresent(key);
+                    if (staleValue != null) {
+                        staleSlow.increment();
+                        return staleValue;
+                    }
+                    return result.get(Math.max(0, loadTimeout.minus(staleWait).toNanos()), TimeUnit.NANOSECONDS);
+                }
+            } catch (TimeoutException e) {
+                timeouts.increment();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } catch (ExecutionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mihaiLita.ecommerce.config;
+
+import com.mihaiLita.ecommerce.cache.CacheCoherenceBus;
+import com.mihaiLita.ecommerce.cache.CatalogCacheInvalidator;
+import com.mihaiLita.ecommerce.cache.HalResponseCache;
+import com.mihaiLita.ecommerce.cache.InvalidationTransport;
+import com.mihaiLita.ecommerce.cache.JdbcInvalidationTransport;
+import com.mihaiLita.ecommerce.cache.LoopbackInvalidationTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Cross-node cache invalidation for deployments with more than one node, see {@link CacheCoherenceBus}.
+ * {@code ecommerce.cache.coherence.transport} is {@code jdbc} between processes sharing the database, or
+ * {@code loopback} between application contexts in one JVM.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.cache.coherence.enabled", havingValue = "true")
+public class CacheCoherenceConfig {
+
+    @Bean
+    public InvalidationTransport invalidationTransport(Environment environment, JdbcTemplate jdbcTemplate) {
+        String transport = environment.getProperty("ecommerce.cache.coherence.transport", "jdbc");
+        return switch (transport) {
+            case "jdbc" -> new JdbcInvalidationTransport(jdbcTemplate,
+                    environment.getProperty("ecommerce.cache.coherence.poll-interval", Duration.class,
+                            Duration.ofMillis(200)),
+                    environment.getProperty("ecommerce.cache.coherence.batch-size", Integer.class, 1000),
+                    environment.getProperty("ecommerce.cache.coherence.gap-timeout", Duration.class,
+                            Duration.ofSeconds(1)),
+                    environment.getProperty("ecommerce.cache.coherence.retention", Duration.class,
+                            Duration.ofHours(1)));
+            case "loopback" -> new LoopbackInvalidationTransport(LoopbackInvalidationTransport.JVM);
+            default -> throw new IllegalArgumentException("Unknown cache coherence transport: " + transport);
+        };
+    }
+
+    @Bean
+    public CacheCoherenceBus cacheCoherenceBus(Environment environment, InvalidationTransport transport,
+                                               CatalogCacheInvalidator invalidator,
+                                               ObjectProvider<HalResponseCache> responseCacheProvider,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CacheCoherenceBus(transport, invalidator, responseCacheProvider,
+                environment.getProperty("ecommerce.cache.coherence.max-staleness", Duration.class,
+                        Duration.ofSeconds(5)),
+                environment.getProperty("ecommerce.cache.coherence.repeat-after", Duration.class,
+                        Duration.ofSeconds(1)),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -0,0 +1,86 @@
+package com.mihaiLita.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mihaiLita.ecommerce.cache.CatalogSnapshots;
+import com.mihaiLita.ecommerce.cache.SingleFlightCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through caches for the read-only catalog repositories. Each cache is bounded by size and
+ * TTL through a Caffeine spec ({@code ecommerce.cache.spec.<name>}, falling back to
+ * {@code ecommerce.cache.spec.default}) and records hit/miss/eviction statistics for actuator.
+ * Misses are single-flight with a stale fallback, see {@link SingleFlightCache}; its stale tier is sized
+ * by {@code ecommerce.cache.stale-spec}, and callers waiting on another's load give up after
+ * {@code ecommerce.cache.load-timeout}. Entities are cached as copies, see {@link CatalogSnapshots}.
+ */
+@Configuration
+@EnableCaching
+public class CatalogCacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_PAGES = "productPages";
+    public static final String PRODUCT_CATEGORIES = "productCategories";
+    public static final String COUNTRIES = "countries";
+    public static final String STATES = "states";
+
+    public static final List<String> CACHE_NAMES =
+            List.of(PRODUCTS, PRODUCT_PAGES, PRODUCT_CATEGORIES, COUNTRIES, STATES);
+
+    public static final String REPOSITORY_KEY_GENERATOR = "repositoryKeyGenerator";
+
+    private static final String DEFAULT_SPEC = "maximumSize=10000,expireAfterWrite=10m";
+    private static final String DEFAULT_STALE_SPEC = "maximumSize=10000,expireAfterWrite=1h";
+
+    @Bean
+    public CacheManager cacheManager(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        String staleSpec = environment.getProperty("ecommerce.cache.stale-spec", DEFAULT_STALE_SPEC);
+        Duration staleWait = environment.getProperty("ecommerce.cache.stale-wait", Duration.class,
+                Duration.ofMillis(100));
+        Duration loadTimeout = environment.getProperty("ecommerce.cache.load-timeout", Duration.class,
+                Duration.ofSeconds(10));
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new SingleFlightCache(name, cache, Caffeine.from(staleSpec).build(), isAllowNullValues(),
+                        staleWait, loadTimeout, registry);
+            }
+        };
+
+        // static mode: a typo in a @Cacheable name fails instead of creating an unbounded cache
+        cacheManager.setCacheNames(List.of());
+
+        String defaultSpec = environment.getProperty("ecommerce.cache.spec.default", DEFAULT_SPEC);
+
+        for (String cacheName : CACHE_NAMES) {
+            String spec = environment.getProperty("ecommerce.cache.spec." + cacheName, defaultSpec);
+            cacheManager.registerCustomCache(cacheName, Caffeine.from(spec).recordStats().build());
+        }
+        return cacheManager;
+    }
+
+    @Bean(REPOSITORY_KEY_GENERATOR)
+    public KeyGenerator repositoryKeyGenerator() {
+        return (target, method, params) -> key(method.getName(), params);
+    }
+
+    // repository methods share caches, so the method name is part of the key
+    public static Object key(String methodName, Object... params) {
+        return new SimpleKey(methodName, SimpleKeyGenerator.generateKey(params));
+    }
+}
@@ -0,0 +1,44 @@
+package com.mihaiLita.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.CorsFilter;
+
+import java.util.List;
+
+/**
+ * CORS for the whole API as a servlet filter, ahead of the filters that answer without reaching Spring
+ * MVC (response cache hits, admission rejections), so those answers carry the same headers as the ones
+ * {@code @CrossOrigin} adds. Preflights are answered here. MVC leaves a response that already allows
+ * the origin alone.
+ */
+@Configuration
+public class CorsConfig {
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 15;
+
+    // not named corsFilter: Spring Security would pick that name up as its own CorsFilter
+    @Bean
+    public FilterRegistrationBean<CorsFilter> catalogCorsFilter(
+            @Value("${spring.data.rest.base-path:}") String basePath,
+            @Value("${ecommerce.cors.allowed-origins:http://localhost:4200}") List<String> allowedOrigins) {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(allowedOrigins);
+        configuration.addAllowedMethod(CorsConfiguration.ALL);
+        configuration.addAllowedHeader(CorsConfiguration.ALL);
+        configuration.addExposedHeader(HttpHeaders.RETRY_AFTER);
+        configuration.setMaxAge(1800L);
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration(basePath + "/**", configuration);
+
+        FilterRegistrationBean<CorsFilter> registration = new FilterRegistrationBean<>(new CorsFilter(source));
+        registration.setOrder(ORDER);
+        return registration;
+    }
+}
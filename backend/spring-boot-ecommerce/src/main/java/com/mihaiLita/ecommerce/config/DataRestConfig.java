@@ -1,30 +1,26 @@
 package com.mihaiLita.ecommerce.config;
 
 import com.mihaiLita.ecommerce.entity.Country;
+import com.mihaiLita.ecommerce.entity.Customer;
+import com.mihaiLita.ecommerce.entity.Order;
+import com.mihaiLita.ecommerce.entity.OrderItem;
 import com.mihaiLita.ecommerce.entity.Product;
 import com.mihaiLita.ecommerce.entity.ProductCategory;
 import com.mihaiLita.ecommerce.entity.State;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.metamodel.EntityType;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
 import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
 import org.springframework.http.HttpMethod;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-
 @Configuration
 public class DataRestConfig implements RepositoryRestConfigurer {
-    private EntityManager entityManager;
-
-    @Autowired
-    public DataRestConfig(EntityManager theEntityManager) {
-        entityManager = theEntityManager;
-    }
+    // every @Entity, listed rather than read from the JPA metamodel so configuring REST does not wait
+    // for the EntityManagerFactory; DataRestConfigTests keeps the list in step with the metamodel
+    static final Class<?>[] DOMAIN_TYPES = {
+            Country.class, Customer.class, Order.class, OrderItem.class, Product.class, ProductCategory.class,
+            State.class
+    };
 
     @Override
     public void configureRepositoryRestConfiguration(RepositoryRestConfiguration config, CorsRegistry cors) {
@@ -36,7 +32,7 @@ public class DataRestConfig implements RepositoryRestConfigurer {
         disableHttpMethods(Country.class, config, theUnsupportedActions);
         disableHttpMethods(State.class, config, theUnsupportedActions);
 
-        exposeIds(config);
+        config.exposeIdsFor(DOMAIN_TYPES);
     }
 
     private static void disableHttpMethods(Class theClass, RepositoryRestConfiguration config, HttpMethod[] theUnsupportedActions) {
@@ -45,17 +41,4 @@ public class DataRestConfig implements RepositoryRestConfigurer {
                 .withItemExposure(((metdata, httpMethods) -> httpMethods.disable(theUnsupportedActions)))
                 .withCollectionExposure(((metdata, httpMethods) -> httpMethods.disable(theUnsupportedActions)));
     }
-
-    private void exposeIds(RepositoryRestConfiguration config) {
-        Set<jakarta.persistence.metamodel.EntityType<?>> entities = entityManager.getMetamodel().getEntities();
-
-        List<Class> entityClasses = new ArrayList<>();
-
-        for (EntityType tempEntityType : entities) {
-            entityClasses.add(tempEntityType.getJavaType());
-        }
-
-        Class[] domainTypes = entityClasses.toArray(new Class[0]);
-        config.exposeIdsFor(domainTypes);
-    }
 }
@@ -0,0 +1,64 @@
+package com.mihaiLita.ecommerce.config;
+
+import com.mihaiLita.ecommerce.cache.HalResponseCacheInvalidator;
+import com.mihaiLita.ecommerce.events.ChangeEventPublisher;
+import com.mihaiLita.ecommerce.metrics.HibernateLoadCounter;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Hands the application's Hibernate event listeners to Hibernate while the session factory is built.
+ * The listeners never touch the {@code EntityManagerFactory} themselves, so nothing waits for it at
+ * startup and {@code spring.data.jpa.repositories.bootstrap-mode=deferred} can build it in the background.
+ */
+@Configuration
+public class HibernateListenerConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateListeners(
+            ObjectProvider<HibernateLoadCounter> loadCounter,
+            ObjectProvider<HalResponseCacheInvalidator> responseCacheInvalidator,
+            ObjectProvider<ChangeEventPublisher> changeEventPublisher) {
+        Integrator integrator = new Integrator() {
+
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                                  SessionFactoryImplementor sessionFactory) {
+                EventListenerRegistry registry = sessionFactory.getServiceRegistry()
+                        .getService(EventListenerRegistry.class);
+                loadCounter.ifAvailable(listener -> registry.appendListeners(EventType.POST_LOAD, listener));
+                responseCacheInvalidator.ifAvailable(listener -> {
+                    registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+                    registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+                    registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+                });
+                changeEventPublisher.ifAvailable(listener -> {
+                    registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+                    registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+                    registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+                });
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                     SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+
+        IntegratorProvider integrators = () -> List.of(integrator);
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, integrators);
+    }
+}
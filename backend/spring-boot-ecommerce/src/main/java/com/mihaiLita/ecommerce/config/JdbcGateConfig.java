@@ -0,0 +1,47 @@
+package com.mihaiLita.ecommerce.config;
+
+import com.mihaiLita.ecommerce.jdbc.ConcurrencyGatedDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the pooled {@link DataSource} in a {@link ConcurrencyGatedDataSource}. Enabled together
+ * with virtual-thread request execution ({@code spring.threads.virtual.enabled=true}) unless
+ * {@code ecommerce.jdbc.gate.enabled} says otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.jdbc.gate.enabled", havingValue = "true")
+public class JdbcGateConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcGateBeanPostProcessor(Environment environment,
+                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxConcurrent = environment.getProperty("ecommerce.jdbc.gate.max-concurrent", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        int maxWaiting = environment.getProperty("ecommerce.jdbc.gate.max-waiting", Integer.class, 200);
+        Duration acquireTimeout = environment.getProperty("ecommerce.jdbc.gate.acquire-timeout", Duration.class,
+                Duration.ofSeconds(2));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // only the application's data source, not the pools behind a routing data source
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConcurrencyGatedDataSource)) {
+                    return new ConcurrencyGatedDataSource(dataSource, maxConcurrent, maxWaiting, acquireTimeout,
+                            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.mihaiLita.ecommerce.config;
+
+import com.mihaiLita.ecommerce.jdbc.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replaces the single pooled {@link DataSource} with a primary pool plus one pool per
+ * {@code ecommerce.datasource.replicas.urls} entry, routed by {@link ReplicaRoutingDataSource}.
+ * Replicas use the primary's credentials and driver unless {@code ecommerce.datasource.replicas.username}
+ * / {@code password} say otherwise. Every pool reports its own {@code hikaricp.*} metrics, tagged by pool name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        dataSource.setMetricsTrackerFactory(metricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             Environment environment,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<String> urls = Binder.get(environment)
+                .bind("ecommerce.datasource.replicas.urls", Bindable.listOf(String.class))
+                .orElse(List.of())
+                .stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        String username = environment.getProperty("ecommerce.datasource.replicas.username", properties.determineUsername());
+        String password = environment.getProperty("ecommerce.datasource.replicas.password", properties.determinePassword());
+        // Hikari leaves an unset size at -1 until the pool starts
+        int primaryPoolSize = primaryDataSource.getMaximumPoolSize() < 1 ? 10 : primaryDataSource.getMaximumPoolSize();
+        int poolSize = environment.getProperty("ecommerce.datasource.replicas.maximum-pool-size", Integer.class,
+                primaryPoolSize);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(metricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+
+        ReplicaRoutingDataSource.Selection selection = ReplicaRoutingDataSource.Selection.valueOf(environment
+                .getProperty("ecommerce.datasource.replicas.selection", "round-robin")
+                .toUpperCase(Locale.ROOT).replace('-', '_'));
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, selection,
+                environment.getProperty("ecommerce.datasource.replicas.lag-query", "SHOW REPLICA STATUS"),
+                environment.getProperty("ecommerce.datasource.replicas.max-lag", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty("ecommerce.datasource.replicas.lag-check-interval", Duration.class,
+                        Duration.ofSeconds(2)),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    // what JPA, JdbcTemplate and the transaction managers use
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static MicrometerMetricsTrackerFactory metricsTrackerFactory(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MicrometerMetricsTrackerFactory(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -0,0 +1,42 @@
+package com.mihaiLita.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * The storefront API stays open; operational endpoints (admin, product import and export, every actuator
+ * endpoint but health) take HTTP basic as a user with role {@value #ADMIN} ({@code spring.security.user.*}).
+ * There are no sessions or cookies, so there is nothing for CSRF to protect, and responses keep the caching
+ * headers the catalog sets.
+ */
+@Configuration
+public class SecurityConfig {
+    public static final String ADMIN = "ADMIN";
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   @Value("${spring.data.rest.base-path:}") String basePath,
+                                                   @Value("${management.endpoints.web.base-path:/actuator}")
+                                                   String actuatorPath)
+            throws Exception {
+        http.authorizeHttpRequests(requests -> requests
+                        .requestMatchers(actuatorPath + "/health", actuatorPath + "/health/**").permitAll()
+                        .requestMatchers(actuatorPath + "/**").hasRole(ADMIN)
+                        .requestMatchers(basePath + "/admin/**").hasRole(ADMIN)
+                        .requestMatchers(HttpMethod.POST, basePath + "/products/import").hasRole(ADMIN)
+                        .requestMatchers(basePath + "/products/export").hasRole(ADMIN)
+                        .anyRequest().permitAll())
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(sessions -> sessions.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf.disable())
+                .cors(Customizer.withDefaults())
+                .headers(headers -> headers.cacheControl(cacheControl -> cacheControl.disable()));
+        return http.build();
+    }
+}
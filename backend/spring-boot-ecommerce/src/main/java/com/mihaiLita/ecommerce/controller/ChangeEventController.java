@@ -0,0 +1,28 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.events.ChangeEventStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@CrossOrigin("http://localhost:4200")
+@RestController
+@RequestMapping("/api/events")
+public class ChangeEventController {
+    private ChangeEventStream changeEventStream;
+
+    @Autowired
+    public ChangeEventController(ChangeEventStream theChangeEventStream) {
+        changeEventStream = theChangeEventStream;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeEventStream.open(lastEventId);
+    }
+}
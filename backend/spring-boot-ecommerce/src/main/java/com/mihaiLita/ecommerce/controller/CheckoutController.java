@@ -0,0 +1,28 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.dto.Purchase;
+import com.mihaiLita.ecommerce.dto.PurchaseResponse;
+import com.mihaiLita.ecommerce.service.CheckoutService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@CrossOrigin("http://localhost:4200")
+@RestController
+@RequestMapping("/api/checkout")
+public class CheckoutController {
+    private CheckoutService checkoutService;
+
+    @Autowired
+    public CheckoutController(CheckoutService theCheckoutService) {
+        checkoutService = theCheckoutService;
+    }
+
+    @PostMapping("/purchase")
+    public PurchaseResponse placeOrder(@RequestBody Purchase purchase) {
+        return checkoutService.placeOrder(purchase);
+    }
+}
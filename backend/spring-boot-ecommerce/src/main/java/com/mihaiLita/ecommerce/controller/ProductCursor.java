@@ -0,0 +1,27 @@
+package com.mihaiLita.ecommerce.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination: the category being scrolled and the last id
+ * returned. Clients only echo it back, so the encoding can change without breaking them.
+ */
+record ProductCursor(Long categoryId, Long lastId) {
+
+    String encode() {
+        String raw = categoryId + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null for anything the server did not issue
+    static ProductCursor decodeOrNull(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new ProductCursor(Long.valueOf(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
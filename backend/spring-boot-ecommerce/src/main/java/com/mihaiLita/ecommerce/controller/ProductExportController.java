@@ -0,0 +1,57 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.export.ExportFormat;
+import com.mihaiLita.ecommerce.export.ProductExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Whole-catalog export for the feed generator and search indexer, e.g.
+ * {@code GET /api/products/export?format=csv&categoryId=1&since=2025-01-01T00:00:00Z}.
+ */
+@RepositoryRestController
+public class ProductExportController {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ProductExportService productExportService;
+
+    @Autowired
+    public ProductExportController(ProductExportService theProductExportService) {
+        productExportService = theProductExportService;
+    }
+
+    @GetMapping("/products/export")
+    public void export(@RequestParam(name = "format", defaultValue = "ndjson") String format,
+                       @RequestParam(name = "categoryId", required = false) Long categoryId,
+                       @RequestParam(name = "since", required = false)
+                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return;
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + exportFormat.getExtension() + "\"");
+
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE);
+        productExportService.export(exportFormat, categoryId, since, out);
+        out.flush();
+    }
+}
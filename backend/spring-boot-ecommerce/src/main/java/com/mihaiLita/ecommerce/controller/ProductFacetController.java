@@ -0,0 +1,59 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.facet.FacetQuery;
+import com.mihaiLita.ecommerce.facet.FacetResult;
+import com.mihaiLita.ecommerce.facet.ProductFacetIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Facet counts and one page of matching product ids, e.g.
+ * {@code GET /api/products/facets?categoryId=1&categoryId=2&priceBand=1&active=true&inStock=true&page=0&size=20}.
+ * Ids come in id order, or by price with {@code sort=price} / {@code sort=price,desc}.
+ */
+@RepositoryRestController
+public class ProductFacetController {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    public ProductFacetController(ProductFacetIndex theFacetIndex) {
+        facetIndex = theFacetIndex;
+    }
+
+    @GetMapping("/products/facets")
+    public ResponseEntity<FacetResult> facets(@RequestParam(name = "categoryId", required = false) List<Long> categoryIds,
+                                              @RequestParam(name = "priceBand", required = false) List<Integer> priceBands,
+                                              @RequestParam(name = "active", required = false) Boolean active,
+                                              @RequestParam(name = "inStock", required = false) Boolean inStock,
+                                              @RequestParam(name = "sort", required = false) String sort,
+                                              @RequestParam(name = "page", defaultValue = "0") int page,
+                                              @RequestParam(name = "size", defaultValue = "20") int size) {
+        FacetQuery.Order order = order(sort);
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE || order == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        FacetQuery query = new FacetQuery(categoryIds == null ? null : new HashSet<>(categoryIds),
+                priceBands == null ? null : new HashSet<>(priceBands), active, inStock, order);
+        return ResponseEntity.ok(facetIndex.search(query, page, size));
+    }
+
+    private static FacetQuery.Order order(String sort) {
+        if (sort == null || sort.equals("id")) {
+            return FacetQuery.Order.ID;
+        }
+        return switch (sort) {
+            case "price", "price,asc" -> FacetQuery.Order.PRICE_ASC;
+            case "price,desc" -> FacetQuery.Order.PRICE_DESC;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.image.ImageVariant;
+import com.mihaiLita.ecommerce.image.ImageVariantPipeline;
+import com.mihaiLita.ecommerce.image.ProductImageStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product images and their smaller variants, e.g.
+ * {@code GET /api/images/assets/images/products/books/book-luv2code-1000.png?variant=thumbnail}.
+ * <p>
+ * Files are sent without copying them through the heap: with Tomcat's sendfile the kernel writes them to
+ * the socket, otherwise {@link FileChannel#transferTo} does. A single byte range is honoured, and
+ * responses carry an ETag and a long {@code max-age}, since an image only changes with its file. A variant
+ * that is not written yet is queued and the original is sent meanwhile, cached only briefly.
+ */
+@CrossOrigin("http://localhost:4200")
+@RestController
+@RequestMapping("/api/images")
+public class ProductImageController {
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl PENDING_VARIANT = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+
+    private ProductImageStore imageStore;
+    private ImageVariantPipeline variantPipeline;
+    private CacheControl cacheControl;
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public ProductImageController(ProductImageStore theImageStore, ImageVariantPipeline theVariantPipeline,
+                                  @Value("${ecommerce.images.max-age:30d}") Duration theMaxAge,
+                                  ObjectProvider<MeterRegistry> theMeterRegistry) {
+        imageStore = theImageStore;
+        variantPipeline = theVariantPipeline;
+        cacheControl = CacheControl.maxAge(theMaxAge).cachePublic();
+        meterRegistry = theMeterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @GetMapping("/{*path}")
+    public void image(@PathVariable("path") String path,
+                      @RequestParam(name = "variant", defaultValue = "original") String variantName,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant variant;
+        try {
+            variant = ImageVariant.of(variantName);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown image variant: " + variantName);
+            return;
+        }
+
+        Path original = imageStore.resolve(path);
+        if (original == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path file = imageStore.variant(original, variant);
+        CacheControl caching = cacheControl;
+        if (!imageStore.isCurrent(original, file)) {
+            variantPipeline.submit(original, variant);
+            file = original;
+            caching = PENDING_VARIANT;
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, caching.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = length;
+        HttpRange range = range(request, etag, lastModified);
+        if (range != null) {
+            if (length == 0 || range.getRangeStart(length) >= length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length) + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        ImageVariant sent = file == original ? ImageVariant.ORIGINAL : variant;
+        DistributionSummary.builder("catalog.images.bytes")
+                .baseUnit("bytes")
+                .tag("variant", sent.getDirectoryName())
+                .register(meterRegistry)
+                .record(end - start);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file once this method returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // the one range asked for, null to send the whole file: several ranges are not worth a multipart body
+    private static HttpRange range(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        try {
+            // a range of a file that changed since the client's copy would not fit it
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (ifRange != null && !(ifRange.startsWith("\"") || ifRange.startsWith("W/")
+                    ? ifRange.equals(etag)
+                    : request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000)) {
+                return null;
+            }
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.export.ExportFormat;
+import com.mihaiLita.ecommerce.importer.ImportReport;
+import com.mihaiLita.ecommerce.importer.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.io.IOException;
+
+/**
+ * Bulk product load, e.g.
+ * {@code curl -X POST -H 'Content-Type: text/csv' --data-binary @products.csv localhost:8080/api/products/import}.
+ * The body is streamed, never buffered in memory.
+ */
+@RepositoryRestController
+public class ProductImportController {
+    private ProductImportService productImportService;
+
+    @Autowired
+    public ProductImportController(ProductImportService theProductImportService) {
+        productImportService = theProductImportService;
+    }
+
+    @PostMapping(path = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importProducts(HttpServletRequest request) throws IOException {
+        ExportFormat format = request.getContentType().startsWith("text/csv") ? ExportFormat.CSV : ExportFormat.NDJSON;
+        return ResponseEntity.ok(productImportService.importProducts(format, request.getInputStream()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.core.EmbeddedWrappers;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cursor-based alternative to {@code findByCategoryId}: seeks on {@code (category_id, id)} instead
+ * of OFFSET/LIMIT and skips the count query, so every page costs the same regardless of depth.
+ * The next page is reachable through the {@code next} link until the category is exhausted.
+ */
+@CrossOrigin("http://localhost:4200")
+@RepositoryRestController
+public class ProductScrollController {
+    private ProductRepository productRepository;
+    private RepositoryRestConfiguration restConfiguration;
+
+    @Autowired
+    public ProductScrollController(ProductRepository theProductRepository,
+                                   RepositoryRestConfiguration theRestConfiguration) {
+        productRepository = theProductRepository;
+        restConfiguration = theRestConfiguration;
+    }
+
+    @GetMapping("/products/search/scrollByCategoryId")
+    public ResponseEntity<CollectionModel<?>> scrollByCategoryId(@RequestParam("id") Long id,
+                                                                 @RequestParam(name = "cursor", required = false) String cursor,
+                                                                 @RequestParam(name = "size", required = false) Integer size,
+                                                                 PersistentEntityResourceAssembler entityAssembler) {
+        ScrollPosition position = ScrollPosition.keyset();
+        if (cursor != null) {
+            ProductCursor decoded = ProductCursor.decodeOrNull(cursor);
+            if (decoded == null || !decoded.categoryId().equals(id)) {
+                return ResponseEntity.badRequest().build();
+            }
+            position = ScrollPosition.forward(Map.of("id", decoded.lastId()));
+        }
+
+        int pageSize = size == null ? restConfiguration.getDefaultPageSize()
+                : Math.max(1, Math.min(size, restConfiguration.getMaxPageSize()));
+
+        Window<Product> window = productRepository.findByCategoryIdOrderByIdAsc(id, position, Limit.of(pageSize));
+
+        List<Object> content = new ArrayList<>();
+        window.forEach(product -> content.add(entityAssembler.toModel(product)));
+        if (content.isEmpty()) {
+            content.add(new EmbeddedWrappers(false).emptyCollectionOf(Product.class));
+        }
+
+        CollectionModel<?> model = CollectionModel.of(content,
+                Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+
+        if (window.hasNext() && !window.isEmpty()) {
+            Product last = window.getContent().get(window.size() - 1);
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", new ProductCursor(id, last.getId()).encode())
+                    .replaceQueryParam("size", pageSize)
+                    .toUriString();
+            model.add(Link.of(next, IanaLinkRelations.NEXT));
+        }
+
+        return ResponseEntity.ok(model);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Answers the product name search from {@link ProductSearchIndex} instead of a
+ * {@code LIKE '%name%'} table scan. Falls back to the repository query until the index is built. Sorting by
+ * a property the index cannot compare is answered with 400.
+ */
+@CrossOrigin("http://localhost:4200")
+@RepositoryRestController
+public class ProductSearchController {
+    private ProductRepository productRepository;
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    public ProductSearchController(ProductRepository theProductRepository, ProductSearchIndex theSearchIndex) {
+        productRepository = theProductRepository;
+        searchIndex = theSearchIndex;
+    }
+
+    @GetMapping("/products/search/findByNameContaining")
+    public ResponseEntity<PagedModel<?>> findByNameContaining(@RequestParam(name = "name", required = false) String name,
+                                                              Pageable pageable,
+                                                              PagedResourcesAssembler<Object> pagedAssembler,
+                                                              PersistentEntityResourceAssembler entityAssembler) {
+        try {
+            ProductSearchIndex.checkSort(pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Page<Product> page = searchIndex.isReady()
+                ? searchIndex.findByNameContaining(name, pageable)
+                : productRepository.findByNameContaining(name, pageable);
+
+        return ResponseEntity.ok(toModel(page, pagedAssembler, entityAssembler));
+    }
+
+    @SuppressWarnings("unchecked")
+    static PagedModel<?> toModel(Page<?> page,
+                                 PagedResourcesAssembler<Object> pagedAssembler,
+                                 PersistentEntityResourceAssembler entityAssembler) {
+        if (page.isEmpty()) {
+            return pagedAssembler.toEmptyModel(page, Product.class);
+        }
+
+        return pagedAssembler.toModel((Page<Object>) page, entityAssembler);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.mihaiLita.ecommerce.reference.ReferenceDataService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Answers the checkout form's country and state lookups from {@link ReferenceDataService}.
+ * Paged, sorted or projected country requests still go to Spring Data REST.
+ */
+@CrossOrigin("http://localhost:4200")
+@RepositoryRestController
+public class ReferenceDataController {
+    private ReferenceDataService referenceDataService;
+    private RepositoryRestConfiguration restConfiguration;
+
+    @Autowired
+    public ReferenceDataController(ReferenceDataService theReferenceDataService,
+                                   RepositoryRestConfiguration theRestConfiguration) {
+        referenceDataService = theReferenceDataService;
+        restConfiguration = theRestConfiguration;
+    }
+
+    @GetMapping(path = "/countries", params = {"!page", "!size", "!sort", "!projection"})
+    public void getCountries(HttpServletResponse response) throws IOException {
+        write(response, referenceDataService.countries(baseUrl()));
+    }
+
+    @GetMapping("/states/search/findByCountryCode")
+    public void findStatesByCountryCode(@RequestParam(name = "code", required = false) String code,
+                                        HttpServletResponse response) throws IOException {
+        write(response, referenceDataService.statesByCountryCode(baseUrl(), code));
+    }
+
+    @PostMapping("/admin/reference-data/reload")
+    public ResponseEntity<Void> reload() {
+        referenceDataService.reload();
+        return ResponseEntity.noContent().build();
+    }
+
+    private String baseUrl() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(restConfiguration.getBasePath().getPath())
+                .toUriString();
+    }
+
+    private static void write(HttpServletResponse response, byte[] body) throws IOException {
+        response.setContentType(MediaTypes.HAL_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,119 @@
+package com.mihaiLita.ecommerce.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.mihaiLita.ecommerce.fields.SparseCatalogQuery;
+import com.mihaiLita.ecommerce.fields.SparseEncoding;
+import com.mihaiLita.ecommerce.fields.SparseResource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact alternative to the HAL collections of products and categories, e.g.
+ * {@code GET /api/products/search/findByCategoryId?id=1&fields=id,name,unitPrice,imageUrl}. Taken instead
+ * of Spring Data REST when {@code fields} is given or the client prefers {@code application/cbor} over JSON,
+ * see {@link com.mihaiLita.ecommerce.web.CborAcceptFilter}.
+ * <p>
+ * Only the requested fields are selected, see {@link SparseCatalogQuery}; without {@code fields} every
+ * field is. The body keeps the {@code _embedded} and {@code page} shape of the HAL response but has no
+ * links, and is JSON or CBOR as negotiated by {@link SparseEncoding}.
+ */
+@CrossOrigin("http://localhost:4200")
+@RepositoryRestController
+public class SparseCatalogController {
+    private static final String PRODUCTS = "/products";
+    private static final String PRODUCTS_BY_CATEGORY = "/products/search/findByCategoryId";
+    private static final String CATEGORIES = "/product-category";
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private SparseCatalogQuery sparseQuery;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+
+    @Autowired
+    public SparseCatalogController(SparseCatalogQuery theSparseQuery, ObjectMapper theObjectMapper) {
+        sparseQuery = theSparseQuery;
+        jsonMapper = theObjectMapper;
+        // same modules and date settings as the JSON
+        cborMapper = theObjectMapper.copyWith(new CBORFactory());
+    }
+
+    @GetMapping(value = {PRODUCTS, PRODUCTS_BY_CATEGORY, CATEGORIES}, params = "fields")
+    public void sparse(@RequestParam("fields") String fields,
+                       @RequestParam(name = "id", required = false) Long id,
+                       Pageable pageable,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String pattern = String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        SparseResource resource = pattern.endsWith(CATEGORIES) ? SparseResource.PRODUCT_CATEGORY
+                : SparseResource.PRODUCTS;
+        Long categoryId = null;
+        if (pattern.endsWith(PRODUCTS_BY_CATEGORY)) {
+            if (id == null) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing parameter: id");
+                return;
+            }
+            categoryId = id;
+        }
+
+        List<String> selected;
+        Sort sort;
+        try {
+            selected = resource.fields(fields);
+            sort = resource.sort(pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        Page<Map<String, Object>> page = sparseQuery.find(resource, selected, categoryId, pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort));
+
+        SparseEncoding encoding = SparseEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        response.setContentType(encoding.getMediaType().toString());
+        // added to the Vary: Origin from CORS
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE);
+        (encoding == SparseEncoding.CBOR ? cborMapper : jsonMapper).writeValue(out, body(resource, page));
+        out.flush();
+    }
+
+    @GetMapping(value = {PRODUCTS, PRODUCTS_BY_CATEGORY, CATEGORIES}, produces = SparseEncoding.CBOR_VALUE)
+    public void binary(@RequestParam(name = "id", required = false) Long id,
+                       Pageable pageable,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        sparse("", id, pageable, request, response);
+    }
+
+    static Map<String, Object> body(SparseResource resource, Page<Map<String, Object>> page) {
+        Map<String, Object> pageInfo = new LinkedHashMap<>();
+        pageInfo.put("size", page.getSize());
+        pageInfo.put("totalElements", page.getTotalElements());
+        pageInfo.put("totalPages", page.getTotalPages());
+        pageInfo.put("number", page.getNumber());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("_embedded", Map.of(resource.getRel(), page.getContent()));
+        body.put("page", pageInfo);
+        return body;
+    }
+}
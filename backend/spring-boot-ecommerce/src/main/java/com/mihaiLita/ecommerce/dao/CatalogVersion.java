@@ -0,0 +1,9 @@
+package com.mihaiLita.ecommerce.dao;
+
+import java.util.Date;
+
+// row count and newest modification time of a catalog query, used to build HTTP validators
+public interface CatalogVersion {
+    Long getCount();
+    Date getLastModified();
+}
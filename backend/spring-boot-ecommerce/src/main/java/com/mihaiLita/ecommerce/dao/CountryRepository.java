@@ -1,13 +1,29 @@
 package com.mihaiLita.ecommerce.dao;
 
+import com.mihaiLita.ecommerce.config.CatalogCacheConfig;
 import com.mihaiLita.ecommerce.entity.Country;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.util.Optional;
+
 @CrossOrigin("http://localhost:4200")
 @RepositoryRestResource(collectionResourceRel = "countries", path = "countries")
+@CacheConfig(cacheNames = CatalogCacheConfig.COUNTRIES, keyGenerator = CatalogCacheConfig.REPOSITORY_KEY_GENERATOR)
+@Transactional(readOnly = true)
 public interface CountryRepository extends JpaRepository<Country, Integer> {
+    @Override
+    @Cacheable
+    Optional<Country> findById(Integer id);
 
+    @Override
+    @Cacheable
+    Page<Country> findAll(Pageable pageable);
 }
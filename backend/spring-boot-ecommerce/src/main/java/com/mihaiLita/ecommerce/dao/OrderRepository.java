@@ -0,0 +1,10 @@
+package com.mihaiLita.ecommerce.dao;
+
+import com.mihaiLita.ecommerce.entity.Order;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+@RepositoryRestResource(exported = false)
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    Order findByOrderTrackingNumber(String orderTrackingNumber);
+}
@@ -0,0 +1,6 @@
+package com.mihaiLita.ecommerce.dao;
+
+public interface ProductCategoryName {
+    Long getId();
+    String getCategoryName();
+}
@@ -1,11 +1,41 @@
 package com.mihaiLita.ecommerce.dao;
 
+import com.mihaiLita.ecommerce.config.CatalogCacheConfig;
 import com.mihaiLita.ecommerce.entity.ProductCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.util.List;
+import java.util.Optional;
+
 @CrossOrigin("http://localhost:4200")
 @RepositoryRestResource(collectionResourceRel = "productCategory", path = "product-category")
+@CacheConfig(cacheNames = CatalogCacheConfig.PRODUCT_CATEGORIES, keyGenerator = CatalogCacheConfig.REPOSITORY_KEY_GENERATOR)
+@Transactional(readOnly = true)
 public interface ProductCategoryRepository extends JpaRepository<ProductCategory, Long> {
+    @Override
+    @Cacheable(sync = true)
+    Optional<ProductCategory> findById(Long id);
+
+    @Override
+    @Cacheable(sync = true)
+    Page<ProductCategory> findAll(Pageable pageable);
+
+    // categories carry no timestamp, their validators are derived from ids and names; read on every
+    // category request, so the result sits in the Hibernate query cache
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select c.id as id, c.categoryName as categoryName from ProductCategory c order by c.id")
+    List<ProductCategoryName> findAllNames();
 }
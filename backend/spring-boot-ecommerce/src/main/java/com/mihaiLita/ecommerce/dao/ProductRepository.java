@@ -1,14 +1,82 @@
 package com.mihaiLita.ecommerce.dao;
 
+import com.mihaiLita.ecommerce.config.CatalogCacheConfig;
 import com.mihaiLita.ecommerce.entity.Product;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.util.Optional;
+
+// reads run read-only, so with replicas enabled they go to a replica (see ReplicaRoutingDataSource);
+// the stock updates, and save and delete from SimpleJpaRepository, stay read-write on the primary
 @CrossOrigin("http://localhost:4200")
+@CacheConfig(keyGenerator = CatalogCacheConfig.REPOSITORY_KEY_GENERATOR)
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // category is lazy; reads fetch it in the same select so cached, detached products stay usable.
+    // sync: concurrent identical misses share one query, see SingleFlightCache
+    @Cacheable(cacheNames = CatalogCacheConfig.PRODUCT_PAGES, sync = true)
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByCategoryId(@Param("id") Long id, Pageable pageable);
+    @Cacheable(cacheNames = CatalogCacheConfig.PRODUCT_PAGES, sync = true)
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByNameContaining(@Param("name") String name, Pageable page);
+
+    // keyset scroll on (category_id, id), exposed through ProductScrollController
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "category")
+    Window<Product> findByCategoryIdOrderByIdAsc(Long id, ScrollPosition position, Limit limit);
+
+    @Override
+    @Cacheable(cacheNames = CatalogCacheConfig.PRODUCTS, sync = true)
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = CatalogCacheConfig.PRODUCT_PAGES, sync = true)
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Pageable pageable);
+
+    // validators for conditional GET, see CatalogConditionalGetFilter
+    @RestResource(exported = false)
+    @Query("select count(p) as count, max(coalesce(p.lastUpdated, p.dateCreated)) as lastModified from Product p")
+    CatalogVersion findVersion();
+
+    @RestResource(exported = false)
+    @Query("select count(p) as count, max(coalesce(p.lastUpdated, p.dateCreated)) as lastModified from Product p "
+            + "where p.id = :id")
+    CatalogVersion findVersionById(@Param("id") Long id);
+
+    @RestResource(exported = false)
+    @Query("select count(p) as count, max(coalesce(p.lastUpdated, p.dateCreated)) as lastModified from Product p "
+            + "where p.category.id = :id")
+    CatalogVersion findVersionByCategoryId(@Param("id") Long id);
+
+    // conditional decrement: the row is only locked for this statement and stock can never go negative
+    @RestResource(exported = false)
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.unitsInStock = p.unitsInStock - :quantity, p.lastUpdated = current_timestamp "
+            + "where p.id = :id and p.unitsInStock >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @RestResource(exported = false)
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.unitsInStock = p.unitsInStock + :quantity, p.lastUpdated = current_timestamp "
+            + "where p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
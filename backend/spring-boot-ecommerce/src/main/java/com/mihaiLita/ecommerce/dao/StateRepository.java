@@ -1,15 +1,37 @@
 package com.mihaiLita.ecommerce.dao;
 
+import com.mihaiLita.ecommerce.config.CatalogCacheConfig;
 import com.mihaiLita.ecommerce.entity.State;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.util.List;
+import java.util.Optional;
 
 @CrossOrigin("http://localhost:4200")
 @RepositoryRestResource
+@CacheConfig(cacheNames = CatalogCacheConfig.STATES, keyGenerator = CatalogCacheConfig.REPOSITORY_KEY_GENERATOR)
+@Transactional(readOnly = true)
 public interface StateRepository extends JpaRepository<State, Integer> {
+    @Cacheable
+    @EntityGraph(attributePaths = "country")
     List<State> findByCountryCode(@Param("code") String code);
+
+    @Override
+    @Cacheable
+    @EntityGraph(attributePaths = "country")
+    Optional<State> findById(Integer id);
+
+    @Override
+    @Cacheable
+    @EntityGraph(attributePaths = "country")
+    Page<State> findAll(Pageable pageable);
 }
@@ -0,0 +1,9 @@
+package com.mihaiLita.ecommerce.dto;
+
+import lombok.Data;
+
+@Data
+public class CartItem {
+    private Long productId;
+    private int quantity;
+}
@@ -0,0 +1,11 @@
+package com.mihaiLita.ecommerce.dto;
+
+import lombok.Data;
+
+// what a checkout may say about the buyer; the customer row itself is looked up or created by email
+@Data
+public class CustomerDetails {
+    private String firstName;
+    private String lastName;
+    private String email;
+}
@@ -0,0 +1,11 @@
+package com.mihaiLita.ecommerce.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class Purchase {
+    private CustomerDetails customer;
+    private List<CartItem> cartItems;
+}
@@ -0,0 +1,8 @@
+package com.mihaiLita.ecommerce.dto;
+
+import lombok.Data;
+
+@Data
+public class PurchaseResponse {
+    private final String orderTrackingNumber;
+}
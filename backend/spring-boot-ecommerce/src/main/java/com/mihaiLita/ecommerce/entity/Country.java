@@ -1,6 +1,7 @@
 package com.mihaiLita.ecommerce.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mihaiLita.ecommerce.cache.CatalogCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -9,6 +10,7 @@ import java.util.List;
 
 @Entity
 @Table(name="country")
+@EntityListeners(CatalogCacheEvictionListener.class)
 @Getter
 @Setter
 public class Country {
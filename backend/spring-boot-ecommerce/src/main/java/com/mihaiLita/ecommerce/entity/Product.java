@@ -1,15 +1,28 @@
 package com.mihaiLita.ecommerce.entity;
 
+import com.mihaiLita.ecommerce.cache.CatalogCacheEvictionListener;
+import com.mihaiLita.ecommerce.facet.ProductFacetIndexListener;
+import com.mihaiLita.ecommerce.inventory.InventoryEntityListener;
+import com.mihaiLita.ecommerce.search.ProductSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.util.Date;
 
+// not in the second-level cache unless configured (hibernate.classcache in application.properties): stock
+// moves through bulk and plain SQL updates that Hibernate either cannot see or answers by dropping the region
 @Entity
 @Table(name="product")
+@EntityListeners({ProductSearchIndexListener.class, ProductFacetIndexListener.class, CatalogCacheEvictionListener.class,
+        InventoryEntityListener.class})
+// an edit writes only the columns it changed, never a units_in_stock read before a stock flush
+@DynamicUpdate
 @Data
 public class Product {
     @Id
@@ -17,11 +30,13 @@ public class Product {
     @Column(name = "id")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private ProductCategory category;
 
-    @Column(name = "sku")
+    @Column(name = "sku", unique = true)
     private String sku;
 
     @Column(name = "name")
@@ -1,13 +1,19 @@
 package com.mihaiLita.ecommerce.entity;
 
+import com.mihaiLita.ecommerce.cache.CatalogCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
 @Entity
 @Table(name = "product_category")
+@EntityListeners(CatalogCacheEvictionListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // @Data -- known bug
 @Getter
 @Setter
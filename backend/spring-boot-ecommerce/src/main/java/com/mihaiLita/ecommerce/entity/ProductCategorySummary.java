@@ -0,0 +1,15 @@
+package com.mihaiLita.ecommerce.entity;
+
+import com.mihaiLita.ecommerce.summary.CategorySummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.rest.core.config.Projection;
+
+// category menu with product counts and price range: /api/product-category?projection=summary
+@Projection(name = "summary", types = { ProductCategory.class })
+public interface ProductCategorySummary {
+    Long getId();
+    String getCategoryName();
+
+    @Value("#{@categorySummaries.get(target.id)}")
+    CategorySummary getSummary();
+}
@@ -0,0 +1,16 @@
+package com.mihaiLita.ecommerce.entity;
+
+import org.springframework.data.rest.core.config.Projection;
+
+import java.math.BigDecimal;
+
+// lean view for product lists: /api/products/search/findByCategoryId?id=1&projection=list
+@Projection(name = "list", types = { Product.class })
+public interface ProductListItem {
+    Long getId();
+    String getSku();
+    String getName();
+    BigDecimal getUnitPrice();
+    String getImageUrl();
+    int getUnitsInStock();
+}
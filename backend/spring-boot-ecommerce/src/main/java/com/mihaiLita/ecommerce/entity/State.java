@@ -1,10 +1,12 @@
 package com.mihaiLita.ecommerce.entity;
 
+import com.mihaiLita.ecommerce.cache.CatalogCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Table(name="state")
+@EntityListeners(CatalogCacheEvictionListener.class)
 @Data
 public class State {
     @Id
@@ -15,7 +17,7 @@ public class State {
     @Column(name="name")
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="country_id")
     private Country country;
 }
@@ -0,0 +1,7 @@
+package com.mihaiLita.ecommerce.events;
+
+import java.time.Instant;
+
+public record CategoryChanged(long sequence, Operation operation, Long categoryId, Instant committedAt)
+        implements ChangeEvent {
+}
@@ -0,0 +1,20 @@
+package com.mihaiLita.ecommerce.events;
+
+import java.time.Instant;
+
+/**
+ * A committed change to a catalog row. Events carry ids only; consumers read the current state themselves.
+ * The sequence is assigned by {@link ChangeEventRing}, strictly increasing in publication order.
+ */
+public sealed interface ChangeEvent permits ProductChanged, CategoryChanged {
+
+    enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    long sequence();
+
+    Operation operation();
+
+    Instant committedAt();
+}
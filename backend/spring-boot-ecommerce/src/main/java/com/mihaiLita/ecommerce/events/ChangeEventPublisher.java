@@ -0,0 +1,96 @@
+package com.mihaiLita.ecommerce.events;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Turns committed product and category writes into {@link ChangeEvent}s. Like
+ * {@link com.mihaiLita.ecommerce.cache.HalResponseCacheInvalidator} it hooks Hibernate's post-commit
+ * events, which fire only for committed rows and carry the category a moved product left. Writes that
+ * bypass Hibernate call {@link #productChanged} themselves or are picked up by {@link ChangeEventTailer}.
+ * Registered through {@link com.mihaiLita.ecommerce.config.HibernateListenerConfig}.
+ */
+@Component
+public class ChangeEventPublisher
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private final ChangeEventRing ring;
+
+    @Autowired
+    public ChangeEventPublisher(ChangeEventRing theRing) {
+        ring = theRing;
+    }
+
+    public long productChanged(ChangeEvent.Operation operation, Long productId, Long categoryId,
+                               Long previousCategoryId) {
+        Instant committedAt = Instant.now();
+        return ring.publish(sequence -> new ProductChanged(sequence, operation, productId, categoryId,
+                previousCategoryId, committedAt));
+    }
+
+    public long categoryChanged(ChangeEvent.Operation operation, Long categoryId) {
+        Instant committedAt = Instant.now();
+        return ring.publish(sequence -> new CategoryChanged(sequence, operation, categoryId, committedAt));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return entityClass == Product.class || entityClass == ProductCategory.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        entityChanged(ChangeEvent.Operation.CREATED, event.getEntity(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Long previousCategoryId = null;
+        if (event.getEntity() instanceof Product product && event.getOldState() != null) {
+            int category = event.getPersister().getPropertyIndex("category");
+            if (event.getOldState()[category] instanceof ProductCategory previous
+                    && product.getCategory() != null
+                    && !previous.getId().equals(product.getCategory().getId())) {
+                previousCategoryId = previous.getId();
+            }
+        }
+        entityChanged(ChangeEvent.Operation.UPDATED, event.getEntity(), previousCategoryId);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        entityChanged(ChangeEvent.Operation.DELETED, event.getEntity(), null);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void entityChanged(ChangeEvent.Operation operation, Object entity, Long previousCategoryId) {
+        if (entity instanceof Product product) {
+            Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+            productChanged(operation, product.getId(), categoryId, previousCategoryId);
+        } else if (entity instanceof ProductCategory category) {
+            categoryChanged(operation, category.getId());
+        }
+    }
+}
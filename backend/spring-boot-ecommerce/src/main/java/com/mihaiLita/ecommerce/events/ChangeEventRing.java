@@ -0,0 +1,219 @@
+package com.mihaiLita.ecommerce.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded, ordered buffer of {@link ChangeEvent}s between the code that commits catalog writes and the
+ * code that reacts to them.
+ * <p>
+ * Publishers take the next sequence and a slot; a dispatcher thread hands everything published since its
+ * last pass to every {@link ChangeEventSubscriber} as one batch, then frees the slots. When all
+ * {@code ecommerce.events.capacity} slots hold undelivered events, publishers wait for the dispatcher, up
+ * to {@code ecommerce.events.publish-timeout}; past that the event is dropped and counted rather than
+ * holding a request thread indefinitely.
+ * <p>
+ * Delivered events stay readable until their slot is reused, so the last {@code capacity} events can be
+ * replayed to stream readers that reconnect.
+ */
+@Component
+public class ChangeEventRing {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventRing.class);
+
+    private final ChangeEvent[] slots;
+    private final int mask;
+    private final int batchSize;
+    private final long publishTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+
+    // last sequence handed out, last sequence delivered to every subscriber; both guarded by lock
+    private long published;
+    private long dispatched;
+
+    private final ObjectProvider<ChangeEventSubscriber> subscriberProvider;
+    private final Counter publishedEvents;
+    private final Counter droppedEvents;
+    private final DistributionSummary batchSizes;
+
+    private Thread dispatcher;
+
+    @Autowired
+    public ChangeEventRing(@Value("${ecommerce.events.capacity:8192}") int theCapacity,
+                           @Value("${ecommerce.events.batch-size:256}") int theBatchSize,
+                           @Value("${ecommerce.events.publish-timeout:1s}") Duration thePublishTimeout,
+                           ObjectProvider<ChangeEventSubscriber> theSubscriberProvider,
+                           ObjectProvider<MeterRegistry> theMeterRegistry) {
+        int capacity = Integer.highestOneBit(Math.max(theCapacity - 1, 1)) << 1;
+        slots = new ChangeEvent[capacity];
+        mask = capacity - 1;
+        batchSize = theBatchSize;
+        publishTimeoutNanos = thePublishTimeout.toNanos();
+        subscriberProvider = theSubscriberProvider;
+
+        MeterRegistry registry = theMeterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        publishedEvents = Counter.builder("catalog.events.published").register(registry);
+        droppedEvents = Counter.builder("catalog.events.dropped")
+                .description("Events not published because the ring stayed full for the whole publish timeout")
+                .register(registry);
+        batchSizes = DistributionSummary.builder("catalog.events.batch.size").register(registry);
+        Gauge.builder("catalog.events.backlog", this, ChangeEventRing::backlog).register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher = new Thread(this::dispatch, "change-event-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @param event builds the event from the sequence it is given
+     * @return the event's sequence, or -1 if it was dropped
+     */
+    public long publish(LongFunction<? extends ChangeEvent> event) {
+        lock.lock();
+        try {
+            long nanos = publishTimeoutNanos;
+            while (published - dispatched >= slots.length) {
+                if (nanos <= 0) {
+                    droppedEvents.increment();
+                    logger.warn("Change event ring full for {} ms, dropping an event", publishTimeoutNanos / 1_000_000);
+                    return -1;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+
+            long sequence = ++published;
+            slots[(int) (sequence & mask)] = event.apply(sequence);
+            notEmpty.signalAll();
+            publishedEvents.increment();
+            return sequence;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedEvents.increment();
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Events after {@code after}, oldest first, waiting up to {@code timeout} for the first one. When
+     * {@code after} is older than the ring still holds, the result starts at the oldest event held, so a
+     * reader sees the gap as a first sequence greater than {@code after + 1}.
+     */
+    public List<ChangeEvent> read(long after, int max, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = timeout.toNanos();
+            while (published <= after && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return copy(after, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return published;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        long cursor = 0;
+        List<ChangeEventSubscriber> subscribers = null;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<ChangeEvent> batch;
+            try {
+                batch = read(cursor, batchSize, Duration.ofSeconds(1));
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            // resolved on first use; subscribers may themselves depend on the ring
+            if (subscribers == null) {
+                subscribers = subscriberProvider.orderedStream().toList();
+            }
+            for (ChangeEventSubscriber subscriber : subscribers) {
+                try {
+                    subscriber.onEvents(batch);
+                } catch (RuntimeException e) {
+                    logger.warn("Change event subscriber {} failed on events {}..{}", subscriber.getClass().getName(),
+                            batch.get(0).sequence(), batch.get(batch.size() - 1).sequence(), e);
+                }
+            }
+            batchSizes.record(batch.size());
+
+            cursor = batch.get(batch.size() - 1).sequence();
+            lock.lock();
+            try {
+                dispatched = cursor;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // a slot is reused capacity sequences later, so only the last capacity events are still readable
+    private List<ChangeEvent> copy(long after, int max) {
+        long from = Math.max(after, published - slots.length) + 1;
+        long to = Math.min(published, from + max - 1);
+
+        List<ChangeEvent> events = new ArrayList<>((int) Math.max(to - from + 1, 0));
+        for (long sequence = from; sequence <= to; sequence++) {
+            events.add(slots[(int) (sequence & mask)]);
+        }
+        return events;
+    }
+
+    private double backlog() {
+        lock.lock();
+        try {
+            return published - dispatched;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.mihaiLita.ecommerce.events;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans change events out to Server-Sent Events clients.
+ * <p>
+ * Reads the ring on its own thread and does not hold back publishers: a stream that falls more than the
+ * ring's capacity behind gets a {@code reset} event and continues from the oldest event still held, and
+ * its reader should resynchronize from the database. A client reconnecting with {@code Last-Event-ID}
+ * is first replayed what it missed, as far as the ring still holds it.
+ * <p>
+ * Each client has a bounded queue drained on its own virtual thread, so one slow connection never delays
+ * the others. A client whose queue is full is disconnected and picks up again with {@code Last-Event-ID}.
+ * At most {@code ecommerce.events.max-clients} streams are open at a time.
+ */
+@Component
+public class ChangeEventStream {
+    private static final int BATCH_SIZE = 256;
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    private ChangeEventRing ring;
+    private Duration timeout;
+    private int maxClients;
+    private int queueSize;
+
+    // last sequence queued to every client; guarded by this
+    private long cursor;
+    private Thread broadcaster;
+    private ExecutorService senders;
+
+    @Autowired
+    public ChangeEventStream(ChangeEventRing theRing,
+                             @Value("${ecommerce.events.stream-timeout:30m}") Duration theTimeout,
+                             @Value("${ecommerce.events.max-clients:1000}") int theMaxClients,
+                             @Value("${ecommerce.events.client-queue-size:1024}") int theQueueSize) {
+        ring = theRing;
+        timeout = theTimeout;
+        maxClients = theMaxClients;
+        queueSize = theQueueSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        cursor = ring.lastSequence();
+        senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-event-send-", 0).factory());
+        broadcaster = new Thread(this::broadcast, "change-event-stream");
+        broadcaster.setDaemon(true);
+        broadcaster.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        broadcaster.interrupt();
+        clients.forEach(client -> client.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    public SseEmitter open(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Client client = new Client(emitter);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> clients.remove(client));
+
+        synchronized (this) {
+            if (clients.size() >= maxClients) {
+                throw new TooManyStreamsException(maxClients);
+            }
+            if (lastEventId != null) {
+                replay(client, lastEventId);
+            }
+            clients.add(client);
+        }
+        client.drain();
+        return emitter;
+    }
+
+    public int clients() {
+        return clients.size();
+    }
+
+    // queues what the client missed up to the cursor; what does not fit in its queue is skipped with a reset
+    private void replay(Client client, long lastEventId) {
+        long after = Math.max(lastEventId, cursor - (queueSize - 2));
+        if (after > lastEventId) {
+            client.queue.add(reset(after));
+        }
+
+        while (after < cursor) {
+            List<ChangeEvent> events;
+            try {
+                events = ring.read(after, BATCH_SIZE, Duration.ZERO);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+            if (events.get(0).sequence() > after + 1) {
+                client.queue.add(reset(events.get(0).sequence() - 1));
+            }
+            for (ChangeEvent event : events) {
+                if (event.sequence() > cursor) {
+                    return;
+                }
+                client.queue.add(event(event));
+                after = event.sequence();
+            }
+        }
+    }
+
+    private void broadcast() {
+        long idleSince = System.nanoTime();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<ChangeEvent> events;
+            try {
+                events = ring.read(cursor, BATCH_SIZE, Duration.ofSeconds(1));
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            synchronized (this) {
+                if (events.isEmpty()) {
+                    // a comment line keeps proxies from closing an idle stream
+                    if (System.nanoTime() - idleSince > HEARTBEAT_NANOS) {
+                        queueToAll(List.of(SseEmitter.event().comment("keep-alive").build()));
+                        idleSince = System.nanoTime();
+                    }
+                    continue;
+                }
+
+                boolean gap = events.get(0).sequence() > cursor + 1;
+                List<Set<ResponseBodyEmitter.DataWithMediaType>> messages = new ArrayList<>(events.size() + 1);
+                if (gap) {
+                    messages.add(reset(events.get(0).sequence() - 1));
+                }
+                events.forEach(event -> messages.add(event(event)));
+                queueToAll(messages);
+                cursor = events.get(events.size() - 1).sequence();
+                idleSince = System.nanoTime();
+            }
+        }
+    }
+
+    private void queueToAll(List<Set<ResponseBodyEmitter.DataWithMediaType>> messages) {
+        for (Client client : clients) {
+            if (client.offer(messages)) {
+                client.drain();
+            } else {
+                // too far behind; it reconnects with Last-Event-ID
+                clients.remove(client);
+                client.emitter.complete();
+            }
+        }
+    }
+
+    // built once and sent to every client; a builder appends to itself on each build
+    private static Set<ResponseBodyEmitter.DataWithMediaType> event(ChangeEvent event) {
+        return SseEmitter.event()
+                .id(Long.toString(event.sequence()))
+                .name(event.getClass().getSimpleName())
+                .data(event, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> reset(long skippedTo) {
+        return SseEmitter.event()
+                .id(Long.toString(skippedTo))
+                .name("reset")
+                .data(Map.of("skippedTo", skippedTo), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private class Client {
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        // all or nothing, so a client never sees half a batch
+        boolean offer(List<Set<ResponseBodyEmitter.DataWithMediaType>> messages) {
+            if (queueSize - queue.size() < messages.size()) {
+                return false;
+            }
+            messages.forEach(queue::add);
+            return true;
+        }
+
+        void drain() {
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> message;
+                while ((message = queue.poll()) != null) {
+                    emitter.send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                clients.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // a message queued after the last poll but before draining was cleared
+            drain();
+        }
+    }
+}
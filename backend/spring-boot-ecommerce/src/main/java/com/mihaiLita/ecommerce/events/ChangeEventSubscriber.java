@@ -0,0 +1,12 @@
+package com.mihaiLita.ecommerce.events;
+
+import java.util.List;
+
+/**
+ * Receives every published event, in sequence order and in batches, on the ring's dispatcher thread.
+ * Every bean of this type is subscribed. A slow subscriber holds back publishers once the ring is full.
+ */
+public interface ChangeEventSubscriber {
+
+    void onEvents(List<ChangeEvent> events);
+}
@@ -0,0 +1,108 @@
+package com.mihaiLita.ecommerce.events;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a {@link ProductChanged} for every product row whose {@code last_updated} moves, so writes
+ * made with plain SQL (bulk imports, scripts, another application) reach the subscribers too.
+ * <p>
+ * Polls in {@code (last_updated, id)} order from a watermark that starts at the newest row, so history is
+ * not replayed. Rows written through Hibernate are published twice, once by {@link ChangeEventPublisher}
+ * and once here; events name ids only, so consumers treat a repeat as a no-op. Deletes leave no row and
+ * are not seen, and a transaction that commits after a newer timestamp was polled is missed.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.events.tailer.enabled", havingValue = "true")
+public class ChangeEventTailer {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventTailer.class);
+
+    private static final String CHANGED_SINCE = "select id, category_id, last_updated from product "
+            + "where last_updated > ? or (last_updated = ? and id > ?) "
+            + "order by last_updated, id limit ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private ChangeEventPublisher publisher;
+    private Duration pollInterval;
+    private int batchSize;
+
+    // touched by the poller thread only after start()
+    private Timestamp lastUpdated;
+    private long lastId;
+
+    private ScheduledExecutorService poller;
+
+    @Autowired
+    public ChangeEventTailer(JdbcTemplate theJdbcTemplate,
+                             ChangeEventPublisher thePublisher,
+                             @Value("${ecommerce.events.tailer.poll-interval:500ms}") Duration thePollInterval,
+                             @Value("${ecommerce.events.tailer.batch-size:1000}") int theBatchSize) {
+        jdbcTemplate = theJdbcTemplate;
+        publisher = thePublisher;
+        pollInterval = thePollInterval;
+        batchSize = theBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        Timestamp newest = jdbcTemplate.queryForObject("select max(last_updated) from product", Timestamp.class);
+        lastUpdated = newest == null ? new Timestamp(0) : newest;
+        lastId = Long.MAX_VALUE;
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-event-tailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    public synchronized int poll() {
+        int total = 0;
+        List<ChangedRow> rows;
+        do {
+            rows = jdbcTemplate.query(CHANGED_SINCE,
+                    (resultSet, rowNum) -> new ChangedRow(resultSet.getLong("id"), resultSet.getLong("category_id"),
+                            resultSet.getTimestamp("last_updated")),
+                    lastUpdated, lastUpdated, lastId, batchSize);
+            for (ChangedRow row : rows) {
+                publisher.productChanged(ChangeEvent.Operation.UPDATED, row.productId(), row.categoryId(), null);
+                lastUpdated = row.lastUpdated();
+                lastId = row.productId();
+            }
+            total += rows.size();
+        } while (rows.size() == batchSize);
+        return total;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Polling product changes failed", e);
+        }
+    }
+
+    private record ChangedRow(long productId, long categoryId, Timestamp lastUpdated) {
+    }
+}
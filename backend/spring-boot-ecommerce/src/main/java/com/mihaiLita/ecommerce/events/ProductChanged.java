@@ -0,0 +1,10 @@
+package com.mihaiLita.ecommerce.events;
+
+import java.time.Instant;
+
+/**
+ * @param previousCategoryId the category the product left, when an update moved it; otherwise null
+ */
+public record ProductChanged(long sequence, Operation operation, Long productId, Long categoryId,
+                             Long previousCategoryId, Instant committedAt) implements ChangeEvent {
+}
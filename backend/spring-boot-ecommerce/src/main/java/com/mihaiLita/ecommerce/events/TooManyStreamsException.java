@@ -0,0 +1,11 @@
+package com.mihaiLita.ecommerce.events;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TooManyStreamsException extends RuntimeException {
+    public TooManyStreamsException(int maxClients) {
+        super("All " + maxClients + " change event streams are in use");
+    }
+}
@@ -0,0 +1,212 @@
+package com.mihaiLita.ecommerce.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the product table straight from a forward-only JDBC cursor to an output stream. Rows are
+ * never collected and no entities are created, so memory stays constant regardless of catalog size.
+ * MySQL Connector/J streams row by row only for this statement (fetch size {@link Integer#MIN_VALUE}),
+ * other drivers fetch {@code ecommerce.export.fetch-size} rows per round trip; the shared pool keeps
+ * buffering its result sets. The cursor is read in a read-only transaction, so it runs on a replica when
+ * replicas are configured.
+ */
+@Service
+public class ProductExportService {
+    private static final String MYSQL = "MySQL";
+    private static final String COLUMNS = "id, sku, name, description, unit_price, image_url, active, "
+            + "units_in_stock, date_created, last_updated, category_id";
+
+    private static final String[] CSV_HEADER = {
+            "id", "sku", "name", "description", "unitPrice", "imageUrl", "active",
+            "unitsInStock", "dateCreated", "lastUpdated", "categoryId"
+    };
+
+    private JdbcTemplate jdbcTemplate;
+    private JsonFactory jsonFactory;
+    private int fetchSize;
+
+    @Autowired
+    public ProductExportService(JdbcTemplate theJdbcTemplate, ObjectMapper theObjectMapper,
+                                @Value("${ecommerce.export.fetch-size:1000}") int theFetchSize) {
+        jdbcTemplate = theJdbcTemplate;
+        jsonFactory = theObjectMapper.getFactory();
+        fetchSize = theFetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, Long categoryId, Instant since, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from product where 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (categoryId != null) {
+            sql.append(" and category_id = ?");
+            parameters.add(categoryId);
+        }
+        if (since != null) {
+            // rows that were never updated only carry date_created; unlike coalesce(), both branches are
+            // ranges of idx_product_modified (last_updated, date_created), where NULLs sort first
+            sql.append(" and (last_updated >= ? or (last_updated is null and date_created >= ?))");
+            parameters.add(Timestamp.from(since));
+            parameters.add(Timestamp.from(since));
+        }
+        sql.append(" order by id");
+
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(jsonFactory, out);
+        long[] rows = {0};
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize(connection));
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                return statement;
+            }, resultSet -> {
+                try {
+                    writer.write(resultSet);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // client went away, stop reading the cursor
+            throw e.getCause();
+        }
+
+        writer.finish();
+        return rows[0];
+    }
+
+    private int fetchSize(Connection connection) throws SQLException {
+        return MYSQL.equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    private interface RowWriter {
+        void write(ResultSet row) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+            generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.getLong("id"));
+            generator.writeStringField("sku", row.getString("sku"));
+            generator.writeStringField("name", row.getString("name"));
+            generator.writeStringField("description", row.getString("description"));
+            // the driver's decimal text goes out as is, no BigDecimal per row
+            String unitPrice = row.getString("unit_price");
+            generator.writeFieldName("unitPrice");
+            if (unitPrice == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(unitPrice);
+            }
+            generator.writeStringField("imageUrl", row.getString("image_url"));
+            generator.writeBooleanField("active", row.getBoolean("active"));
+            generator.writeNumberField("unitsInStock", row.getInt("units_in_stock"));
+            generator.writeStringField("dateCreated", timestamp(row.getTimestamp("date_created")));
+            generator.writeStringField("lastUpdated", timestamp(row.getTimestamp("last_updated")));
+            generator.writeNumberField("categoryId", row.getLong("category_id"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writeLine(CSV_HEADER);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            writeLine(new String[] {
+                    String.valueOf(row.getLong("id")),
+                    row.getString("sku"),
+                    row.getString("name"),
+                    row.getString("description"),
+                    row.getString("unit_price"),
+                    row.getString("image_url"),
+                    String.valueOf(row.getBoolean("active")),
+                    String.valueOf(row.getInt("units_in_stock")),
+                    timestamp(row.getTimestamp("date_created")),
+                    timestamp(row.getTimestamp("last_updated")),
+                    String.valueOf(row.getLong("category_id"))
+            });
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeLine(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeValue(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: quote fields containing separators, quotes or line breaks
+        private void writeValue(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static String timestamp(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant().toString();
+    }
+}
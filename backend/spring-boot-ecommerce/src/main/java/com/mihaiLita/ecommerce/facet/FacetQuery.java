@@ -0,0 +1,25 @@
+package com.mihaiLita.ecommerce.facet;
+
+import java.util.Set;
+
+/**
+ * Values within one facet are alternatives (OR), facets are combined with AND. Empty sets and
+ * {@code null} flags leave that facet unfiltered.
+ */
+public record FacetQuery(Set<Long> categoryIds, Set<Integer> priceBands, Boolean active, Boolean inStock,
+                         Order order) {
+
+    public enum Order {
+        ID, PRICE_ASC, PRICE_DESC
+    }
+
+    public FacetQuery {
+        categoryIds = categoryIds == null ? Set.of() : Set.copyOf(categoryIds);
+        priceBands = priceBands == null ? Set.of() : Set.copyOf(priceBands);
+        order = order == null ? Order.ID : order;
+    }
+
+    public FacetQuery(Set<Long> categoryIds, Set<Integer> priceBands, Boolean active, Boolean inStock) {
+        this(categoryIds, priceBands, active, inStock, Order.ID);
+    }
+}
@@ -0,0 +1,22 @@
+package com.mihaiLita.ecommerce.facet;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.mihaiLita.ecommerce.money.CentsSerializer;
+
+import java.util.List;
+import java.util.Map;
+
+public record FacetResult(long total, int page, int size, List<Long> productIds,
+                          Map<Long, Integer> categories, List<PriceBand> priceBands, Flag active, Flag inStock) {
+
+    /**
+     * Prices in cents from {@code from} inclusive to {@code to} exclusive, written as decimal amounts;
+     * the last band has no upper bound.
+     */
+    public record PriceBand(int band, @JsonSerialize(using = CentsSerializer.class) long from,
+                            @JsonSerialize(using = CentsSerializer.class) Long to, int count) {
+    }
+
+    public record Flag(int yes, int no) {
+    }
+}
@@ -0,0 +1,315 @@
+package com.mihaiLita.ecommerce.facet;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.money.Cents;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of product ids per category, price band, active flag and stock state.
+ * <p>
+ * A filter is the intersection of the bitmaps it selects. Facet counts are disjunctive: the counts of
+ * one facet ignore that facet's own filter, so the menu can show how many products each other choice
+ * would give. Price bands are cut at {@code ecommerce.facets.price-bands}.
+ * <p>
+ * Prices are kept as {@link Cents}, one {@code long} per product id. Sorting by price only sorts the
+ * price bands the requested page falls into, the bands themselves are already in price order.
+ */
+@Component
+public class ProductFacetIndex {
+    private static final long MAX_SORT_CENTS = 0xFFFFFFFFL;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final long[] bandLimits;
+
+    private Segment segment;
+
+    // changes that arrive while a rebuild is loading rows, replayed on top of the new segment
+    private List<Runnable> pendingChanges;
+
+    @Autowired
+    public ProductFacetIndex(@Value("${ecommerce.facets.price-bands:10,20,50,100}") List<BigDecimal> thePriceBands) {
+        bandLimits = thePriceBands.stream().mapToLong(Cents::of).sorted().toArray();
+        segment = new Segment(bandLimits.length + 1);
+    }
+
+    public void rebuild(Iterable<Product> products) {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment newSegment = new Segment(bandLimits.length + 1);
+        for (Product product : products) {
+            long cents = cents(product);
+            newSegment.add(id(product.getId()), categoryId(product), band(cents), cents,
+                    product.isActive(), product.getUnitsInStock() > 0);
+        }
+        newSegment.optimize();
+
+        lock.writeLock().lock();
+        try {
+            segment = newSegment;
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+
+        int id = id(product.getId());
+        Long categoryId = categoryId(product);
+        long cents = cents(product);
+        int band = band(cents);
+        boolean active = product.isActive();
+        boolean inStock = product.getUnitsInStock() > 0;
+        apply(() -> {
+            segment.remove(id);
+            segment.add(id, categoryId, band, cents, active, inStock);
+        });
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) {
+            return;
+        }
+
+        int id = id(productId);
+        apply(() -> segment.remove(id));
+    }
+
+    public FacetResult search(FacetQuery query, int page, int size) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categories = query.categoryIds().isEmpty() ? null : segment.categories(query.categoryIds());
+            RoaringBitmap bands = query.priceBands().isEmpty() ? null : segment.bands(query.priceBands());
+            RoaringBitmap active = query.active() == null ? null : segment.flag(segment.active, query.active());
+            RoaringBitmap inStock = query.inStock() == null ? null : segment.flag(segment.inStock, query.inStock());
+
+            RoaringBitmap matches = and(categories, bands, active, inStock);
+
+            Map<Long, Integer> categoryCounts = new TreeMap<>();
+            RoaringBitmap withoutCategory = and(null, bands, active, inStock);
+            segment.byCategory.forEach((categoryId, ids) ->
+                    categoryCounts.put(categoryId, RoaringBitmap.andCardinality(withoutCategory, ids)));
+
+            List<FacetResult.PriceBand> bandCounts = new ArrayList<>();
+            RoaringBitmap withoutBand = and(categories, null, active, inStock);
+            for (int band = 0; band < segment.byBand.length; band++) {
+                bandCounts.add(new FacetResult.PriceBand(band,
+                        band == 0 ? 0 : bandLimits[band - 1],
+                        band == bandLimits.length ? null : bandLimits[band],
+                        RoaringBitmap.andCardinality(withoutBand, segment.byBand[band])));
+            }
+
+            RoaringBitmap withoutActive = and(categories, bands, null, inStock);
+            int activeCount = RoaringBitmap.andCardinality(withoutActive, segment.active);
+
+            RoaringBitmap withoutInStock = and(categories, bands, active, null);
+            int inStockCount = RoaringBitmap.andCardinality(withoutInStock, segment.inStock);
+
+            int total = matches.getCardinality();
+            long from = (long) page * size;
+            List<Long> productIds = query.order() == FacetQuery.Order.ID
+                    ? pageById(matches, from, size)
+                    : pageByPrice(matches, from, size, query.order() == FacetQuery.Order.PRICE_DESC);
+
+            return new FacetResult(total, page, size, productIds, categoryCounts, bandCounts,
+                    new FacetResult.Flag(activeCount, withoutActive.getCardinality() - activeCount),
+                    new FacetResult.Flag(inStockCount, withoutInStock.getCardinality() - inStockCount));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> pageById(RoaringBitmap matches, long from, int size) {
+        List<Long> productIds = new ArrayList<>(size);
+        for (long i = from; i < Math.min(from + size, matches.getCardinality()); i++) {
+            productIds.add(Integer.toUnsignedLong(matches.select((int) i)));
+        }
+        return productIds;
+    }
+
+    private List<Long> pageByPrice(RoaringBitmap matches, long from, int size, boolean descending) {
+        List<Long> productIds = new ArrayList<>(size);
+        long skipped = 0;
+        for (int i = 0; i < segment.byBand.length && productIds.size() < size; i++) {
+            RoaringBitmap inBand = RoaringBitmap.and(matches, segment.byBand[descending ? segment.byBand.length - 1 - i : i]);
+            int count = inBand.getCardinality();
+            if (skipped + count <= from) {
+                skipped += count;
+                continue;
+            }
+
+            long[] keys = new long[count];
+            int k = 0;
+            for (int id : inBand) {
+                keys[k++] = segment.sortKey(id);
+            }
+            Arrays.sort(keys);
+
+            for (int j = (int) Math.max(from - skipped, 0); j < count && productIds.size() < size; j++) {
+                productIds.add(keys[descending ? count - 1 - j : j] & Integer.MAX_VALUE);
+            }
+            skipped += count;
+        }
+        return productIds;
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private RoaringBitmap and(RoaringBitmap... filters) {
+        RoaringBitmap result = null;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = result == null ? filter : RoaringBitmap.and(result, filter);
+            }
+        }
+        return result == null ? segment.all : result;
+    }
+
+    private int band(long cents) {
+        int band = 0;
+        while (band < bandLimits.length && cents >= bandLimits[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    // a product without a price sorts and bands as free
+    private static long cents(Product product) {
+        return product.getUnitPrice() == null ? 0 : Cents.of(product.getUnitPrice());
+    }
+
+    // product ids are AUTO_INCREMENT and far below 2^31, the bitmaps hold them as ints
+    private static int id(Long productId) {
+        return Math.toIntExact(productId);
+    }
+
+    // only the id, reading anything else from a lazy category proxy would hit the database
+    private static Long categoryId(Product product) {
+        return product.getCategory() == null ? null : product.getCategory().getId();
+    }
+
+    private static class Segment {
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<Long, RoaringBitmap> byCategory = new TreeMap<>();
+        private final RoaringBitmap[] byBand;
+        private final RoaringBitmap active = new RoaringBitmap();
+        private final RoaringBitmap inStock = new RoaringBitmap();
+
+        // indexed by product id, which AUTO_INCREMENT keeps dense
+        private long[] prices = new long[1024];
+
+        Segment(int bands) {
+            byBand = new RoaringBitmap[bands];
+            for (int i = 0; i < bands; i++) {
+                byBand[i] = new RoaringBitmap();
+            }
+        }
+
+        void add(int id, Long categoryId, int band, long cents, boolean isActive, boolean isInStock) {
+            all.add(id);
+            if (id >= prices.length) {
+                prices = Arrays.copyOf(prices, Math.max(id + 1, prices.length * 2));
+            }
+            prices[id] = cents;
+            if (categoryId != null) {
+                byCategory.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(id);
+            }
+            byBand[band].add(id);
+            if (isActive) {
+                active.add(id);
+            }
+            if (isInStock) {
+                inStock.add(id);
+            }
+        }
+
+        // the product's previous values are not kept; the category and band bitmaps are few
+        void remove(int id) {
+            if (!all.contains(id)) {
+                return;
+            }
+            all.remove(id);
+            byCategory.values().forEach(ids -> ids.remove(id));
+            for (RoaringBitmap ids : byBand) {
+                ids.remove(id);
+            }
+            active.remove(id);
+            inStock.remove(id);
+        }
+
+        // price in the high 32 bits, id in the low 31: one primitive sort orders by price, then id;
+        // prices from MAX_SORT_CENTS up (over 42 million) compare as equal
+        long sortKey(int id) {
+            long cents = Math.min(Math.max(prices[id], 0), MAX_SORT_CENTS);
+            return cents << 31 | id;
+        }
+
+        void optimize() {
+            all.runOptimize();
+            byCategory.values().forEach(RoaringBitmap::runOptimize);
+            for (RoaringBitmap ids : byBand) {
+                ids.runOptimize();
+            }
+            active.runOptimize();
+            inStock.runOptimize();
+        }
+
+        RoaringBitmap categories(Collection<Long> categoryIds) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Long categoryId : categoryIds) {
+                RoaringBitmap ids = byCategory.get(categoryId);
+                if (ids != null) {
+                    result.or(ids);
+                }
+            }
+            return result;
+        }
+
+        RoaringBitmap bands(Collection<Integer> bands) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Integer band : bands) {
+                if (band >= 0 && band < byBand.length) {
+                    result.or(byBand[band]);
+                }
+            }
+            return result;
+        }
+
+        RoaringBitmap flag(RoaringBitmap set, boolean value) {
+            return value ? set : RoaringBitmap.andNot(all, set);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.mihaiLita.ecommerce.facet;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Keeps {@link ProductFacetIndex} in step with product writes, after the surrounding transaction commits.
+ */
+@Component
+public class ProductFacetIndexListener {
+    private final ObjectProvider<ProductFacetIndex> facetIndexProvider;
+
+    @Autowired
+    public ProductFacetIndexListener(ObjectProvider<ProductFacetIndex> theFacetIndexProvider) {
+        facetIndexProvider = theFacetIndexProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void productSaved(Product product) {
+        afterCommit(index -> index.index(product));
+    }
+
+    @PostRemove
+    public void productRemoved(Product product) {
+        Long productId = product.getId();
+        afterCommit(index -> index.remove(productId));
+    }
+
+    private void afterCommit(Consumer<ProductFacetIndex> change) {
+        ProductFacetIndex facetIndex = facetIndexProvider.getIfAvailable();
+        if (facetIndex == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.accept(facetIndex);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.accept(facetIndex);
+            }
+        });
+    }
+}
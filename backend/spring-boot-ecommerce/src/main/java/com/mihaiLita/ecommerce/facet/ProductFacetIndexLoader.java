@@ -0,0 +1,51 @@
+package com.mihaiLita.ecommerce.facet;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+@Component
+public class ProductFacetIndexLoader {
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndexLoader.class);
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    public ProductFacetIndexLoader(JdbcTemplate theJdbcTemplate, ProductFacetIndex theFacetIndex) {
+        jdbcTemplate = theJdbcTemplate;
+        facetIndex = theFacetIndex;
+    }
+
+    // only the five facet columns, no entities or persistence context
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+
+        try (Stream<Product> products = jdbcTemplate.queryForStream(
+                "select id, category_id, unit_price, active, units_in_stock from product", (resultSet, rowNum) -> {
+                    ProductCategory category = new ProductCategory();
+                    category.setId(resultSet.getLong("category_id"));
+
+                    Product product = new Product();
+                    product.setId(resultSet.getLong("id"));
+                    product.setCategory(category);
+                    product.setUnitPrice(resultSet.getBigDecimal("unit_price"));
+                    product.setActive(resultSet.getBoolean("active"));
+                    product.setUnitsInStock(resultSet.getInt("units_in_stock"));
+                    return product;
+                })) {
+            facetIndex.rebuild(products::iterator);
+        }
+
+        logger.info("Product facet index built in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mihaiLita.ecommerce.fields;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a page of a {@link SparseResource} as rows holding only the requested fields. The select lists just
+ * their columns and returns tuples, so no entity is created, put in the persistence context or dirty
+ * checked, and unrequested columns such as {@code description} are never read.
+ */
+@Component
+public class SparseCatalogQuery {
+    private EntityManager entityManager;
+
+    @Autowired
+    public SparseCatalogQuery(EntityManager theEntityManager) {
+        entityManager = theEntityManager;
+    }
+
+    // categoryId narrows products to one category, as findByCategoryId does; the pageable is sorted by
+    // entity attributes, see SparseResource.sort
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> find(SparseResource resource, List<String> fields, Long categoryId,
+                                          Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> root = query.from(resource.getEntityType());
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(path(root, resource.attribute(field)).alias(field));
+        }
+        query.multiselect(selections);
+        if (categoryId != null) {
+            query.where(builder.equal(root.get("category").get("id"), categoryId));
+        }
+        // ordered by id unless sorted, so pages do not overlap
+        query.orderBy(pageable.getSort().isSorted()
+                ? QueryUtils.toOrders(pageable.getSort(), root, builder)
+                : List.of(builder.asc(root.get("id"))));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(fields.get(i), tuple.get(i));
+            }
+            rows.add(row);
+        }
+
+        // the count is skipped when this page shows where the collection ends
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(resource, categoryId));
+    }
+
+    private long count(SparseResource resource, Long categoryId) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<?> root = query.from(resource.getEntityType());
+        query.select(builder.count(root));
+        if (categoryId != null) {
+            query.where(builder.equal(root.get("category").get("id"), categoryId));
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Path<?> path(Root<?> root, String attribute) {
+        Path<?> path = root;
+        for (String name : attribute.split("\\.")) {
+            path = path.get(name);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,47 @@
+package com.mihaiLita.ecommerce.fields;
+
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Encodings of a sparse response. CBOR is only sent when the client names it and prefers it over JSON;
+ * a wildcard gets JSON.
+ */
+public enum SparseEncoding {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.parseMediaType("application/cbor"));
+
+    public static final String CBOR_VALUE = "application/cbor";
+
+    private final MediaType mediaType;
+
+    SparseEncoding(MediaType theMediaType) {
+        mediaType = theMediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static SparseEncoding negotiate(String accept) {
+        if (accept == null) {
+            return JSON;
+        }
+
+        double cbor = 0;
+        double json = 0;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (!type.isWildcardSubtype() && type.isCompatibleWith(CBOR.mediaType)) {
+                    cbor = Math.max(cbor, type.getQualityValue());
+                } else if (type.isCompatibleWith(JSON.mediaType) || type.isCompatibleWith(MediaTypes.HAL_JSON)) {
+                    json = Math.max(json, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return cbor > json ? CBOR : JSON;
+    }
+}
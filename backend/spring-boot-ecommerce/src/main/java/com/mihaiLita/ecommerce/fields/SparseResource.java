@@ -0,0 +1,97 @@
+package com.mihaiLita.ecommerce.fields;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalog collections that take a {@code fields=} parameter: the fields a client may ask for, in the
+ * names the HAL representation uses, and the entity attribute each is read from. The same fields are the
+ * ones a sparse response can be sorted by.
+ */
+public enum SparseResource {
+    PRODUCTS(Product.class, "products", attributes(
+            "id", "id",
+            "sku", "sku",
+            "name", "name",
+            "description", "description",
+            "unitPrice", "unitPrice",
+            "imageUrl", "imageUrl",
+            "active", "active",
+            "unitsInStock", "unitsInStock",
+            "dateCreated", "dateCreated",
+            "lastUpdated", "lastUpdated",
+            // the foreign key, read without joining product_category
+            "categoryId", "category.id")),
+    PRODUCT_CATEGORY(ProductCategory.class, "productCategory", attributes(
+            "id", "id",
+            "categoryName", "categoryName"));
+
+    private final Class<?> entityType;
+    private final String rel;
+    private final Map<String, String> attributeByField;
+
+    SparseResource(Class<?> theEntityType, String theRel, Map<String, String> theAttributeByField) {
+        entityType = theEntityType;
+        rel = theRel;
+        attributeByField = theAttributeByField;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    // the key the rows are embedded under, as in the HAL response
+    public String getRel() {
+        return rel;
+    }
+
+    public String attribute(String field) {
+        return attributeByField.get(field);
+    }
+
+    // every field for null or blank, throws IllegalArgumentException for a field the resource does not have
+    public List<String> fields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return List.copyOf(attributeByField.keySet());
+        }
+
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!attributeByField.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field for " + rel + ": " + name);
+            }
+            if (!selected.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+
+    // the sort in entity attributes, throws IllegalArgumentException for a field the resource does not have
+    public Sort sort(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String attribute = attributeByField.get(order.getProperty());
+            if (attribute == null) {
+                throw new IllegalArgumentException("Unknown sort property for " + rel + ": " + order.getProperty());
+            }
+            orders.add(order.withProperty(attribute));
+        }
+        return Sort.by(orders);
+    }
+
+    private static Map<String, String> attributes(String... fieldsAndAttributes) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < fieldsAndAttributes.length; i += 2) {
+            attributes.put(fieldsAndAttributes[i], fieldsAndAttributes[i + 1]);
+        }
+        return attributes;
+    }
+}
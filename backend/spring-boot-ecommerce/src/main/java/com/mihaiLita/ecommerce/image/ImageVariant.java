@@ -0,0 +1,33 @@
+package com.mihaiLita.ecommerce.image;
+
+import java.util.Locale;
+
+/**
+ * Sizes a product image is served in, by maximum width. Smaller images are never scaled up.
+ */
+public enum ImageVariant {
+    ORIGINAL(0),
+    // product detail page
+    MEDIUM(600),
+    // product list and cart
+    THUMBNAIL(240);
+
+    private final int maxWidth;
+
+    ImageVariant(int theMaxWidth) {
+        maxWidth = theMaxWidth;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public String getDirectoryName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // throws IllegalArgumentException for an unknown name
+    public static ImageVariant of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,162 @@
+package com.mihaiLita.ecommerce.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the {@link ImageVariant}s of product images on a pool sized to the cores
+ * ({@code ecommerce.images.parallelism}, 0 for one thread per core). Every missing or outdated variant is
+ * queued once the application is ready; one requested before it exists is queued by the request, which
+ * gets the original meanwhile.
+ */
+@Component
+public class ImageVariantPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantPipeline.class);
+
+    private final Set<Path> queued = ConcurrentHashMap.newKeySet();
+
+    private ProductImageStore imageStore;
+    private ExecutorService workers;
+
+    private final Counter generated;
+    private final Counter failed;
+    private final Timer generationTime;
+
+    @Autowired
+    public ImageVariantPipeline(ProductImageStore theImageStore,
+                                @Value("${ecommerce.images.parallelism:0}") int theParallelism,
+                                ObjectProvider<MeterRegistry> theMeterRegistry) {
+        imageStore = theImageStore;
+
+        int parallelism = theParallelism > 0 ? theParallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threads = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            // resizing is background work, requests come first
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        MeterRegistry registry = theMeterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        generated = Counter.builder("catalog.images.variants.generated").register(registry);
+        failed = Counter.builder("catalog.images.variants.failed").register(registry);
+        generationTime = Timer.builder("catalog.images.variants.time").register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public int generateAll() {
+        int submitted = 0;
+        for (Path original : imageStore.productImages()) {
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (variant != ImageVariant.ORIGINAL && submit(original, variant)) {
+                    submitted++;
+                }
+            }
+        }
+        if (submitted > 0) {
+            logger.info("Queued {} product image variants", submitted);
+        }
+        return submitted;
+    }
+
+    // false when the variant is current or already queued
+    public boolean submit(Path original, ImageVariant variant) {
+        Path target = imageStore.variant(original, variant);
+        if (imageStore.isCurrent(original, target) || !queued.add(target)) {
+            return false;
+        }
+
+        workers.execute(() -> {
+            try {
+                generationTime.record(() -> write(original, target, variant));
+                generated.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+                logger.warn("Writing the {} variant of {} failed", variant, original, e);
+            } finally {
+                queued.remove(target);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    static void write(Path original, Path target, ImageVariant variant) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                BufferedImage source = ImageIO.read(original.toFile());
+                if (source == null) {
+                    throw new IOException("Unreadable image " + original);
+                }
+
+                if (source.getWidth() <= variant.getMaxWidth()) {
+                    Files.copy(original, temporary, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    String format = ProductImageStore.extension(original).equals("png") ? "png" : "jpeg";
+                    ImageIO.write(scale(source, variant.getMaxWidth(), format.equals("png")), format, temporary.toFile());
+                }
+                // readers see the old file or the whole new one
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // halves the image until close to the width, so bilinear sampling does not skip pixels
+    static BufferedImage scale(BufferedImage source, int width, boolean keepAlpha) {
+        int height = Math.max(1, (int) Math.round(source.getHeight() * (double) width / source.getWidth()));
+        int type = keepAlpha && source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mihaiLita.ecommerce.image;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Where product images and their size variants live on disk. {@code Product.imageUrl} is a path relative to
+ * {@code ecommerce.images.root}, e.g. {@code assets/images/products/books/book-luv2code-1000.png}; variants
+ * are written under {@code ecommerce.images.variant-dir}, one directory per {@link ImageVariant}.
+ */
+@Component
+public class ProductImageStore {
+    private static final Set<String> EXTENSIONS = Set.of("png", "jpg", "jpeg");
+    private static final String PRODUCT_IMAGES = "assets/images/products";
+
+    private Path root;
+    private Path variantDirectory;
+
+    @Autowired
+    public ProductImageStore(@Value("${ecommerce.images.root:../../frontend/angular-ecommerce/public}") String theRoot,
+                             @Value("${ecommerce.images.variant-dir:${java.io.tmpdir}/ecommerce-images}") String theVariantDirectory) {
+        root = Paths.get(theRoot).toAbsolutePath().normalize();
+        variantDirectory = Paths.get(theVariantDirectory).toAbsolutePath().normalize();
+    }
+
+    // the original image for a path below the root, null for anything else
+    public Path resolve(String imagePath) {
+        String relative = imagePath.startsWith("/") ? imagePath.substring(1) : imagePath;
+        Path file = root.resolve(relative).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file) || !EXTENSIONS.contains(extension(file))) {
+            return null;
+        }
+        return file;
+    }
+
+    public Path variant(Path original, ImageVariant variant) {
+        if (variant == ImageVariant.ORIGINAL) {
+            return original;
+        }
+        return variantDirectory.resolve(variant.getDirectoryName()).resolve(root.relativize(original));
+    }
+
+    // a variant is current when it was written after the last change of its original
+    public boolean isCurrent(Path original, Path variant) {
+        try {
+            return Files.isRegularFile(variant)
+                    && Files.getLastModifiedTime(variant).compareTo(Files.getLastModifiedTime(original)) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public List<Path> productImages() {
+        Path directory = root.resolve(PRODUCT_IMAGES);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> EXTENSIONS.contains(extension(file)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
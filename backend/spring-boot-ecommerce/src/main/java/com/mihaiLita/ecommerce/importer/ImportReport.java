@@ -0,0 +1,9 @@
+package com.mihaiLita.ecommerce.importer;
+
+public record ImportReport(long rowsRead,
+                           long rowsImported,
+                           long rowsRejected,
+                           long elapsedMillis,
+                           double rowsPerSecond,
+                           String rejectedRowsFile) {
+}
@@ -0,0 +1,19 @@
+package com.mihaiLita.ecommerce.importer;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One product from an import file, kept as text until validated. The category is given by name
+ * ({@code category}) or by id ({@code categoryId}), so files produced by the export can be re-imported.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ProductImportRow(String sku,
+                               String name,
+                               String description,
+                               String unitPrice,
+                               String imageUrl,
+                               String active,
+                               String unitsInStock,
+                               String category,
+                               String categoryId) {
+}
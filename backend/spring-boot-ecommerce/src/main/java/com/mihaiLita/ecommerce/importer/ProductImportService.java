@@ -0,0 +1,411 @@
+package com.mihaiLita.ecommerce.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mihaiLita.ecommerce.cache.CacheCoherenceBus;
+import com.mihaiLita.ecommerce.cache.CatalogCacheInvalidator;
+import com.mihaiLita.ecommerce.export.ExportFormat;
+import com.mihaiLita.ecommerce.facet.ProductFacetIndexLoader;
+import com.mihaiLita.ecommerce.inventory.InventoryService;
+import com.mihaiLita.ecommerce.search.ProductSearchIndexLoader;
+import com.mihaiLita.ecommerce.summary.CategorySummaries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams CSV or NDJSON product files into the product table. Rows are validated one by one and
+ * written as multi-row {@code INSERT ... ON DUPLICATE KEY UPDATE} statements keyed on the unique
+ * {@code sku}, {@code ecommerce.import.batch-size} rows per statement. This bypasses Hibernate,
+ * whose IDENTITY ids disable JDBC batching, so the search index and caches are refreshed at the end.
+ * Rejected rows, and NDJSON lines that do not parse, are written with their line number and reason to a
+ * file under {@code ecommerce.import.reject-dir}.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT = "insert into product (sku, name, description, unit_price, image_url, "
+            + "active, units_in_stock, category_id, date_created, last_updated) values ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, now(6), now(6))";
+    private static final int ROW_PARAMETERS = 8;
+    private static final String UPSERT = " on duplicate key update name = values(name), "
+            + "description = values(description), unit_price = values(unit_price), image_url = values(image_url), "
+            + "active = values(active), units_in_stock = values(units_in_stock), "
+            + "category_id = values(category_id), last_updated = values(last_updated)";
+
+    private static final int MAX_TEXT_LENGTH = 255;
+    // DECIMAL(13,2)
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999999.99");
+
+    private JdbcTemplate jdbcTemplate;
+    private ObjectMapper objectMapper;
+    private ProductSearchIndexLoader searchIndexLoader;
+    private ProductFacetIndexLoader facetIndexLoader;
+    private CategorySummaries categorySummaries;
+    private CatalogCacheInvalidator cacheInvalidator;
+    private ObjectProvider<CacheCoherenceBus> coherenceBusProvider;
+    private InventoryService inventoryService;
+    private int batchSize;
+    private Path rejectDirectory;
+
+    @Autowired
+    public ProductImportService(JdbcTemplate theJdbcTemplate,
+                                ObjectMapper theObjectMapper,
+                                ProductSearchIndexLoader theSearchIndexLoader,
+                                ProductFacetIndexLoader theFacetIndexLoader,
+                                CategorySummaries theCategorySummaries,
+                                CatalogCacheInvalidator theCacheInvalidator,
+                                ObjectProvider<CacheCoherenceBus> theCoherenceBusProvider,
+                                InventoryService theInventoryService,
+                                @Value("${ecommerce.import.batch-size:500}") int theBatchSize,
+                                @Value("${ecommerce.import.reject-dir:${java.io.tmpdir}/ecommerce-import}") String theRejectDirectory) {
+        jdbcTemplate = theJdbcTemplate;
+        objectMapper = theObjectMapper;
+        searchIndexLoader = theSearchIndexLoader;
+        facetIndexLoader = theFacetIndexLoader;
+        categorySummaries = theCategorySummaries;
+        cacheInvalidator = theCacheInvalidator;
+        coherenceBusProvider = theCoherenceBusProvider;
+        inventoryService = theInventoryService;
+        batchSize = theBatchSize;
+        rejectDirectory = Paths.get(theRejectDirectory);
+    }
+
+    public ImportReport importProducts(ExportFormat format, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Long> categoriesByName = new HashMap<>();
+        Map<Long, Long> categoriesById = new HashMap<>();
+        jdbcTemplate.query("select id, category_name from product_category", resultSet -> {
+            long id = resultSet.getLong("id");
+            categoriesById.put(id, id);
+            if (resultSet.getString("category_name") != null) {
+                categoriesByName.put(resultSet.getString("category_name").toLowerCase(Locale.ROOT), id);
+            }
+        });
+
+        Batch batch = new Batch();
+        Rejects rejects = new Rejects(format);
+        long rowsRead = 0;
+
+        try (RowSource source = format == ExportFormat.CSV ? new CsvRowSource(in) : new NdjsonRowSource(objectMapper, in)) {
+            while (true) {
+                ProductImportRow row;
+                try {
+                    row = source.next();
+                } catch (MalformedRowException e) {
+                    // the rest of the file still parses, one line per row
+                    rowsRead++;
+                    rejects.reject(source.lineNumber(), e.getMessage(), e.getText());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                rowsRead++;
+
+                Object[] values;
+                try {
+                    values = validate(row, categoriesByName, categoriesById);
+                } catch (IllegalArgumentException e) {
+                    rejects.reject(source.lineNumber(), e.getMessage(), row);
+                    continue;
+                }
+
+                batch.add(values);
+                if (batch.size() == batchSize) {
+                    batch.flush();
+                }
+            }
+            batch.flush();
+        } finally {
+            try {
+                rejects.close();
+            } finally {
+                // also when the import failed part way: the statements before it are committed
+                if (batch.imported > 0) {
+                    refresh();
+                }
+            }
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        ImportReport report = new ImportReport(rowsRead, batch.imported, rejects.count, elapsedMillis,
+                rowsRead * 1000.0 / elapsedMillis, rejects.file == null ? null : rejects.file.toString());
+        logger.info("Product import finished: {}", report);
+        return report;
+    }
+
+    // rows went around Hibernate, so nothing told the indexes, the caches or the stock counters
+    private void refresh() {
+        searchIndexLoader.rebuild();
+        facetIndexLoader.rebuild();
+        categorySummaries.rebuild();
+        cacheInvalidator.evictAll();
+        coherenceBusProvider.ifAvailable(CacheCoherenceBus::broadcastAll);
+        inventoryService.invalidateAll();
+    }
+
+    private static Object[] validate(ProductImportRow row, Map<String, Long> categoriesByName,
+                                     Map<Long, Long> categoriesById) {
+        String sku = required(row.sku(), "sku");
+        String name = required(row.name(), "name");
+        String description = optional(row.description(), "description");
+        String imageUrl = optional(row.imageUrl(), "imageUrl");
+
+        BigDecimal unitPrice;
+        try {
+            unitPrice = new BigDecimal(required(row.unitPrice(), "unitPrice").trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("unitPrice is not a number");
+        }
+        if (unitPrice.signum() < 0 || unitPrice.scale() > 2 || unitPrice.compareTo(MAX_PRICE) > 0) {
+            throw new IllegalArgumentException("unitPrice must be between 0 and " + MAX_PRICE + " with at most 2 decimals");
+        }
+
+        int unitsInStock;
+        try {
+            unitsInStock = row.unitsInStock() == null ? 0 : Integer.parseInt(row.unitsInStock().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("unitsInStock is not an integer");
+        }
+        if (unitsInStock < 0) {
+            throw new IllegalArgumentException("unitsInStock must not be negative");
+        }
+
+        boolean active = row.active() == null || row.active().isBlank()
+                || row.active().trim().equalsIgnoreCase("true") || row.active().trim().equals("1");
+
+        Long categoryId = null;
+        if (row.category() != null && !row.category().isBlank()) {
+            categoryId = categoriesByName.get(row.category().trim().toLowerCase(Locale.ROOT));
+        } else if (row.categoryId() != null && !row.categoryId().isBlank()) {
+            try {
+                categoryId = categoriesById.get(Long.valueOf(row.categoryId().trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("categoryId is not a number");
+            }
+        }
+        if (categoryId == null) {
+            throw new IllegalArgumentException("unknown category");
+        }
+
+        return new Object[] {sku, name, description, unitPrice, imageUrl, active, unitsInStock, categoryId};
+    }
+
+    private static String required(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return optional(value, field);
+    }
+
+    private static String optional(String value, String field) {
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private class Batch {
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private long imported;
+
+        void add(Object[] values) {
+            rows.add(values);
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            StringBuilder sql = new StringBuilder(INSERT);
+            List<Object> parameters = new ArrayList<>(rows.size() * ROW_PARAMETERS);
+            for (int i = 0; i < rows.size(); i++) {
+                sql.append(i == 0 ? ROW : "," + ROW);
+                parameters.addAll(Arrays.asList(rows.get(i)));
+            }
+            sql.append(UPSERT);
+
+            jdbcTemplate.update(sql.toString(), parameters.toArray());
+            imported += rows.size();
+            rows.clear();
+        }
+    }
+
+    private class Rejects {
+        private final ExportFormat format;
+        private Path file;
+        private BufferedWriter writer;
+        private long count;
+
+        Rejects(ExportFormat format) {
+            this.format = format;
+        }
+
+        void reject(long line, String reason, Object row) throws IOException {
+            if (writer == null) {
+                Files.createDirectories(rejectDirectory);
+                file = rejectDirectory.resolve("rejected-" + UUID.randomUUID() + ".ndjson");
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            }
+
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("line", line);
+            entry.put("format", format.getExtension());
+            entry.put("reason", reason);
+            entry.put("row", row);
+            writer.write(objectMapper.writeValueAsString(entry));
+            writer.newLine();
+            count++;
+        }
+
+        void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    private interface RowSource extends AutoCloseable {
+        ProductImportRow next() throws IOException;
+
+        long lineNumber();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static class CsvRowSource implements RowSource {
+        private final BufferedReader reader;
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long recordLine;
+
+        CsvRowSource(InputStream in) throws IOException {
+            reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            csv = new CsvReader(reader);
+
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i) != null) {
+                    columns.put(header.get(i).trim(), i);
+                }
+            }
+        }
+
+        @Override
+        public ProductImportRow next() throws IOException {
+            List<String> record;
+            do {
+                recordLine = csv.getLine();
+                record = csv.readRecord();
+            } while (record != null && record.size() == 1 && record.get(0) == null);
+
+            if (record == null) {
+                return null;
+            }
+
+            return new ProductImportRow(field(record, "sku"), field(record, "name"), field(record, "description"),
+                    field(record, "unitPrice"), field(record, "imageUrl"), field(record, "active"),
+                    field(record, "unitsInStock"), field(record, "category"), field(record, "categoryId"));
+        }
+
+        @Override
+        public long lineNumber() {
+            return recordLine;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= record.size() ? null : record.get(index);
+        }
+    }
+
+    private static class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private final ObjectReader rowReader;
+        private long line;
+
+        NdjsonRowSource(ObjectMapper objectMapper, InputStream in) {
+            reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            rowReader = objectMapper.readerFor(ProductImportRow.class);
+        }
+
+        @Override
+        public ProductImportRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return rowReader.readValue(text);
+                } catch (JsonProcessingException e) {
+                    throw new MalformedRowException(e.getOriginalMessage(), text);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long lineNumber() {
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class MalformedRowException extends IOException {
+        private final String text;
+
+        MalformedRowException(String message, String theText) {
+            super(message);
+            text = theText;
+        }
+
+        String getText() {
+            return text;
+        }
+    }
+}
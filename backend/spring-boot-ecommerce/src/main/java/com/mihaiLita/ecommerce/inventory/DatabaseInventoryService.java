@@ -0,0 +1,30 @@
+package com.mihaiLita.ecommerce.inventory;
+
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reserves stock with a conditional update on the product row, inside the caller's transaction.
+ */
+@Service
+@ConditionalOnProperty(name = "ecommerce.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryService implements InventoryService {
+    private ProductRepository productRepository;
+
+    @Autowired
+    public DatabaseInventoryService(ProductRepository theProductRepository) {
+        productRepository = theProductRepository;
+    }
+
+    @Override
+    public boolean reserve(Long productId, int quantity) {
+        return productRepository.reserveStock(productId, quantity) > 0;
+    }
+
+    @Override
+    public void release(Long productId, int quantity) {
+        productRepository.releaseStock(productId, quantity);
+    }
+}
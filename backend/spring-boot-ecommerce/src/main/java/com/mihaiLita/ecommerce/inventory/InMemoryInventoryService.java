@@ -0,0 +1,575 @@
+package com.mihaiLita.ecommerce.inventory;
+
+import com.mihaiLita.ecommerce.cache.CatalogCacheInvalidator;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.events.ChangeEvent;
+import com.mihaiLita.ecommerce.events.ChangeEventPublisher;
+import com.mihaiLita.ecommerce.facet.ProductFacetIndex;
+import com.mihaiLita.ecommerce.search.ProductSearchIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the authoritative stock of every product in memory and writes it behind to the product table.
+ * <p>
+ * A change checks and moves the product's counter under a lock striped by product, so buyers of one item
+ * never wait for buyers of another, nor for its InnoDB row. The counters are plain values rather than
+ * atomics: a change has to be journaled in the same step as it moves the counter, so a compare-and-set
+ * alone would not be enough. A reservation made inside a transaction, as
+ * checkout makes it, is also inserted into {@code inventory_reservation} by that transaction, so it becomes
+ * durable exactly when the order does; if the transaction rolls back the units go back into the counter.
+ * Any other change is appended to an {@link InventoryJournal}, which is synced before the call returns.
+ * <p>
+ * A background task applies the committed changes since the last flush as one relative update per
+ * product, deletes the reservation rows and records the journal sequence they cover, all in a single
+ * transaction, then refreshes the caches and indexes of the products it wrote. A counter seeded while a
+ * flush is in progress reads the row and the flushed sequence in one statement and adds back the batches
+ * that had not committed by then, so seeding never waits for a flush. On startup the journal
+ * entries past the flushed sequence and the remaining reservation rows are applied first, so a crash loses
+ * nothing and nothing is applied twice.
+ * <p>
+ * The counters are authoritative, so only one application node may run in this mode against a database.
+ */
+@Service
+@ConditionalOnProperty(name = "ecommerce.inventory.mode", havingValue = "memory")
+public class InMemoryInventoryService implements InventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryInventoryService.class);
+
+    private static final String APPLY_DELTA = "update product set units_in_stock = units_in_stock + ?, "
+            + "last_updated = current_timestamp where id = ?";
+    private static final String INSERT_RESERVATION = "insert into inventory_reservation (product_id, delta) "
+            + "values (?, ?)";
+    private static final String DELETE_RESERVATION = "delete from inventory_reservation where id = ?";
+
+    private static final int STRIPES = 64;
+
+    // looked up without a lock; a product's counter is read, changed, dropped and seeded only under its stripe
+    private final Map<Long, Stock> counters = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    // reservations of transactions that have not completed, in the counters but not in pending;
+    // guarded by the product's stripe
+    private final Map<Long, Long> uncommitted = new ConcurrentHashMap<>();
+
+    // committed deltas not yet in the database and the reservation rows among them; guarded by journalLock
+    // together with the journal order
+    private final Object journalLock = new Object();
+    private Map<Long, Long> pending = new HashMap<>();
+    private List<Long> pendingReservations = new ArrayList<>();
+
+    // batches taken out of pending by a flush, kept after they commit until no seed may have read the row
+    // before them; guarded by journalLock
+    private final List<FlushBatch> flushing = new ArrayList<>();
+    private int activeSeeds;
+
+    // one flush at a time
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final List<Path> sealedSegments = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ObjectProvider<ProductRepository> productRepositoryProvider;
+    private ObjectProvider<CatalogCacheInvalidator> cacheInvalidatorProvider;
+    private ObjectProvider<ProductSearchIndex> searchIndexProvider;
+    private ObjectProvider<ProductFacetIndex> facetIndexProvider;
+    private ObjectProvider<ChangeEventPublisher> changeEventPublisherProvider;
+    private Path journalDirectory;
+    private boolean fsync;
+    private Duration flushInterval;
+
+    private InventoryJournal journal;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public InMemoryInventoryService(JdbcTemplate theJdbcTemplate,
+                                    TransactionTemplate theTransactionTemplate,
+                                    ObjectProvider<ProductRepository> theProductRepositoryProvider,
+                                    ObjectProvider<CatalogCacheInvalidator> theCacheInvalidatorProvider,
+                                    ObjectProvider<ProductSearchIndex> theSearchIndexProvider,
+                                    ObjectProvider<ProductFacetIndex> theFacetIndexProvider,
+                                    ObjectProvider<ChangeEventPublisher> theChangeEventPublisherProvider,
+                                    @Value("${ecommerce.inventory.journal-dir:inventory-journal}") String theJournalDirectory,
+                                    @Value("${ecommerce.inventory.journal-fsync:true}") boolean theFsync,
+                                    @Value("${ecommerce.inventory.flush-interval:1s}") Duration theFlushInterval) {
+        jdbcTemplate = theJdbcTemplate;
+        transactionTemplate = theTransactionTemplate;
+        productRepositoryProvider = theProductRepositoryProvider;
+        cacheInvalidatorProvider = theCacheInvalidatorProvider;
+        searchIndexProvider = theSearchIndexProvider;
+        facetIndexProvider = theFacetIndexProvider;
+        changeEventPublisherProvider = theChangeEventPublisherProvider;
+        journalDirectory = Paths.get(theJournalDirectory);
+        fsync = theFsync;
+        flushInterval = theFlushInterval;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new InventoryJournal(journalDirectory, fsync);
+        recover();
+
+        jdbcTemplate.query("select id, units_in_stock from product",
+                resultSet -> {
+                    counters.put(resultSet.getLong("id"), new Stock(resultSet.getLong("units_in_stock")));
+                });
+        logger.info("Loaded stock counters for {} products", counters.size());
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        journal.close();
+    }
+
+    @Override
+    public boolean reserve(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return change(productId, -quantity);
+        }
+
+        // the order is written by the caller's transaction, and the reservation row with it
+        if (!hold(productId, quantity)) {
+            return false;
+        }
+        long reservationId;
+        try {
+            reservationId = insertReservation(productId, -quantity);
+        } catch (RuntimeException e) {
+            settle(productId, quantity, null);
+            throw e;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                settle(productId, quantity, status == STATUS_COMMITTED ? reservationId : null);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void release(Long productId, int quantity) {
+        change(productId, quantity);
+    }
+
+    // the next reservation reseeds the counter from the row plus whatever has not been flushed yet
+    @Override
+    public void invalidate(Long productId) {
+        synchronized (stripe(productId)) {
+            counters.remove(productId);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (Long productId : counters.keySet()) {
+            invalidate(productId);
+        }
+    }
+
+    public long available(Long productId) {
+        Stock stock = counter(productId);
+        if (stock == null) {
+            return 0;
+        }
+        synchronized (stripe(productId)) {
+            return stock.units;
+        }
+    }
+
+    public void flush() throws IOException {
+        flushLock.lock();
+        try {
+            Map<Long, Long> deltas;
+            List<Long> reservations;
+            FlushBatch batch;
+            synchronized (journalLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                deltas = pending;
+                pending = new HashMap<>();
+                reservations = pendingReservations;
+                pendingReservations = new ArrayList<>();
+                // a sequence of its own, so a seed can tell from last_sequence whether this batch is in the row
+                batch = new FlushBatch(journal.mark(), deltas);
+                flushing.add(batch);
+                Path sealed = journal.roll();
+                if (sealed != null) {
+                    sealedSegments.add(sealed);
+                }
+            }
+
+            try {
+                apply(deltas, reservations, batch.upTo);
+            } catch (RuntimeException e) {
+                synchronized (journalLock) {
+                    flushing.remove(batch);
+                    deltas.forEach((productId, delta) -> pending.merge(productId, delta, Long::sum));
+                    pendingReservations.addAll(reservations);
+                }
+                throw e;
+            }
+            synchronized (journalLock) {
+                batch.committed = true;
+                prune();
+            }
+            refresh(deltas.keySet());
+
+            for (Path sealed : sealedSegments) {
+                Files.deleteIfExists(sealed);
+            }
+            sealedSegments.clear();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Stock flush failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Moves the counter and journals the change as one step under the product's stripe, so a concurrent
+     * {@link #invalidate} either happens before, and the change goes to the reseeded counter, or after,
+     * and the reseed finds the change in {@code pending}. A decrease that would go below zero is refused.
+     */
+    private boolean change(Long productId, int delta) {
+        while (true) {
+            Stock stock = counter(productId);
+            if (stock == null) {
+                return false;
+            }
+
+            long sequence;
+            synchronized (stripe(productId)) {
+                if (counters.get(productId) != stock) {
+                    // invalidated since we looked it up
+                    continue;
+                }
+                if (stock.units + delta < 0) {
+                    return false;
+                }
+                try {
+                    sequence = journal(productId, delta);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not write the inventory journal", e);
+                }
+                stock.units += delta;
+            }
+
+            try {
+                journal.sync(sequence);
+            } catch (IOException e) {
+                undo(productId, delta);
+                throw new UncheckedIOException("Could not write the inventory journal", e);
+            }
+            return true;
+        }
+    }
+
+    // only the journal order is shared between products: a sequence covers exactly the deltas in pending
+    private long journal(Long productId, int delta) throws IOException {
+        synchronized (journalLock) {
+            long sequence = journal.append(productId, delta);
+            pending.merge(productId, (long) delta, Long::sum);
+            return sequence;
+        }
+    }
+
+    // the caller reports the change as failed, so take it back out of the counter, pending and the journal
+    private void undo(Long productId, int delta) {
+        synchronized (stripe(productId)) {
+            Stock stock = counters.get(productId);
+            if (stock != null) {
+                stock.units -= delta;
+            }
+            synchronized (journalLock) {
+                pending.merge(productId, (long) -delta, Long::sum);
+                try {
+                    journal.append(productId, -delta);
+                } catch (IOException e) {
+                    logger.error("Could not journal the reversal of a failed stock change to product {}", productId, e);
+                }
+            }
+        }
+    }
+
+    // takes the units out of the counter for a transaction that has yet to commit
+    private boolean hold(Long productId, int quantity) {
+        while (true) {
+            Stock stock = counter(productId);
+            if (stock == null) {
+                return false;
+            }
+
+            synchronized (stripe(productId)) {
+                if (counters.get(productId) != stock) {
+                    continue;
+                }
+                if (stock.units - quantity < 0) {
+                    return false;
+                }
+                stock.units -= quantity;
+                uncommitted.merge(productId, (long) -quantity, InMemoryInventoryService::sumOrRemove);
+                return true;
+            }
+        }
+    }
+
+    // a committed reservation goes to the next flush with its row, any other gives its units back
+    private void settle(Long productId, int quantity, Long reservationId) {
+        synchronized (stripe(productId)) {
+            uncommitted.merge(productId, (long) quantity, InMemoryInventoryService::sumOrRemove);
+            if (reservationId != null) {
+                synchronized (journalLock) {
+                    pending.merge(productId, (long) -quantity, Long::sum);
+                    pendingReservations.add(reservationId);
+                }
+            } else {
+                Stock stock = counters.get(productId);
+                if (stock != null) {
+                    stock.units += quantity;
+                }
+            }
+        }
+    }
+
+    private long insertReservation(Long productId, int delta) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_RESERVATION, new String[]{"id"});
+            statement.setLong(1, productId);
+            statement.setInt(2, delta);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private static Long sumOrRemove(Long left, Long right) {
+        long sum = left + right;
+        return sum == 0 ? null : sum;
+    }
+
+    private Object stripe(Long productId) {
+        return stripes[Math.floorMod(productId.hashCode(), STRIPES)];
+    }
+
+    private Stock counter(Long productId) {
+        Stock stock = counters.get(productId);
+        return stock != null ? stock : seed(productId);
+    }
+
+    /**
+     * Seeds a counter without waiting for a flush. The row and {@code last_sequence} are read in one
+     * statement, so the row holds exactly the batches up to that sequence; the batches after it are still
+     * in {@code flushing} or back in {@code pending}, because none is pruned while a seed is running.
+     */
+    private Stock seed(Long productId) {
+        synchronized (journalLock) {
+            activeSeeds++;
+        }
+        try {
+            List<long[]> rows = jdbcTemplate.query(
+                    "select coalesce(p.units_in_stock, 0), f.last_sequence from product p "
+                            + "join inventory_flush f on f.id = 1 where p.id = ?",
+                    (resultSet, rowNum) -> new long[]{resultSet.getLong(1), resultSet.getLong(2)}, productId);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            long units = rows.get(0)[0];
+            long flushed = rows.get(0)[1];
+
+            synchronized (stripe(productId)) {
+                Stock existing = counters.get(productId);
+                if (existing != null) {
+                    return existing;
+                }
+                synchronized (journalLock) {
+                    units += pending.getOrDefault(productId, 0L);
+                    for (FlushBatch batch : flushing) {
+                        if (batch.upTo > flushed) {
+                            units += batch.deltas.getOrDefault(productId, 0L);
+                        }
+                    }
+                }
+                units += uncommitted.getOrDefault(productId, 0L);
+                Stock stock = new Stock(units);
+                counters.put(productId, stock);
+                return stock;
+            }
+        } finally {
+            synchronized (journalLock) {
+                activeSeeds--;
+                prune();
+            }
+        }
+    }
+
+    // called under journalLock
+    private void prune() {
+        if (activeSeeds == 0) {
+            flushing.removeIf(batch -> batch.committed);
+        }
+    }
+
+    private void recover() throws IOException {
+        long flushed = jdbcTemplate.queryForObject(
+                "select last_sequence from inventory_flush where id = 1", Long.class);
+
+        Map<Long, Long> deltas = new HashMap<>();
+        long last = flushed;
+        for (InventoryJournal.Entry entry : journal.readAll()) {
+            if (entry.sequence() > flushed) {
+                deltas.merge(entry.productId(), (long) entry.delta(), Long::sum);
+            }
+            last = Math.max(last, entry.sequence());
+        }
+
+        // committed with their orders but not flushed
+        List<Long> reservations = new ArrayList<>();
+        jdbcTemplate.query("select id, product_id, delta from inventory_reservation", resultSet -> {
+            reservations.add(resultSet.getLong("id"));
+            deltas.merge(resultSet.getLong("product_id"), resultSet.getLong("delta"), Long::sum);
+        });
+
+        if (!deltas.isEmpty()) {
+            logger.info("Recovering unflushed stock changes to {} products from the inventory journal "
+                    + "and {} reservations", deltas.size(), reservations.size());
+            apply(deltas, reservations, last);
+        }
+        journal.open(last + 1);
+    }
+
+    private void apply(Map<Long, Long> deltas, List<Long> reservations, long upTo) {
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[]{delta, productId});
+            }
+        });
+
+        List<Object[]> deletes = new ArrayList<>(reservations.size());
+        reservations.forEach(id -> deletes.add(new Object[]{id}));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(APPLY_DELTA, updates);
+            jdbcTemplate.batchUpdate(DELETE_RESERVATION, deletes);
+            jdbcTemplate.update("update inventory_flush set last_sequence = ? where id = 1", upTo);
+        });
+    }
+
+    // the deltas bypass Hibernate, so neither the entity listeners nor the L2 cache hear about them
+    private void refresh(Collection<Long> productIds) {
+        try {
+            CatalogCacheInvalidator cacheInvalidator = cacheInvalidatorProvider.getIfAvailable();
+            if (cacheInvalidator != null) {
+                productIds.forEach(cacheInvalidator::evictProduct);
+            }
+
+            ProductRepository productRepository = productRepositoryProvider.getIfAvailable();
+            if (productRepository == null) {
+                return;
+            }
+            ProductSearchIndex searchIndex = searchIndexProvider.getIfAvailable();
+            ProductFacetIndex facetIndex = facetIndexProvider.getIfAvailable();
+            ChangeEventPublisher changeEventPublisher = changeEventPublisherProvider.getIfAvailable();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Product product : productRepository.findAllById(productIds)) {
+                    Long categoryId = product.getCategory().getId();
+                    if (cacheInvalidator != null) {
+                        cacheInvalidator.evictCategoryPages(categoryId);
+                    }
+                    if (searchIndex != null) {
+                        searchIndex.index(product);
+                    }
+                    if (facetIndex != null) {
+                        facetIndex.index(product);
+                    }
+                    if (changeEventPublisher != null) {
+                        changeEventPublisher.productChanged(ChangeEvent.Operation.UPDATED, product.getId(),
+                                categoryId, null);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // the deltas are committed; applying them again would count them twice
+            logger.warn("Refreshing caches after a stock flush failed", e);
+        }
+    }
+
+    // a product's units; guarded by its stripe
+    private static class Stock {
+        long units;
+
+        Stock(long theUnits) {
+            units = theUnits;
+        }
+    }
+
+    private static class FlushBatch {
+        final long upTo;
+        final Map<Long, Long> deltas;
+        boolean committed;
+
+        FlushBatch(long theUpTo, Map<Long, Long> theDeltas) {
+            upTo = theUpTo;
+            deltas = theDeltas;
+        }
+    }
+}
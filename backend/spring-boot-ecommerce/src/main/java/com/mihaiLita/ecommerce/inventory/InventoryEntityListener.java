@@ -0,0 +1,46 @@
+package com.mihaiLita.ecommerce.inventory;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops the stock counter of a product edited through JPA, so the next reservation reseeds it
+ * from the committed row.
+ */
+@Component
+public class InventoryEntityListener {
+    private final ObjectProvider<InventoryService> inventoryServiceProvider;
+
+    @Autowired
+    public InventoryEntityListener(ObjectProvider<InventoryService> theInventoryServiceProvider) {
+        inventoryServiceProvider = theInventoryServiceProvider;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void productChanged(Product product) {
+        InventoryService inventoryService = inventoryServiceProvider.getIfAvailable();
+        if (inventoryService == null) {
+            return;
+        }
+
+        Long productId = product.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inventoryService.invalidate(productId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                inventoryService.invalidate(productId);
+            }
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.mihaiLita.ecommerce.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of stock deltas, split into segment files. Each record is a fixed 24 bytes:
+ * sequence, product id, delta and a CRC32 of the first three, so a record torn by a crash is
+ * detected and dropped on recovery. {@link #sync(long)} is a group commit: one {@code fsync}
+ * covers every record appended before it, however many threads are waiting.
+ */
+class InventoryJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryJournal.class);
+
+    static final int RECORD_SIZE = 24;
+    private static final String SEGMENT_PREFIX = "inventory-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    record Entry(long sequence, long productId, int delta) {
+    }
+
+    private final Path directory;
+    private final boolean fsync;
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private Path segment;
+    private long segmentStart;
+    private long lastSequence;
+    private volatile long durableSequence;
+
+    InventoryJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+    }
+
+    List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : segments()) {
+            read(file, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * Drops every existing segment and starts a new one. Only call once the recovered entries are
+     * safely applied elsewhere.
+     */
+    synchronized void open(long nextSequence) throws IOException {
+        for (Path file : segments()) {
+            Files.delete(file);
+        }
+        lastSequence = nextSequence - 1;
+        durableSequence = lastSequence;
+        openSegment();
+    }
+
+    synchronized long append(long productId, int delta) throws IOException {
+        long sequence = lastSequence + 1;
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putLong(sequence).putLong(productId).putInt(delta);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, RECORD_SIZE - Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    // takes the next sequence without writing a record; recovery only needs the sequences to increase
+    synchronized long mark() {
+        return ++lastSequence;
+    }
+
+    void sync(long sequence) throws IOException {
+        if (!fsync || durableSequence >= sequence) {
+            return;
+        }
+
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = lastSequence;
+                current = channel;
+            }
+            current.force(false);
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Seals the current segment and starts a new one.
+     *
+     * @return the sealed segment, to delete once its entries are flushed, or {@code null} if the
+     * current segment is still empty
+     */
+    Path roll() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (lastSequence < segmentStart) {
+                    return null;
+                }
+                Path sealed = segment;
+                channel.force(false);
+                channel.close();
+                durableSequence = lastSequence;
+                openSegment();
+                return sealed;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel != null && channel.isOpen()) {
+                    channel.force(false);
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segmentStart = lastSequence + 1;
+        segment = directory.resolve(SEGMENT_PREFIX + String.format("%020d", segmentStart) + SEGMENT_SUFFIX);
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // zero-padded start sequence, so name order is log order
+        files.sort(null);
+        return files;
+    }
+
+    private static void read(Path file, List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        CRC32 crc = new CRC32();
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (true) {
+                buffer.clear();
+                while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+                    // keep reading until the record is complete or the file ends
+                }
+                if (buffer.position() == 0) {
+                    return;
+                }
+                if (buffer.hasRemaining()) {
+                    logger.warn("Dropping torn record at the end of {}", file);
+                    return;
+                }
+
+                buffer.flip();
+                crc.reset();
+                crc.update(buffer.array(), 0, RECORD_SIZE - Integer.BYTES);
+                long sequence = buffer.getLong();
+                long productId = buffer.getLong();
+                int delta = buffer.getInt();
+                if (buffer.getInt() != (int) crc.getValue()) {
+                    logger.warn("Dropping corrupt record {} and everything after it in {}", sequence, file);
+                    return;
+                }
+
+                entries.add(new Entry(sequence, productId, delta));
+            }
+        }
+    }
+}
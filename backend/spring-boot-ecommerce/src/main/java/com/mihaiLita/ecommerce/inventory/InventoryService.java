@@ -0,0 +1,23 @@
+package com.mihaiLita.ecommerce.inventory;
+
+/**
+ * Takes units out of and puts units back into a product's stock. Selected with
+ * {@code ecommerce.inventory.mode}: {@code database} (default) updates {@code product.units_in_stock}
+ * directly, {@code memory} keeps the counters in memory and writes them behind.
+ */
+public interface InventoryService {
+
+    /**
+     * @return {@code false} if the product does not exist or has fewer than {@code quantity} units left
+     */
+    boolean reserve(Long productId, int quantity);
+
+    void release(Long productId, int quantity);
+
+    // called when units_in_stock was changed outside this service
+    default void invalidate(Long productId) {
+    }
+
+    default void invalidateAll() {
+    }
+}
@@ -0,0 +1,127 @@
+package com.mihaiLita.ecommerce.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead in front of the connection pool. At most {@code maxConcurrent} connections are handed
+ * out, at most {@code maxWaiting} callers queue for one, everybody else is rejected immediately.
+ * With virtual threads a request thread is cheap, so without this gate thousands of parked
+ * requests would all pile into the pool's own wait queue during a slow database moment.
+ */
+public class ConcurrencyGatedDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejections;
+
+    public ConcurrencyGatedDataSource(DataSource targetDataSource, int maxConcurrent, int maxWaiting,
+                                      Duration acquireTimeout, MeterRegistry meterRegistry) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+
+        waitTimer = Timer.builder("jdbc.gate.wait")
+                .description("Time spent waiting for a permit to open a JDBC connection")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejections = Counter.builder("jdbc.gate.rejections")
+                .description("Connection requests rejected because the gate queue was full or timed out")
+                .register(meterRegistry);
+        Gauge.builder("jdbc.gate.active", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Connections currently held through the gate")
+                .register(meterRegistry);
+        Gauge.builder("jdbc.gate.waiting", waiting, AtomicInteger::get)
+                .description("Callers currently waiting for a permit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejections.increment();
+            throw new JdbcGateRejectedException("JDBC gate queue is full (" + maxWaiting + " waiting)");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejections.increment();
+                throw new JdbcGateRejectedException("Timed out waiting for a JDBC connection permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JdbcGateRejectedException("Interrupted while waiting for a JDBC connection permit");
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // the permit goes back exactly once, when the caller closes the connection
+    private Connection gated(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
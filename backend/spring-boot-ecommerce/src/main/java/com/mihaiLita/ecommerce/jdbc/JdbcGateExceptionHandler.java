@@ -0,0 +1,41 @@
+package com.mihaiLita.ecommerce.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+// a full gate is an overload signal, answer fast with 503 instead of a generic 500
+@ControllerAdvice
+public class JdbcGateExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcGateExceptionHandler.class);
+
+    // a transactional method fails while beginning the transaction, anything else while running a statement
+    @ExceptionHandler({DataAccessResourceFailureException.class, CannotCreateTransactionException.class})
+    public ResponseEntity<Void> handleResourceFailure(RuntimeException e) {
+        if (!isGateRejection(e)) {
+            // what the default handling would have answered
+            logger.error("Database resource failure", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    // the rejection may be wrapped more than once, e.g. by Hibernate and then by Spring
+    public static boolean isGateRejection(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JdbcGateRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mihaiLita.ecommerce.jdbc;
+
+import java.sql.SQLTransientConnectionException;
+
+public class JdbcGateRejectedException extends SQLTransientConnectionException {
+    public JdbcGateRejectedException(String reason) {
+        super(reason);
+    }
+}
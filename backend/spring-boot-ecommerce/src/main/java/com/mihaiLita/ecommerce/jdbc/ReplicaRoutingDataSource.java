@@ -0,0 +1,213 @@
+package com.mihaiLita.ecommerce.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction manager opens its connection before the read-only flag is bound to the thread, the
+ * proxy defers the real {@code getConnection} to the first statement. The catalog repositories are
+ * {@code @Transactional(readOnly = true)}, so their reads route here. Replicas are picked round-robin
+ * or by fewest active connections. A replica whose lag probe fails or reports more than
+ * {@code maxLag} is skipped until it catches up; with no healthy replica, reads go to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Selection selection;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryConnections;
+    private final Counter fallbacks;
+    private final ScheduledExecutorService lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Selection selection,
+                                    String lagQuery, Duration maxLag, Duration lagCheckInterval,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.selection = selection;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toSeconds();
+
+        primaryConnections = Counter.builder("jdbc.routing.connections")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        fallbacks = Counter.builder("jdbc.routing.fallbacks")
+                .description("Read-only connections sent to the primary because no replica was healthy")
+                .register(meterRegistry);
+
+        for (HikariDataSource dataSource : replicas) {
+            Replica replica = new Replica(dataSource, Counter.builder("jdbc.routing.connections")
+                    .tag("target", dataSource.getPoolName())
+                    .register(meterRegistry));
+            Gauge.builder("jdbc.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("pool", dataSource.getPoolName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            this.replicas.add(replica);
+        }
+
+        lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (lagQuery != null && !lagQuery.isBlank()) {
+            long interval = lagCheckInterval.toMillis();
+            lagMonitor.scheduleWithFixedDelay(this::checkLag, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try {
+                replica.lagSeconds = probeLag(replica.dataSource);
+                replica.healthy = replica.lagSeconds >= 0 && replica.lagSeconds <= maxLagSeconds;
+            } catch (SQLException e) {
+                replica.lagSeconds = -1;
+                replica.healthy = false;
+            }
+
+            if (wasHealthy != replica.healthy) {
+                logger.warn("Replica {} is now {} (lag {} s)", replica.dataSource.getPoolName(),
+                        replica.healthy ? "in rotation" : "out of rotation", replica.lagSeconds);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        lagMonitor.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private DataSource target() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return primary;
+        }
+
+        Replica replica = pick();
+        if (replica == null) {
+            fallbacks.increment();
+            primaryConnections.increment();
+            return primary;
+        }
+
+        replica.connections.increment();
+        return replica.dataSource;
+    }
+
+    private Replica pick() {
+        Replica chosen = null;
+        int size = replicas.size();
+
+        if (selection == Selection.LEAST_LOADED) {
+            int fewest = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int active = replica.activeConnections();
+                if (replica.healthy && active < fewest) {
+                    chosen = replica;
+                    fewest = active;
+                }
+            }
+            return chosen;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    // MySQL's SHOW REPLICA STATUS (or SHOW SLAVE STATUS) has the lag in a named column; any other probe returns it first
+    private long probeLag(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                // not configured as a replica at all
+                return -1;
+            }
+
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                String label = metaData.getColumnLabel(column);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                    return lag(resultSet, column);
+                }
+            }
+            return lag(resultSet, 1);
+        }
+    }
+
+    // NULL means the replication threads are stopped
+    private static long lag(ResultSet resultSet, int column) throws SQLException {
+        long lag = resultSet.getLong(column);
+        return resultSet.wasNull() ? -1 : lag;
+    }
+
+    private static class Replica {
+        private final HikariDataSource dataSource;
+        private final Counter connections;
+        private volatile boolean healthy = true;
+        private volatile long lagSeconds;
+
+        Replica(HikariDataSource dataSource, Counter connections) {
+            this.dataSource = dataSource;
+            this.connections = connections;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.mihaiLita.ecommerce.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the entities Hibernate loads. One result set row can load several (a fetch join), and an
+ * entity served from the second-level cache counts without any row, so this is not a row count.
+ * Registered through {@link com.mihaiLita.ecommerce.config.HibernateListenerConfig}.
+ */
+@Component
+public class HibernateLoadCounter implements PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        SqlRequestCounters.entityLoaded();
+    }
+}
@@ -0,0 +1,110 @@
+package com.mihaiLita.ecommerce.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every API request per REST resource and records how many SQL statements it prepared and how
+ * many entities it loaded.
+ * <p>
+ * {@code http.server.requests} tags all Spring Data REST calls with the same
+ * {@code /api/{repository}/...} pattern. This filter puts the resource name back into the
+ * {@code uri} tag and adds it as {@code resource}, so a p99 regression points at one repository.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RestMetricsFilter extends OncePerRequestFilter {
+    private static final String NONE = "none";
+
+    private MeterRegistry meterRegistry;
+    private RepositoryRestConfiguration restConfiguration;
+
+    @Autowired
+    public RestMetricsFilter(MeterRegistry theMeterRegistry, RepositoryRestConfiguration theRestConfiguration) {
+        meterRegistry = theMeterRegistry;
+        restConfiguration = theRestConfiguration;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String basePath = restConfiguration.getBasePath().getPath();
+        return !request.getRequestURI().startsWith(request.getContextPath() + basePath + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlRequestCounters counters = SqlRequestCounters.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            SqlRequestCounters.end();
+            record(request, response, counters, elapsed);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, SqlRequestCounters counters,
+                        long elapsed) {
+        String resource = resource(request, response);
+        Tags tags = Tags.of("resource", resource, "uri", uri(request, resource));
+
+        Timer.builder("catalog.rest.requests")
+                .tags(tags)
+                .tag("method", request.getMethod())
+                .tag("status", String.valueOf(response.getStatus()))
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("catalog.rest.sql.statements")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(counters.getStatements());
+
+        DistributionSummary.builder("catalog.rest.entities.loaded")
+                .baseUnit("entities")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(counters.getEntities());
+    }
+
+    // only trust the path once a handler matched it, otherwise every typo becomes a new time series
+    private String resource(HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) == null
+                || response.getStatus() == HttpStatus.NOT_FOUND.value()) {
+            return NONE;
+        }
+
+        String path = request.getRequestURI()
+                .substring(request.getContextPath().length() + restConfiguration.getBasePath().getPath().length() + 1);
+        int slash = path.indexOf('/');
+        return slash < 0 ? path : path.substring(0, slash);
+    }
+
+    private static String uri(HttpServletRequest request, String resource) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null || NONE.equals(resource)) {
+            return NONE;
+        }
+        return pattern.toString().replace("{repository}", resource);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mihaiLita.ecommerce.metrics;
+
+/**
+ * SQL work done on the current request thread, fed by {@link SqlStatementCounter} and
+ * {@link HibernateLoadCounter} and read by {@link RestMetricsFilter}.
+ */
+public final class SqlRequestCounters {
+    private static final ThreadLocal<SqlRequestCounters> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entities;
+
+    private SqlRequestCounters() {
+    }
+
+    static SqlRequestCounters begin() {
+        SqlRequestCounters counters = new SqlRequestCounters();
+        CURRENT.set(counters);
+        return counters;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared() {
+        SqlRequestCounters counters = CURRENT.get();
+        if (counters != null) {
+            counters.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        SqlRequestCounters counters = CURRENT.get();
+        if (counters != null) {
+            counters.entities++;
+        }
+    }
+
+    long getStatements() {
+        return statements;
+    }
+
+    long getEntities() {
+        return entities;
+    }
+}
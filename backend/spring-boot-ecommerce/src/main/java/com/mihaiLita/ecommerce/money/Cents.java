@@ -0,0 +1,59 @@
+package com.mihaiLita.ecommerce.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a {@code long} count of cents, for code that compares, sorts or adds many prices. Prices are
+ * stored as {@code DECIMAL(13,2)}, so every stored price is exact in cents; {@link BigDecimal} is only
+ * used at the edges, where an entity is read or written.
+ */
+public final class Cents {
+
+    /** Longest text {@link #write} produces: {@code -92233720368547758.08}, for {@link Long#MIN_VALUE}. */
+    public static final int MAX_LENGTH = 21;
+
+    private Cents() {
+    }
+
+    public static long of(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Writes the plain decimal text of {@code cents}, always with two fraction digits, right-aligned
+     * into the first {@link #MAX_LENGTH} chars of {@code buffer}.
+     *
+     * @return the offset of the first char; the text runs to {@code MAX_LENGTH}
+     */
+    public static int write(long cents, char[] buffer) {
+        // digits are taken off the negative value, which, unlike the positive one, also exists for Long.MIN_VALUE
+        boolean negative = cents < 0;
+        long value = negative ? cents : -cents;
+
+        int position = MAX_LENGTH;
+        buffer[--position] = (char) ('0' - value % 10);
+        value /= 10;
+        buffer[--position] = (char) ('0' - value % 10);
+        value /= 10;
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    public static String toString(long cents) {
+        char[] buffer = new char[MAX_LENGTH];
+        int start = write(cents, buffer);
+        return new String(buffer, start, MAX_LENGTH - start);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mihaiLita.ecommerce.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@code long} cents value as a JSON decimal number ({@code 1499} as {@code 14.99}), formatting
+ * the digits straight into a char buffer instead of going through {@link java.math.BigDecimal} and its
+ * string form. Use with {@code @JsonSerialize(using = CentsSerializer.class)}.
+ */
+public class CentsSerializer extends StdSerializer<Long> {
+
+    public CentsSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long cents, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[Cents.MAX_LENGTH];
+        int start = Cents.write(cents, buffer);
+        generator.writeNumber(buffer, start, Cents.MAX_LENGTH - start);
+    }
+}
@@ -0,0 +1,213 @@
+package com.mihaiLita.ecommerce.reference;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves countries and states from a {@link ReferenceDataSnapshot} loaded once at startup. The HAL
+ * documents for {@code /api/countries} and every {@code findByCountryCode} answer are rendered once
+ * per base URL and then written as raw bytes. {@link #reload()} swaps in a fresh snapshot.
+ */
+@Service
+public class ReferenceDataService {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataService.class);
+
+    // a handful of host names at most, guard against arbitrary Host headers all the same
+    private static final int MAX_RENDERED_BASE_URLS = 16;
+
+    private JdbcTemplate jdbcTemplate;
+    private ObjectMapper objectMapper;
+    private RepositoryRestConfiguration restConfiguration;
+
+    private volatile Loaded loaded;
+
+    @Autowired
+    public ReferenceDataService(JdbcTemplate theJdbcTemplate, ObjectMapper theObjectMapper,
+                                RepositoryRestConfiguration theRestConfiguration) {
+        jdbcTemplate = theJdbcTemplate;
+        objectMapper = theObjectMapper;
+        restConfiguration = theRestConfiguration;
+    }
+
+    public ReferenceDataSnapshot snapshot() {
+        return current().snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        List<ReferenceDataSnapshot.CountryRow> countries = jdbcTemplate.query(
+                "select id, code, name from country order by id",
+                (rs, rowNum) -> new ReferenceDataSnapshot.CountryRow(rs.getInt("id"), rs.getString("code"), rs.getString("name")));
+        List<ReferenceDataSnapshot.StateRow> states = jdbcTemplate.query(
+                "select id, name, country_id from state order by country_id, id",
+                (rs, rowNum) -> new ReferenceDataSnapshot.StateRow(rs.getInt("id"), rs.getString("name"), rs.getInt("country_id")));
+
+        loaded = new Loaded(new ReferenceDataSnapshot(countries, states));
+        logger.info("Reference data loaded: {} countries, {} states", countries.size(), states.size());
+    }
+
+    // requests can arrive before ApplicationReadyEvent, the first one loads the snapshot
+    private Loaded current() {
+        Loaded current = loaded;
+        if (current == null) {
+            synchronized (this) {
+                if (loaded == null) {
+                    reload();
+                }
+                current = loaded;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * HAL document equivalent to {@code GET /api/countries}: the first page at Spring Data REST's default
+     * page size, with the same page metadata and links.
+     */
+    public byte[] countries(String baseUrl) {
+        return rendered(current(), baseUrl).countries;
+    }
+
+    /**
+     * HAL document equivalent to {@code GET /api/states/search/findByCountryCode?code=}.
+     */
+    public byte[] statesByCountryCode(String baseUrl, String code) {
+        Loaded current = current();
+
+        int countryIndex = current.snapshot.countryIndex(code);
+        if (countryIndex >= 0 && current.snapshot.countryCode(countryIndex).equals(code)) {
+            return rendered(current, baseUrl).states[countryIndex];
+        }
+
+        // unknown code, or a spelling that differs from the stored one: the self link echoes it
+        return render(statesDocument(baseUrl, current.snapshot, countryIndex, code == null ? "" : code));
+    }
+
+    private Rendered rendered(Loaded current, String baseUrl) {
+        Rendered rendered = current.rendered.get(baseUrl);
+        if (rendered != null) {
+            return rendered;
+        }
+
+        rendered = render(baseUrl, current.snapshot);
+        if (current.rendered.size() < MAX_RENDERED_BASE_URLS) {
+            current.rendered.putIfAbsent(baseUrl, rendered);
+        }
+        return rendered;
+    }
+
+    private Rendered render(String baseUrl, ReferenceDataSnapshot snapshot) {
+        byte[][] states = new byte[snapshot.countryCount()][];
+        for (int i = 0; i < snapshot.countryCount(); i++) {
+            states[i] = render(statesDocument(baseUrl, snapshot, i, snapshot.countryCode(i)));
+        }
+        return new Rendered(render(countriesDocument(baseUrl, snapshot, restConfiguration.getDefaultPageSize())), states);
+    }
+
+    // the first page at the default size, as Spring Data REST answers a request without paging parameters
+    static Map<String, Object> countriesDocument(String baseUrl, ReferenceDataSnapshot snapshot, int pageSize) {
+        int total = snapshot.countryCount();
+        int totalPages = (total + pageSize - 1) / pageSize;
+
+        List<Map<String, Object>> countries = new ArrayList<>();
+        for (int i = 0; i < Math.min(total, pageSize); i++) {
+            String self = baseUrl + "/countries/" + snapshot.countryId(i);
+
+            Map<String, Object> country = new LinkedHashMap<>();
+            country.put("id", snapshot.countryId(i));
+            country.put("code", snapshot.countryCode(i));
+            country.put("name", snapshot.countryName(i));
+            country.put("_links", Map.of("self", href(self), "country", href(self)));
+            countries.add(country);
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("size", pageSize);
+        page.put("totalElements", total);
+        page.put("totalPages", totalPages);
+        page.put("number", 0);
+
+        String collection = baseUrl + "/countries";
+        Map<String, Object> links = new LinkedHashMap<>();
+        if (totalPages > 1) {
+            links.put("first", href(collection + "?page=0&size=" + pageSize));
+        }
+        links.put("self", href(collection + "?page=0&size=" + pageSize));
+        if (totalPages > 1) {
+            links.put("next", href(collection + "?page=1&size=" + pageSize));
+            links.put("last", href(collection + "?page=" + (totalPages - 1) + "&size=" + pageSize));
+        }
+        links.put("profile", href(baseUrl + "/profile/countries"));
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("_embedded", Map.of("countries", countries));
+        document.put("_links", links);
+        document.put("page", page);
+        return document;
+    }
+
+    private static Map<String, Object> statesDocument(String baseUrl, ReferenceDataSnapshot snapshot,
+                                                      int countryIndex, String code) {
+        List<Map<String, Object>> states = new ArrayList<>();
+        if (countryIndex >= 0) {
+            for (int i = snapshot.statesFrom(countryIndex); i < snapshot.statesTo(countryIndex); i++) {
+                String self = baseUrl + "/states/" + snapshot.stateId(i);
+
+                Map<String, Object> links = new LinkedHashMap<>();
+                links.put("self", href(self));
+                links.put("state", href(self));
+                links.put("country", href(self + "/country"));
+
+                Map<String, Object> state = new LinkedHashMap<>();
+                state.put("id", snapshot.stateId(i));
+                state.put("name", snapshot.stateName(i));
+                state.put("_links", links);
+                states.add(state);
+            }
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("_embedded", Map.of("states", states));
+        document.put("_links", Map.of("self", href(baseUrl + "/states/search/findByCountryCode?code=" + code)));
+        return document;
+    }
+
+    private static Map<String, String> href(String href) {
+        return Map.of("href", href);
+    }
+
+    private byte[] render(Map<String, Object> document) {
+        try {
+            return objectMapper.writeValueAsBytes(document);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Loaded {
+        private final ReferenceDataSnapshot snapshot;
+        private final Map<String, Rendered> rendered = new ConcurrentHashMap<>();
+
+        private Loaded(ReferenceDataSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    private record Rendered(byte[] countries, byte[][] states) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.mihaiLita.ecommerce.reference;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of the country and state tables. Countries are addressed by a two-letter code
+ * through a 26x26 lookup table, states are stored grouped by country (CSR layout), so both
+ * lookups are a couple of array reads without hashing or boxing.
+ */
+public final class ReferenceDataSnapshot {
+    private static final int ALPHABET = 26;
+
+    private final int[] countryIds;
+    private final String[] countryCodes;
+    private final String[] countryNames;
+    private final short[] countryByCode;
+
+    private final int[] stateIds;
+    private final String[] stateNames;
+    // states of country i are stateIds[stateStart[i] .. stateStart[i + 1])
+    private final int[] stateStart;
+
+    public record CountryRow(int id, String code, String name) {
+    }
+
+    public record StateRow(int id, String name, int countryId) {
+    }
+
+    public ReferenceDataSnapshot(List<CountryRow> countries, List<StateRow> states) {
+        int countryCount = countries.size();
+        countryIds = new int[countryCount];
+        countryCodes = new String[countryCount];
+        countryNames = new String[countryCount];
+        countryByCode = new short[ALPHABET * ALPHABET];
+        Arrays.fill(countryByCode, (short) -1);
+
+        for (int i = 0; i < countryCount; i++) {
+            CountryRow country = countries.get(i);
+            countryIds[i] = country.id();
+            countryCodes[i] = country.code();
+            countryNames[i] = country.name();
+
+            int slot = slot(country.code());
+            if (slot >= 0 && countryByCode[slot] < 0) {
+                countryByCode[slot] = (short) i;
+            }
+        }
+
+        Map<Integer, Integer> positionById = new HashMap<>();
+        for (int i = 0; i < countryCount; i++) {
+            positionById.putIfAbsent(countryIds[i], i);
+        }
+
+        // counting sort of the states by the position of their country
+        int[] filled = new int[countryCount];
+        int[] counts = new int[countryCount + 1];
+        for (StateRow state : states) {
+            int position = positionById.getOrDefault(state.countryId(), -1);
+            if (position >= 0) {
+                counts[position + 1]++;
+            }
+        }
+        for (int i = 0; i < countryCount; i++) {
+            counts[i + 1] += counts[i];
+        }
+        stateStart = counts.clone();
+
+        stateIds = new int[counts[countryCount]];
+        stateNames = new String[counts[countryCount]];
+        for (StateRow state : states) {
+            int position = positionById.getOrDefault(state.countryId(), -1);
+            if (position >= 0) {
+                int target = stateStart[position] + filled[position]++;
+                stateIds[target] = state.id();
+                stateNames[target] = state.name();
+            }
+        }
+    }
+
+    public int countryCount() {
+        return countryIds.length;
+    }
+
+    public int countryId(int index) {
+        return countryIds[index];
+    }
+
+    public String countryCode(int index) {
+        return countryCodes[index];
+    }
+
+    public String countryName(int index) {
+        return countryNames[index];
+    }
+
+    public int stateCount() {
+        return stateIds.length;
+    }
+
+    /**
+     * Position of the country with the given code, or -1.
+     */
+    public int countryIndex(String code) {
+        int slot = slot(code);
+        return slot < 0 ? -1 : countryByCode[slot];
+    }
+
+    public int statesFrom(int countryIndex) {
+        return stateStart[countryIndex];
+    }
+
+    public int statesTo(int countryIndex) {
+        return stateStart[countryIndex + 1];
+    }
+
+    public int stateId(int position) {
+        return stateIds[position];
+    }
+
+    public String stateName(int position) {
+        return stateNames[position];
+    }
+
+    // case-insensitive like the MySQL collation the repository query ran against
+    private static int slot(String code) {
+        if (code == null || code.length() != 2) {
+            return -1;
+        }
+        int first = Character.toUpperCase(code.charAt(0)) - 'A';
+        int second = Character.toUpperCase(code.charAt(1)) - 'A';
+        if (first < 0 || first >= ALPHABET || second < 0 || second >= ALPHABET) {
+            return -1;
+        }
+        return first * ALPHABET + second;
+    }
+}
@@ -0,0 +1,359 @@
+package com.mihaiLita.ecommerce.search;
+
+import com.mihaiLita.ecommerce.dao.CatalogVersion;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names.
+ * <p>
+ * Every token is posted under its n-grams of up to {@value #GRAM} characters, so memory grows linearly
+ * with the text. A query token of up to {@value #GRAM} characters is looked up directly, a longer one
+ * through the intersection of its {@value #GRAM}-grams, which finds every token containing it anywhere
+ * (not only as a prefix). Candidates are then verified against the full name, which keeps the results
+ * identical to {@code name LIKE '%term%'} on a case-insensitive collation.
+ * <p>
+ * Descriptions are not indexed, since the only search the API exposes is by name.
+ */
+@Component
+public class ProductSearchIndex {
+    static final int GRAM = 3;
+
+    // the comparable Product properties a search can be sorted by
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "sku", "name", "description", "unitPrice",
+            "imageUrl", "active", "unitsInStock", "dateCreated", "lastUpdated");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment = new Segment();
+
+    // changes that arrive while a rebuild is loading rows, replayed on top of the new segment
+    private List<Runnable> pendingChanges;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void rebuild(Iterable<Product> products) {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment newSegment = new Segment();
+        for (Product product : products) {
+            newSegment.add(snapshot(product));
+        }
+
+        lock.writeLock().lock();
+        try {
+            segment = newSegment;
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+
+        Product copy = snapshot(product);
+        apply(() -> {
+            segment.remove(copy.getId());
+            segment.add(copy);
+        });
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) {
+            return;
+        }
+
+        apply(() -> segment.remove(productId));
+    }
+
+    public Page<Product> findByNameContaining(String name, Pageable pageable) {
+        checkSort(pageable.getSort());
+        if (name == null) {
+            return Page.empty(pageable);
+        }
+
+        List<Product> matches = matches(name);
+        matches.sort(comparator(pageable.getSort()));
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches, pageable, matches.size());
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    // validators for conditional GET of the search, see CatalogConditionalGetFilter; null without a name
+    public CatalogVersion findVersionByNameContaining(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        long lastModified = -1;
+        List<Product> matches = matches(name);
+        for (Product product : matches) {
+            Date modified = product.getLastUpdated() != null ? product.getLastUpdated() : product.getDateCreated();
+            if (modified != null) {
+                lastModified = Math.max(lastModified, modified.getTime());
+            }
+        }
+        return new Version((long) matches.size(), lastModified < 0 ? null : new Date(lastModified));
+    }
+
+    private List<Product> matches(String name) {
+        String needle = normalize(name);
+        List<Product> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = segment.candidates(needle);
+            for (int id : candidates) {
+                Product product = segment.products.get(Integer.toUnsignedLong(id));
+                if (contains(product.getName(), needle)) {
+                    matches.add(product);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && normalize(value).contains(needle);
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // throws IllegalArgumentException for a property the search cannot be sorted by
+    public static void checkSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unknown sort property for products: " + order.getProperty());
+            }
+        }
+    }
+
+    private static Comparator<Product> comparator(Sort sort) {
+        Comparator<Product> comparator = null;
+
+        for (Sort.Order order : sort) {
+            Comparator<Product> next = (left, right) -> compare(property(left, order), property(right, order));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        Comparator<Product> byId = Comparator.comparing(Product::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    private static Object property(Product product, Sort.Order order) {
+        Object value = new BeanWrapperImpl(product).getPropertyValue(order.getProperty());
+        if (value instanceof String text && order.isIgnoreCase()) {
+            return normalize(text);
+        }
+        return value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left == null) {
+            return -1;
+        }
+        if (right == null) {
+            return 1;
+        }
+        return ((Comparable) left).compareTo(right);
+    }
+
+    // the index keeps detached copies so it never holds on to managed entities or lazy collections
+    private static Product snapshot(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setSku(product.getSku());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setUnitPrice(product.getUnitPrice());
+        copy.setImageUrl(product.getImageUrl());
+        copy.setActive(product.isActive());
+        copy.setUnitsInStock(product.getUnitsInStock());
+        copy.setDateCreated(product.getDateCreated());
+        copy.setLastUpdated(product.getLastUpdated());
+
+        // only the id, reading anything else from a lazy category proxy would hit the database
+        if (product.getCategory() != null) {
+            ProductCategory category = new ProductCategory();
+            category.setId(product.getCategory().getId());
+            copy.setCategory(category);
+        }
+
+        return copy;
+    }
+
+    private record Version(Long count, Date lastModified) implements CatalogVersion {
+
+        @Override
+        public Long getCount() {
+            return count;
+        }
+
+        @Override
+        public Date getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private static class Segment {
+        private final Map<Long, Product> products = new HashMap<>();
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> grams = new HashMap<>();
+
+        void add(Product product) {
+            products.put(product.getId(), product);
+            all.add(id(product.getId()));
+            for (String gram : grams(product.getName())) {
+                grams.computeIfAbsent(gram, key -> new RoaringBitmap()).add(id(product.getId()));
+            }
+        }
+
+        void remove(Long id) {
+            Product previous = products.remove(id);
+            if (previous == null) {
+                return;
+            }
+            all.remove(id(id));
+            for (String gram : grams(previous.getName())) {
+                RoaringBitmap ids = grams.get(gram);
+                if (ids != null) {
+                    ids.remove(id(id));
+                    if (ids.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+            }
+        }
+
+        // every query token must appear inside some token of the name
+        RoaringBitmap candidates(String needle) {
+            RoaringBitmap result = all.clone();
+            for (String token : tokenize(needle)) {
+                if (token.length() <= GRAM) {
+                    result.and(posting(token));
+                } else {
+                    for (int i = 0; i + GRAM <= token.length() && !result.isEmpty(); i++) {
+                        result.and(posting(token.substring(i, i + GRAM)));
+                    }
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private RoaringBitmap posting(String gram) {
+            RoaringBitmap ids = grams.get(gram);
+            return ids == null ? new RoaringBitmap() : ids;
+        }
+
+        // the distinct grams of 1 to GRAM characters inside each token, at most GRAM per character
+        private static Set<String> grams(String text) {
+            Set<String> grams = new HashSet<>();
+            for (String token : tokenize(text)) {
+                for (int i = 0; i < token.length(); i++) {
+                    for (int length = 1; length <= GRAM && i + length <= token.length(); length++) {
+                        grams.add(token.substring(i, i + length));
+                    }
+                }
+            }
+            return grams;
+        }
+
+        // product ids are AUTO_INCREMENT and far below 2^31, the bitmaps hold them as ints
+        private static int id(Long productId) {
+            return Math.toIntExact(productId);
+        }
+    }
+}
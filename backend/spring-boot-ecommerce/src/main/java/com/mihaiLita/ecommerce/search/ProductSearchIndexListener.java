@@ -0,0 +1,58 @@
+package com.mihaiLita.ecommerce.search;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Keeps {@link ProductSearchIndex} in step with product writes. Changes are applied after the
+ * surrounding transaction commits so a rollback never leaks into search results.
+ */
+@Component
+public class ProductSearchIndexListener {
+    private final ObjectProvider<ProductSearchIndex> searchIndexProvider;
+
+    @Autowired
+    public ProductSearchIndexListener(ObjectProvider<ProductSearchIndex> theSearchIndexProvider) {
+        searchIndexProvider = theSearchIndexProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void productSaved(Product product) {
+        afterCommit(index -> index.index(product));
+    }
+
+    @PostRemove
+    public void productRemoved(Product product) {
+        Long productId = product.getId();
+        afterCommit(index -> index.remove(productId));
+    }
+
+    private void afterCommit(Consumer<ProductSearchIndex> change) {
+        ProductSearchIndex searchIndex = searchIndexProvider.getIfAvailable();
+        if (searchIndex == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.accept(searchIndex);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.accept(searchIndex);
+            }
+        });
+    }
+}
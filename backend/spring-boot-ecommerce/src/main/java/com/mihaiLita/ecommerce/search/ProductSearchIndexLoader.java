@@ -0,0 +1,45 @@
+package com.mihaiLita.ecommerce.search;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+@Component
+public class ProductSearchIndexLoader {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexLoader.class);
+
+    private EntityManager entityManager;
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    public ProductSearchIndexLoader(EntityManager theEntityManager, ProductSearchIndex theSearchIndex) {
+        entityManager = theEntityManager;
+        searchIndex = theSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+
+        try (Stream<Product> products = entityManager
+                .createQuery("select p from Product p join fetch p.category", Product.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            searchIndex.rebuild(() -> products.peek(entityManager::detach).iterator());
+        }
+
+        logger.info("Product search index built with {} products in {} ms",
+                searchIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,8 @@
+package com.mihaiLita.ecommerce.service;
+
+import com.mihaiLita.ecommerce.dto.Purchase;
+import com.mihaiLita.ecommerce.dto.PurchaseResponse;
+
+public interface CheckoutService {
+    PurchaseResponse placeOrder(Purchase purchase);
+}
@@ -0,0 +1,201 @@
+package com.mihaiLita.ecommerce.service;
+
+import com.mihaiLita.ecommerce.cache.CatalogCacheInvalidator;
+import com.mihaiLita.ecommerce.dao.CustomerRepository;
+import com.mihaiLita.ecommerce.dao.OrderRepository;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.dto.CartItem;
+import com.mihaiLita.ecommerce.dto.CustomerDetails;
+import com.mihaiLita.ecommerce.dto.Purchase;
+import com.mihaiLita.ecommerce.dto.PurchaseResponse;
+import com.mihaiLita.ecommerce.entity.Customer;
+import com.mihaiLita.ecommerce.entity.Order;
+import com.mihaiLita.ecommerce.entity.OrderItem;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.events.ChangeEvent;
+import com.mihaiLita.ecommerce.events.ChangeEventPublisher;
+import com.mihaiLita.ecommerce.facet.ProductFacetIndex;
+import com.mihaiLita.ecommerce.inventory.InventoryService;
+import com.mihaiLita.ecommerce.money.Cents;
+import com.mihaiLita.ecommerce.search.ProductSearchIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class CheckoutServiceImpl implements CheckoutService {
+    private ProductRepository productRepository;
+    private CustomerRepository customerRepository;
+    private OrderRepository orderRepository;
+    private InventoryService inventoryService;
+    private ObjectProvider<CatalogCacheInvalidator> cacheInvalidatorProvider;
+    private ObjectProvider<ProductSearchIndex> searchIndexProvider;
+    private ObjectProvider<ProductFacetIndex> facetIndexProvider;
+    private ObjectProvider<ChangeEventPublisher> changeEventPublisherProvider;
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public CheckoutServiceImpl(ProductRepository theProductRepository,
+                               CustomerRepository theCustomerRepository,
+                               OrderRepository theOrderRepository,
+                               InventoryService theInventoryService,
+                               ObjectProvider<CatalogCacheInvalidator> theCacheInvalidatorProvider,
+                               ObjectProvider<ProductSearchIndex> theSearchIndexProvider,
+                               ObjectProvider<ProductFacetIndex> theFacetIndexProvider,
+                               ObjectProvider<ChangeEventPublisher> theChangeEventPublisherProvider,
+                               PlatformTransactionManager theTransactionManager) {
+        productRepository = theProductRepository;
+        customerRepository = theCustomerRepository;
+        orderRepository = theOrderRepository;
+        inventoryService = theInventoryService;
+        cacheInvalidatorProvider = theCacheInvalidatorProvider;
+        searchIndexProvider = theSearchIndexProvider;
+        facetIndexProvider = theFacetIndexProvider;
+        changeEventPublisherProvider = theChangeEventPublisherProvider;
+        transactionTemplate = new TransactionTemplate(theTransactionManager);
+    }
+
+    @Override
+    public PurchaseResponse placeOrder(Purchase purchase) {
+        SortedMap<Long, Integer> quantities = quantitiesByProduct(purchase);
+        // ahead of the order's transaction, which then holds no stock rows while the customer is written
+        Long customerId = customerId(purchase.getCustomer());
+        return transactionTemplate.execute(status -> placeOrder(customerId, quantities));
+    }
+
+    private PurchaseResponse placeOrder(Long customerId, SortedMap<Long, Integer> quantities) {
+        // reserve in ascending product id order so two carts never wait on each other's rows in a cycle;
+        // a failed reservation throws and rolls back the ones already made
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!inventoryService.reserve(entry.getKey(), entry.getValue())) {
+                if (!productRepository.existsById(entry.getKey())) {
+                    throw new InvalidCartException("Unknown product " + entry.getKey());
+                }
+                throw new InsufficientStockException(entry.getKey());
+            }
+        }
+
+        // prices come from the catalog, never from the client; loaded after the update so the stock is current
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Order order = new Order();
+        order.setOrderTrackingNumber(UUID.randomUUID().toString());
+        order.setStatus("RESERVED");
+
+        int totalQuantity = 0;
+        long totalCents = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setImageUrl(product.getImageUrl());
+            item.setUnitPrice(product.getUnitPrice());
+            item.setQuantity(entry.getValue());
+            order.add(item);
+
+            totalQuantity += entry.getValue();
+            // whole-cart arithmetic on cents; one BigDecimal for the order at the end
+            long lineCents = Math.multiplyExact(Cents.of(product.getUnitPrice()), entry.getValue());
+            totalCents = Math.addExact(totalCents, lineCents);
+        }
+        order.setTotalQuantity(totalQuantity);
+        order.setTotalPrice(Cents.toBigDecimal(totalCents));
+
+        // a reference: the customer's other orders are never loaded
+        order.setCustomer(customerRepository.getReferenceById(customerId));
+        orderRepository.save(order);
+
+        refreshAfterCommit(products.values());
+
+        return new PurchaseResponse(order.getOrderTrackingNumber());
+    }
+
+    private Long customerId(CustomerDetails details) {
+        Customer existing = customerRepository.findByEmail(details.getEmail());
+        if (existing != null) {
+            return existing.getId();
+        }
+
+        Customer customer = new Customer();
+        customer.setFirstName(details.getFirstName());
+        customer.setLastName(details.getLastName());
+        customer.setEmail(details.getEmail());
+        try {
+            return customerRepository.save(customer).getId();
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent first checkout with the same email inserted it, uk_customer_email turned this one away
+            existing = customerRepository.findByEmail(details.getEmail());
+            if (existing == null) {
+                throw e;
+            }
+            return existing.getId();
+        }
+    }
+
+    private static SortedMap<Long, Integer> quantitiesByProduct(Purchase purchase) {
+        if (purchase.getCustomer() == null || purchase.getCustomer().getEmail() == null) {
+            throw new InvalidCartException("Customer email is required");
+        }
+        if (purchase.getCartItems() == null || purchase.getCartItems().isEmpty()) {
+            throw new InvalidCartException("Cart is empty");
+        }
+
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CartItem item : purchase.getCartItems()) {
+            if (item.getProductId() == null || item.getQuantity() <= 0) {
+                throw new InvalidCartException("Cart items need a product id and a positive quantity");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Math::addExact);
+        }
+        return quantities;
+    }
+
+    // the stock update is a bulk statement, the entity listeners never see it
+    private void refreshAfterCommit(Collection<Product> products) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        CatalogCacheInvalidator cacheInvalidator = cacheInvalidatorProvider.getIfAvailable();
+        ProductSearchIndex searchIndex = searchIndexProvider.getIfAvailable();
+        ProductFacetIndex facetIndex = facetIndexProvider.getIfAvailable();
+        ChangeEventPublisher changeEventPublisher = changeEventPublisherProvider.getIfAvailable();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Product product : products) {
+                    if (cacheInvalidator != null) {
+                        cacheInvalidator.evictProduct(product.getId());
+                        cacheInvalidator.evictCategoryPages(product.getCategory().getId());
+                    }
+                    if (searchIndex != null) {
+                        searchIndex.index(product);
+                    }
+                    if (facetIndex != null) {
+                        facetIndex.index(product);
+                    }
+                    if (changeEventPublisher != null) {
+                        changeEventPublisher.productChanged(ChangeEvent.Operation.UPDATED, product.getId(),
+                                product.getCategory().getId(), null);
+                    }
+                }
+            }
+        });
+    }
+}
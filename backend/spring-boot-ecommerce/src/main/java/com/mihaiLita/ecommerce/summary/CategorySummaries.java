@@ -0,0 +1,373 @@
+package com.mihaiLita.ecommerce.summary;
+
+import com.mihaiLita.ecommerce.cache.HalResponseCache;
+import com.mihaiLita.ecommerce.events.CategoryChanged;
+import com.mihaiLita.ecommerce.events.ChangeEvent;
+import com.mihaiLita.ecommerce.events.ChangeEventSubscriber;
+import com.mihaiLita.ecommerce.events.ProductChanged;
+import com.mihaiLita.ecommerce.money.Cents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Per-category product counts, price range and newest product, kept up to date from
+ * {@link ChangeEvent}s instead of counting on every read. Read through the {@code summary} projection,
+ * e.g. {@code /api/product-category?projection=summary}.
+ * <p>
+ * Events name products only, so each batch re-reads the current rows of the products it mentions and
+ * moves every product's contribution from its last known state to its current one. Reading after the
+ * commit, one batch at a time, keeps the totals right however writes interleave. When a product that
+ * held a category's lowest or highest price or newest date leaves it, that extreme is recomputed from the
+ * other products of the category.
+ * <p>
+ * {@link #version()} moves on whenever a summary changes, for validators of responses that carry them.
+ */
+@Component
+public class CategorySummaries implements ChangeEventSubscriber {
+    private static final Logger logger = LoggerFactory.getLogger(CategorySummaries.class);
+
+    private static final String PRODUCT_STATE =
+            "select id, category_id, unit_price, active, units_in_stock, date_created from product";
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    // no price or no creation date
+    private static final long NONE = Long.MIN_VALUE;
+
+    // guards the state below
+    private final Object lock = new Object();
+    private ProductStates products = new ProductStates();
+    private Map<Long, Totals> byCategory = new HashMap<>();
+    private Set<Long> touchedDuringRebuild;
+    private long version;
+
+    // one read-and-apply at a time, so rows read earlier are never applied over rows read later
+    private final Object refreshLock = new Object();
+
+    private JdbcTemplate jdbcTemplate;
+    private ObjectProvider<HalResponseCache> responseCacheProvider;
+
+    @Autowired
+    public CategorySummaries(JdbcTemplate theJdbcTemplate, ObjectProvider<HalResponseCache> theResponseCacheProvider) {
+        jdbcTemplate = theJdbcTemplate;
+        responseCacheProvider = theResponseCacheProvider;
+    }
+
+    public CategorySummary get(Long categoryId) {
+        synchronized (lock) {
+            Totals totals = categoryId == null ? null : byCategory.get(categoryId);
+            return totals == null ? CategorySummary.EMPTY : totals.summary();
+        }
+    }
+
+    public long version() {
+        synchronized (lock) {
+            return version;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (lock) {
+            touchedDuringRebuild = new HashSet<>();
+        }
+
+        ProductStates loaded = new ProductStates();
+        Map<Long, Totals> totals = new HashMap<>();
+        jdbcTemplate.query("select id from product_category", resultSet -> {
+            totals.put(resultSet.getLong("id"), new Totals());
+        });
+        jdbcTemplate.query(PRODUCT_STATE, resultSet -> {
+            ProductState state = state(resultSet);
+            loaded.put(state);
+            totals.computeIfAbsent(state.categoryId(), categoryId -> new Totals()).add(state);
+        });
+
+        Set<Long> touched;
+        synchronized (lock) {
+            products = loaded;
+            byCategory = totals;
+            version++;
+            touched = touchedDuringRebuild;
+            touchedDuringRebuild = null;
+        }
+        // changes that committed while the rows were being read
+        refresh(touched, Set.of());
+
+        logger.info("Category summaries built for {} categories in {} ms", totals.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onEvents(List<ChangeEvent> events) {
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> deletedCategories = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event instanceof ProductChanged product) {
+                productIds.add(product.productId());
+            } else if (event instanceof CategoryChanged category && category.operation() == ChangeEvent.Operation.DELETED) {
+                deletedCategories.add(category.categoryId());
+            }
+        }
+
+        synchronized (lock) {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.addAll(productIds);
+                return;
+            }
+        }
+        refresh(productIds, deletedCategories);
+    }
+
+    private void refresh(Set<Long> productIds, Set<Long> deletedCategories) {
+        if (productIds.isEmpty() && deletedCategories.isEmpty()) {
+            return;
+        }
+
+        boolean changed = false;
+        synchronized (refreshLock) {
+            Map<Long, ProductState> current = read(productIds);
+
+            synchronized (lock) {
+                Map<Long, Totals> stale = new HashMap<>();
+                for (Long productId : productIds) {
+                    changed |= apply(productId, current.get(productId), stale);
+                }
+                for (Long categoryId : deletedCategories) {
+                    changed |= byCategory.remove(categoryId) != null;
+                    stale.remove(categoryId);
+                }
+
+                stale.forEach((categoryId, totals) -> {
+                    totals.resetExtremes();
+                    products.forEachInCategory(categoryId, totals::widen);
+                });
+                if (changed) {
+                    version++;
+                }
+            }
+        }
+
+        // the cached category menu may carry summaries
+        if (changed) {
+            responseCacheProvider.ifAvailable(HalResponseCache::evictMenu);
+        }
+    }
+
+    private boolean apply(Long productId, ProductState current, Map<Long, Totals> stale) {
+        ProductState previous = products.get(productId);
+        if (Objects.equals(previous, current)) {
+            return false;
+        }
+
+        if (previous != null) {
+            Totals totals = byCategory.get(previous.categoryId());
+            if (totals != null && totals.remove(previous)) {
+                stale.put(previous.categoryId(), totals);
+            }
+            products.remove(productId);
+        }
+        if (current != null) {
+            products.put(current);
+            byCategory.computeIfAbsent(current.categoryId(), categoryId -> new Totals()).add(current);
+        }
+        return true;
+    }
+
+    private Map<Long, ProductState> read(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, ProductState> states = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(PRODUCT_STATE + " where id in (" + placeholders + ")", resultSet -> {
+                ProductState state = state(resultSet);
+                states.put(state.id(), state);
+            }, chunk.toArray());
+        }
+        return states;
+    }
+
+    private static ProductState state(ResultSet resultSet) throws SQLException {
+        BigDecimal price = resultSet.getBigDecimal("unit_price");
+        Timestamp created = resultSet.getTimestamp("date_created");
+        return new ProductState(resultSet.getLong("id"), resultSet.getLong("category_id"),
+                price == null ? NONE : Cents.of(price),
+                resultSet.getBoolean("active"),
+                resultSet.getInt("units_in_stock") > 0,
+                created == null ? NONE : created.getTime());
+    }
+
+    record ProductState(long id, long categoryId, long cents, boolean active, boolean inStock, long created) {
+    }
+
+    private static class Totals {
+        private long products;
+        private long active;
+        private long inStock;
+        private long minCents = NONE;
+        private long maxCents = NONE;
+        private long newest = NONE;
+
+        void add(ProductState product) {
+            products++;
+            if (product.active()) {
+                active++;
+            }
+            if (product.inStock()) {
+                inStock++;
+            }
+            widen(product);
+        }
+
+        void widen(ProductState product) {
+            if (product.cents() != NONE) {
+                minCents = minCents == NONE ? product.cents() : Math.min(minCents, product.cents());
+                maxCents = maxCents == NONE ? product.cents() : Math.max(maxCents, product.cents());
+            }
+            newest = Math.max(newest, product.created());
+        }
+
+        // true when the product held an extreme, which then has to be found among the remaining products
+        boolean remove(ProductState product) {
+            products--;
+            if (product.active()) {
+                active--;
+            }
+            if (product.inStock()) {
+                inStock--;
+            }
+            return product.cents() != NONE && (product.cents() == minCents || product.cents() == maxCents)
+                    || product.created() != NONE && product.created() == newest;
+        }
+
+        void resetExtremes() {
+            minCents = NONE;
+            maxCents = NONE;
+            newest = NONE;
+        }
+
+        CategorySummary summary() {
+            return new CategorySummary(products, active, inStock,
+                    minCents == NONE ? null : minCents,
+                    maxCents == NONE ? null : maxCents,
+                    newest == NONE ? null : Instant.ofEpochMilli(newest));
+        }
+    }
+
+    // columns indexed by product id, which AUTO_INCREMENT keeps dense; category 0 marks a free slot.
+    // Each category also lists its product ids, so recomputing its extremes visits only its own products.
+    private static class ProductStates {
+        private static final byte ACTIVE = 1;
+        private static final byte IN_STOCK = 2;
+
+        private long[] categoryIds = new long[1024];
+        private long[] cents = new long[1024];
+        private long[] created = new long[1024];
+        private byte[] flags = new byte[1024];
+        // where each product sits in its category's list
+        private int[] positions = new int[1024];
+        private final Map<Long, Members> members = new HashMap<>();
+
+        ProductState get(long productId) {
+            int id = Math.toIntExact(productId);
+            if (id >= categoryIds.length || categoryIds[id] == 0) {
+                return null;
+            }
+            return new ProductState(id, categoryIds[id], cents[id], (flags[id] & ACTIVE) != 0,
+                    (flags[id] & IN_STOCK) != 0, created[id]);
+        }
+
+        void put(ProductState state) {
+            int id = Math.toIntExact(state.id());
+            if (id >= categoryIds.length) {
+                int length = Math.max(id + 1, categoryIds.length * 2);
+                categoryIds = Arrays.copyOf(categoryIds, length);
+                cents = Arrays.copyOf(cents, length);
+                created = Arrays.copyOf(created, length);
+                flags = Arrays.copyOf(flags, length);
+                positions = Arrays.copyOf(positions, length);
+            }
+            if (categoryIds[id] != state.categoryId()) {
+                remove(id);
+                positions[id] = members.computeIfAbsent(state.categoryId(), categoryId -> new Members()).add(id);
+            }
+            categoryIds[id] = state.categoryId();
+            cents[id] = state.cents();
+            created[id] = state.created();
+            flags[id] = (byte) ((state.active() ? ACTIVE : 0) | (state.inStock() ? IN_STOCK : 0));
+        }
+
+        void remove(long productId) {
+            int id = Math.toIntExact(productId);
+            if (id >= categoryIds.length || categoryIds[id] == 0) {
+                return;
+            }
+            Members category = members.get(categoryIds[id]);
+            int moved = category.remove(positions[id]);
+            if (moved != id) {
+                positions[moved] = positions[id];
+            }
+            if (category.size == 0) {
+                members.remove(categoryIds[id]);
+            }
+            categoryIds[id] = 0;
+        }
+
+        void forEachInCategory(long categoryId, Consumer<ProductState> action) {
+            Members category = members.get(categoryId);
+            if (category != null) {
+                for (int i = 0; i < category.size; i++) {
+                    action.accept(get(category.ids[i]));
+                }
+            }
+        }
+    }
+
+    private static class Members {
+        private int[] ids = new int[16];
+        private int size;
+
+        // the position the id was put at
+        int add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            return size++;
+        }
+
+        // fills the hole with the last id and returns that id, which now sits at the given position
+        int remove(int position) {
+            int last = ids[--size];
+            ids[position] = last;
+            return last;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mihaiLita.ecommerce.summary;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.mihaiLita.ecommerce.money.CentsSerializer;
+
+import java.time.Instant;
+
+/**
+ * Counts and extremes over the products of one category. Prices are in cents and written as decimal
+ * amounts; they and {@code newestCreated} are null while the category has no product that carries them.
+ */
+public record CategorySummary(long products, long active, long inStock,
+                              @JsonSerialize(using = CentsSerializer.class) Long minPrice,
+                              @JsonSerialize(using = CentsSerializer.class) Long maxPrice,
+                              Instant newestCreated) {
+
+    public static final CategorySummary EMPTY = new CategorySummary(0, 0, 0, null, null, null);
+}
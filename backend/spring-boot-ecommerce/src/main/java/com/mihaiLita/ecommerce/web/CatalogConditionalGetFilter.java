@@ -0,0 +1,173 @@
+package com.mihaiLita.ecommerce.web;
+
+import com.mihaiLita.ecommerce.dao.CatalogVersion;
+import com.mihaiLita.ecommerce.dao.ProductCategoryName;
+import com.mihaiLita.ecommerce.dao.ProductCategoryRepository;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.search.ProductSearchIndex;
+import com.mihaiLita.ecommerce.summary.CategorySummaries;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conditional GET for product and product category resources. Validators are computed from an
+ * aggregate query (row count and newest {@code lastUpdated} of the same filter) before the request
+ * reaches Spring Data REST, so a matching {@code If-None-Match} / {@code If-Modified-Since} is
+ * answered with 304 without loading or serializing any entity. Unconditional requests skip the
+ * aggregate unless their response is kept by {@link HalResponseCacheFilter}.
+ */
+@Component
+public class CatalogConditionalGetFilter extends OncePerRequestFilter {
+    // at most 18 digits always fit a long; longer ids pass through to the 404
+    private static final Pattern PRODUCT_ITEM = Pattern.compile("/products/(\\d{1,18})");
+    private static final Pattern CATEGORY_ITEM = Pattern.compile("/product-category/(\\d{1,18})");
+
+    private ProductRepository productRepository;
+    private ProductCategoryRepository productCategoryRepository;
+    private ProductSearchIndex searchIndex;
+    private CategorySummaries categorySummaries;
+    private RepositoryRestConfiguration restConfiguration;
+
+    @Autowired
+    public CatalogConditionalGetFilter(ProductRepository theProductRepository,
+                                       ProductCategoryRepository theProductCategoryRepository,
+                                       ProductSearchIndex theSearchIndex,
+                                       CategorySummaries theCategorySummaries,
+                                       RepositoryRestConfiguration theRestConfiguration) {
+        productRepository = theProductRepository;
+        productCategoryRepository = theProductCategoryRepository;
+        searchIndex = theSearchIndex;
+        categorySummaries = theCategorySummaries;
+        restConfiguration = theRestConfiguration;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = resourcePath(request);
+        Validators validators = path == null || !needsValidators(request) ? null : validators(path, request);
+
+        if (validators != null
+                && new ServletWebRequest(request, response).checkNotModified(validators.etag(), validators.lastModified())) {
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    // the aggregates cost a query, only worth it to answer a conditional request or for a page
+    // HalResponseCacheFilter keeps, whose hits then answer conditional requests from the stored ETag
+    private static boolean needsValidators(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null
+                || request.getAttribute(HalResponseCacheFilter.RENDERING_ATTRIBUTE) != null;
+    }
+
+    private String resourcePath(HttpServletRequest request) {
+        String basePath = restConfiguration.getBasePath().getPath();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith(basePath + "/") ? path.substring(basePath.length()) : null;
+    }
+
+    private Validators validators(String path, HttpServletRequest request) {
+        Matcher productItem = PRODUCT_ITEM.matcher(path);
+        if (productItem.matches()) {
+            CatalogVersion version = productRepository.findVersionById(Long.valueOf(productItem.group(1)));
+            // unknown item: let Spring Data REST answer with its 404
+            return version.getCount() == 0 ? null : fromVersion(version, request);
+        }
+
+        switch (path) {
+            case "/products":
+                return fromVersion(productRepository.findVersion(), request);
+            case "/products/search/findByCategoryId", "/products/search/scrollByCategoryId": {
+                Long categoryId = longParameter(request, "id");
+                return categoryId == null ? null
+                        : fromVersion(productRepository.findVersionByCategoryId(categoryId), request);
+            }
+            case "/products/search/findByNameContaining": {
+                String name = request.getParameter("name");
+                // the search is answered from the index, which also knows what it would return
+                CatalogVersion version = searchIndex.isReady() ? searchIndex.findVersionByNameContaining(name) : null;
+                return version == null ? null : fromVersion(version, request);
+            }
+            case "/product-category":
+                return fromCategories(productCategoryRepository.findAllNames(), request);
+            default:
+                break;
+        }
+
+        Matcher categoryItem = CATEGORY_ITEM.matcher(path);
+        if (categoryItem.matches()) {
+            Long categoryId = Long.valueOf(categoryItem.group(1));
+            List<ProductCategoryName> categories = productCategoryRepository.findAllNames().stream()
+                    .filter(category -> category.getId().equals(categoryId))
+                    .toList();
+            return categories.isEmpty() ? null : fromCategories(categories, request);
+        }
+
+        return null;
+    }
+
+    private static Validators fromVersion(CatalogVersion version, HttpServletRequest request) {
+        long lastModified = version.getLastModified() == null ? -1 : version.getLastModified().getTime();
+        return new Validators(etag(request, version.getCount() + ":" + lastModified), lastModified);
+    }
+
+    private Validators fromCategories(List<ProductCategoryName> categories, HttpServletRequest request) {
+        StringBuilder state = new StringBuilder();
+        for (ProductCategoryName category : categories) {
+            state.append(category.getId()).append('=').append(category.getCategoryName()).append(';');
+        }
+        // the summary projection also carries product counts and prices
+        if ("summary".equals(request.getParameter("projection"))) {
+            state.append(categorySummaries.version());
+        }
+        return new Validators(etag(request, state.toString()), -1);
+    }
+
+    // the representation depends on the path, the query (page, size, sort, projection, fields) and Accept,
+    // which picks HAL, sparse JSON or CBOR; HalResponseCacheFilter tells its gzip bodies apart itself
+    private static String etag(HttpServletRequest request, String state) {
+        Map<String, String> parameters = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> parameters.put(name, Arrays.toString(values)));
+
+        String key = request.getRequestURI() + parameters + request.getHeader(HttpHeaders.ACCEPT) + state;
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static Long longParameter(HttpServletRequest request, String name) {
+        try {
+            String value = request.getParameter(name);
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Validators(String etag, long lastModified) {
+    }
+}
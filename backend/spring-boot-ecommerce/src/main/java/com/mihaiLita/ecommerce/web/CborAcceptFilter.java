@@ -0,0 +1,83 @@
+package com.mihaiLita.ecommerce.web;
+
+import com.mihaiLita.ecommerce.fields.SparseEncoding;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Drops {@code application/cbor} from an {@code Accept} header that prefers JSON. A {@code produces}
+ * condition matches any listed type whatever its quality, so {@code application/json, application/cbor;q=0.5}
+ * would otherwise be taken by the CBOR mapping of
+ * {@link com.mihaiLita.ecommerce.controller.SparseCatalogController} instead of Spring Data REST. Runs ahead
+ * of {@link HalResponseCacheFilter}, so the cache and the validators see the header as it is handled.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 200)
+public class CborAcceptFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept == null || !accept.toLowerCase(Locale.ROOT).contains(SparseEncoding.CBOR_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (SparseEncoding.negotiate(accept) == SparseEncoding.CBOR) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept).stream()
+                    .filter(type -> type.isWildcardSubtype() || !type.isCompatibleWith(SparseEncoding.CBOR.getMediaType()))
+                    .toList();
+        } catch (InvalidMediaTypeException e) {
+            // left to content negotiation to reject
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String withoutCbor = types.isEmpty() ? MediaType.ALL_VALUE : MediaType.toString(types);
+        filterChain.doFilter(new AcceptRequest(request, withoutCbor), response);
+    }
+
+    private static class AcceptRequest extends HttpServletRequestWrapper {
+        private final String accept;
+
+        AcceptRequest(HttpServletRequest request, String theAccept) {
+            super(request);
+            accept = theAccept;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.ACCEPT.equalsIgnoreCase(name) ? accept : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.ACCEPT.equalsIgnoreCase(name)
+                    ? Collections.enumeration(List.of(accept))
+                    : super.getHeaders(name);
+        }
+    }
+}
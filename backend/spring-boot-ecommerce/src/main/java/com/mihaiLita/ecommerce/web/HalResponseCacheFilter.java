@@ -0,0 +1,190 @@
+package com.mihaiLita.ecommerce.web;
+
+import com.mihaiLita.ecommerce.cache.HalResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serves the category product pages and the category menu from {@link HalResponseCache}. A hit is
+ * answered here, ahead of {@link CatalogConditionalGetFilter}, Spring Data REST and Hibernate; a miss
+ * is rendered as usual and its bytes stored for the next request.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 100)
+@ConditionalOnProperty(name = "ecommerce.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class HalResponseCacheFilter extends OncePerRequestFilter {
+    // set while a miss is rendered, so the response carries validators into the cache
+    public static final String RENDERING_ATTRIBUTE = HalResponseCacheFilter.class.getName() + ".RENDERING";
+
+    private static final String PRODUCTS_BY_CATEGORY = "/products/search/findByCategoryId";
+    private static final String CATEGORY_MENU = "/product-category";
+
+    private HalResponseCache responseCache;
+    private RepositoryRestConfiguration restConfiguration;
+
+    @Autowired
+    public HalResponseCacheFilter(HalResponseCache theResponseCache, RepositoryRestConfiguration theRestConfiguration) {
+        responseCache = theResponseCache;
+        restConfiguration = theRestConfiguration;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String group = group(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HalResponseCache.Key key = key(request, group);
+        HalResponseCache.CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            write(cached, request, response);
+            return;
+        }
+
+        long renderedAt = responseCache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        request.setAttribute(RENDERING_ATTRIBUTE, Boolean.TRUE);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || wrapper.getContentType() == null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        HalResponseCache.CachedResponse rendered = responseCache.put(key, renderedAt, wrapper.getContentAsByteArray(),
+                wrapper.getContentType(), wrapper.getHeader(HttpHeaders.ETAG),
+                lastModified(wrapper));
+        wrapper.resetBuffer();
+        write(rendered, request, wrapper);
+        wrapper.copyBodyToResponse();
+    }
+
+    private String group(HttpServletRequest request) {
+        String basePath = restConfiguration.getBasePath().getPath();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(basePath + "/")) {
+            return null;
+        }
+
+        path = path.substring(basePath.length());
+        if (CATEGORY_MENU.equals(path)) {
+            return HalResponseCache.MENU;
+        }
+        if (PRODUCTS_BY_CATEGORY.equals(path)) {
+            try {
+                String id = request.getParameter("id");
+                return id == null ? null : HalResponseCache.categoryGroup(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static HalResponseCache.Key key(HttpServletRequest request, String group) {
+        Map<String, String> parameters = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> parameters.put(name, Arrays.toString(values)));
+
+        String url = ServletUriComponentsBuilder.fromContextPath(request).toUriString()
+                + request.getRequestURI().substring(request.getContextPath().length()) + parameters;
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return new HalResponseCache.Key(group, url, accept == null ? "*/*" : accept);
+    }
+
+    private static void write(HalResponseCache.CachedResponse cached, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        boolean gzip = acceptsGzip(request);
+        // kept per Accept and sent per Accept-Encoding, on top of what CORS or the controller vary on
+        addVary(response, HttpHeaders.ACCEPT);
+        addVary(response, HttpHeaders.ACCEPT_ENCODING);
+
+        // the gzip body is a representation of its own and needs its own strong validator
+        String etag = cached.etag() == null || !gzip ? cached.etag() : gzipEtag(cached.etag());
+        if (etag != null) {
+            // replaces the identity ETag a miss was rendered with
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (new ServletWebRequest(request, response).checkNotModified(etag, cached.lastModified())) {
+                return;
+            }
+        }
+
+        ByteBuffer body = (gzip ? cached.gzip() : cached.identity()).duplicate();
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.remaining());
+
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        while (body.hasRemaining()) {
+            channel.write(body);
+        }
+    }
+
+    private static long lastModified(HttpServletResponse response) {
+        String lastModified = response.getHeader(HttpHeaders.LAST_MODIFIED);
+        if (lastModified == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static void addVary(HttpServletResponse response, String header) {
+        for (String vary : response.getHeaders(HttpHeaders.VARY)) {
+            for (String name : vary.split(",")) {
+                if (name.trim().equalsIgnoreCase(header) || name.trim().equals("*")) {
+                    return;
+                }
+            }
+        }
+        response.addHeader(HttpHeaders.VARY, header);
+    }
+
+    private static String gzipEtag(String etag) {
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+}
@@ -0,0 +1,213 @@
+package com.mihaiLita.ecommerce.admission;
+
+import com.mihaiLita.ecommerce.config.CorsConfig;
+import com.mihaiLita.ecommerce.jdbc.JdbcGateRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AdmissionControlTests {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String ORIGIN = "http://localhost:4200";
+
+    @Test
+    public void testLowPriorityIsShedFirst() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 100, 10);
+
+        // When - half the limit is taken by name searches
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(Priority.LOW));
+        }
+
+        // Then - more searches wait, other requests fill the rest
+        assertFalse(limit.tryAcquire(Priority.LOW));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire(Priority.NORMAL));
+        }
+        assertFalse(limit.tryAcquire(Priority.NORMAL));
+        assertTrue(limit.tryAcquire(Priority.HIGH));
+        assertFalse(limit.tryAcquire(Priority.HIGH));
+    }
+
+    @Test
+    public void testLimitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 100, 10);
+
+        // When - full windows at a steady 1 ms
+        for (int window = 0; window < 5; window++) {
+            runWindow(limit, MILLI);
+        }
+        int grown = limit.getLimit();
+
+        // Then
+        assertTrue(grown > 10, "limit " + grown);
+
+        // When - requests start queueing
+        for (int window = 0; window < 5; window++) {
+            runWindow(limit, 10 * MILLI);
+        }
+
+        // Then
+        assertTrue(limit.getLimit() < grown, "limit " + limit.getLimit());
+    }
+
+    @Test
+    public void testOverloadBacksOffAtOnce() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 10);
+        limit.tryAcquire(Priority.NORMAL);
+
+        // When
+        limit.release(MILLI, true);
+
+        // Then
+        assertEquals(18, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testUnmeasuredReleaseLeavesTheWindowAlone() {
+        // Given - a window of one, so a measured release would adjust the limit at once
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 1);
+        limit.tryAcquire(Priority.BULK);
+
+        // When - an export that ran for minutes
+        limit.releaseUnmeasured(false);
+
+        // Then
+        assertEquals(20, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testTokenBucketRefillsAtItsRate() {
+        // Given - 10 per second with a burst of 3
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+
+        // When / Then
+        assertEquals(0, bucket.tryConsume(1, now));
+        assertEquals(0, bucket.tryConsume(2, now));
+        assertEquals(100 * MILLI, bucket.tryConsume(1, now));
+        assertEquals(0, bucket.tryConsume(1, now + 100 * MILLI));
+    }
+
+    @Test
+    public void testPriorityByPath() {
+        assertEquals(Priority.HIGH, AdmissionControlFilter.priority("/countries"));
+        assertEquals(Priority.HIGH, AdmissionControlFilter.priority("/states/search/findByCountryCode"));
+        assertEquals(Priority.HIGH, AdmissionControlFilter.priority("/checkout/purchase"));
+        assertEquals(Priority.LOW, AdmissionControlFilter.priority("/products/search/findByNameContaining"));
+        assertEquals(Priority.NORMAL, AdmissionControlFilter.priority("/products/search/findByCategoryId"));
+        assertEquals(Priority.NORMAL, AdmissionControlFilter.priority("/products/1"));
+        assertEquals(Priority.BULK, AdmissionControlFilter.priority("/products/export"));
+    }
+
+    @Test
+    public void testRejectionsCarryCorsHeaders() throws Exception {
+        // Given - one request per second, the first one taken
+        MockMvc mockMvc = mockMvc(new SimpleMeterRegistry());
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(status().isOk());
+
+        // When / Then - the browser can read the 429 and its Retry-After
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN))
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testOptionsRequestsAreNotAdmitted() throws Exception {
+        // Given
+        MockMvc mockMvc = mockMvc(new SimpleMeterRegistry());
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk());
+
+        // When / Then - neither held back nor charged to the client
+        mockMvc.perform(request(HttpMethod.OPTIONS, "/api/products"))
+                .andExpect(status().isOk());
+        mockMvc.perform(request(HttpMethod.OPTIONS, "/api/products"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGateRejectionThatEscapesMvcBacksOff() {
+        // Given
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MockMvc mockMvc = mockMvc(meterRegistry);
+
+        // When - nothing maps the rejection to a 503 on the way out
+        assertThrows(ServletException.class, () -> mockMvc.perform(get("/api/products/full")));
+
+        // Then
+        assertEquals(18, meterRegistry.get("catalog.admission.limit").gauge().value());
+        assertEquals(0, meterRegistry.get("catalog.admission.in-flight").gauge().value());
+    }
+
+    // the CORS filter in front of admission, as the application orders them
+    private static MockMvc mockMvc(MeterRegistry meterRegistry) {
+        RepositoryRestConfiguration restConfiguration = mock(RepositoryRestConfiguration.class);
+        when(restConfiguration.getBasePath()).thenReturn(URI.create("/api"));
+        AdmissionControlFilter admission = new AdmissionControlFilter(restConfiguration, 20, 4, 200, 50, 1, 1,
+                Duration.ofMinutes(10), meterRegistry);
+
+        return MockMvcBuilders.standaloneSetup(new Products())
+                .addFilters(new CorsConfig().catalogCorsFilter("/api", List.of(ORIGIN)).getFilter(), admission)
+                .build();
+    }
+
+    // fills the limit and completes every request with the same latency
+    private static void runWindow(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+        int admitted = 0;
+        while (limit.tryAcquire(Priority.HIGH)) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(latencyNanos, false);
+        }
+    }
+
+    @RestController
+    static class Products {
+
+        @RequestMapping(value = "/api/products", method = {RequestMethod.GET, RequestMethod.OPTIONS})
+        public String findAll() {
+            return "{}";
+        }
+
+        @GetMapping("/api/products/full")
+        public String full() {
+            throw new DataAccessResourceFailureException("Gate full", new JdbcGateRejectedException("full"));
+        }
+    }
+}
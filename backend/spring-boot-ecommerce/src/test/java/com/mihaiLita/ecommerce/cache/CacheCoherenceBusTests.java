@@ -0,0 +1,142 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.mihaiLita.ecommerce.config.CatalogCacheConfig;
+import com.mihaiLita.ecommerce.events.ChangeEvent;
+import com.mihaiLita.ecommerce.events.ProductChanged;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CacheCoherenceBusTests {
+    private static final Object PRODUCT_KEY = CatalogCacheConfig.key("findById", 7L);
+    private static final HalResponseCache.Key CATEGORY_PAGE =
+            new HalResponseCache.Key(HalResponseCache.categoryGroup(1L), "/api/products/search/findByCategoryId?id=1",
+                    "application/hal+json");
+
+    private final LoopbackInvalidationTransport.Network network = new LoopbackInvalidationTransport.Network();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        nodes.forEach(node -> node.bus.stop());
+    }
+
+    @Test
+    public void testProductChangeEvictsOtherNodes() {
+        // Given - both nodes have the product and its category page cached
+        Node first = node(new LoopbackInvalidationTransport(network), Duration.ofMinutes(1));
+        Node second = node(new LoopbackInvalidationTransport(network), Duration.ofMinutes(1));
+        first.cacheProduct();
+        second.cacheProduct();
+
+        // When - the product is changed through the first node
+        first.bus.onEvents(List.of(productChanged()));
+
+        // Then - the second node drops it, the first keeps what its own listeners handle
+        assertNull(second.cachedProduct());
+        assertNull(second.responseCache.get(CATEGORY_PAGE));
+        assertNotNull(first.cachedProduct());
+        assertEquals(1, second.meterRegistry.get("catalog.cache.coherence.latency").timer().count());
+    }
+
+    @Test
+    public void testFailedSendIsRetried() {
+        // Given - a transport that fails once
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        Node first = node(new LoopbackInvalidationTransport(network) {
+            @Override
+            public void send(List<CacheInvalidation> invalidations) {
+                if (failNext.getAndSet(false)) {
+                    throw new IllegalStateException("Connection refused");
+                }
+                super.send(invalidations);
+            }
+        }, Duration.ofMinutes(1));
+        Node second = node(new LoopbackInvalidationTransport(network), Duration.ofMinutes(1));
+        second.cacheProduct();
+
+        // When
+        first.bus.onEvents(List.of(productChanged()));
+        assertNotNull(second.cachedProduct());
+        first.bus.onEvents(List.of());
+
+        // Then
+        assertNull(second.cachedProduct());
+        assertEquals(1, first.meterRegistry.get("catalog.cache.coherence.send.failures").counter().count());
+    }
+
+    @Test
+    public void testLaggingTransportClearsLocalCaches() throws InterruptedException {
+        // Given - a transport that has not delivered anything for a long time
+        Node node = node(new LoopbackInvalidationTransport(network) {
+            @Override
+            public long deliveredUpTo() {
+                return 0;
+            }
+        }, Duration.ofMillis(20));
+
+        // When
+        node.cacheProduct();
+
+        // Then
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (node.cachedProduct() != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNull(node.cachedProduct());
+    }
+
+    private Node node(InvalidationTransport transport, Duration maxStaleness) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CatalogCacheConfig.PRODUCTS,
+                CatalogCacheConfig.PRODUCT_PAGES);
+        HalResponseCache responseCache = new HalResponseCache(DataSize.ofMegabytes(1),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("halResponseCache", responseCache);
+        CatalogCacheInvalidator invalidator = new CatalogCacheInvalidator(cacheManager,
+                beans.getBeanProvider(HalResponseCache.class), beans.getBeanProvider(EntityManagerFactory.class));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheCoherenceBus bus = new CacheCoherenceBus(transport, invalidator,
+                beans.getBeanProvider(HalResponseCache.class), maxStaleness, Duration.ofMillis(10), meterRegistry);
+        bus.start();
+
+        Node node = new Node(cacheManager, responseCache, bus, meterRegistry);
+        nodes.add(node);
+        return node;
+    }
+
+    private static ChangeEvent productChanged() {
+        return new ProductChanged(1, ChangeEvent.Operation.UPDATED, 7L, 1L, null, Instant.now());
+    }
+
+    private record Node(CaffeineCacheManager cacheManager, HalResponseCache responseCache, CacheCoherenceBus bus,
+                        SimpleMeterRegistry meterRegistry) {
+
+        void cacheProduct() {
+            cacheManager.getCache(CatalogCacheConfig.PRODUCTS).put(PRODUCT_KEY, "product 7");
+            responseCache.put(CATEGORY_PAGE, responseCache.generation(),
+                    "{}".getBytes(StandardCharsets.UTF_8), "application/hal+json", null, -1);
+        }
+
+        Object cachedProduct() {
+            return cacheManager.getCache(CatalogCacheConfig.PRODUCTS).get(PRODUCT_KEY);
+        }
+    }
+}
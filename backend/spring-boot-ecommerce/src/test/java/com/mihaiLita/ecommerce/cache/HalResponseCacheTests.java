@@ -0,0 +1,83 @@
+package com.mihaiLita.ecommerce.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class HalResponseCacheTests {
+    private static final byte[] BODY = "{\"_embedded\":{\"products\":[]}}".getBytes(StandardCharsets.UTF_8);
+
+    private HalResponseCache responseCache;
+
+    @BeforeEach
+    public void setup() {
+        responseCache = new HalResponseCache(DataSize.ofMegabytes(1),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    public void testStoresIdentityAndGzipBytes() throws IOException {
+        HalResponseCache.Key key = key(HalResponseCache.categoryGroup(1L), "page=0");
+        responseCache.put(key, responseCache.generation(), BODY, "application/hal+json", "\"abc\"", -1);
+
+        HalResponseCache.CachedResponse cached = responseCache.get(key);
+
+        assertNotNull(cached);
+        assertArrayEquals(BODY, bytes(cached.identity()));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes(cached.gzip())))) {
+            assertArrayEquals(BODY, in.readAllBytes());
+        }
+        assertEquals("\"abc\"", cached.etag());
+    }
+
+    @Test
+    public void testEvictCategoryOnlyDropsThatCategory() {
+        HalResponseCache.Key books = key(HalResponseCache.categoryGroup(1L), "page=0");
+        HalResponseCache.Key mugs = key(HalResponseCache.categoryGroup(2L), "page=0");
+        HalResponseCache.Key menu = key(HalResponseCache.MENU, "");
+        responseCache.put(books, responseCache.generation(), BODY, "application/hal+json", null, -1);
+        responseCache.put(mugs, responseCache.generation(), BODY, "application/hal+json", null, -1);
+        responseCache.put(menu, responseCache.generation(), BODY, "application/hal+json", null, -1);
+
+        responseCache.evictCategory(1L);
+
+        assertNull(responseCache.get(books));
+        assertNotNull(responseCache.get(mugs));
+        assertNotNull(responseCache.get(menu));
+    }
+
+    @Test
+    public void testResponseRenderedAcrossAnEvictionIsNotStored() {
+        HalResponseCache.Key key = key(HalResponseCache.categoryGroup(1L), "page=0");
+        long renderedAt = responseCache.generation();
+
+        responseCache.evictCategory(1L);
+        responseCache.put(key, renderedAt, BODY, "application/hal+json", null, -1);
+
+        assertNull(responseCache.get(key));
+    }
+
+    private static HalResponseCache.Key key(String group, String query) {
+        return new HalResponseCache.Key(group, "http://localhost:8080/api/products?" + query, "*/*");
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        ByteBuffer copy = buffer.duplicate();
+        byte[] bytes = new byte[copy.remaining()];
+        copy.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,130 @@
+package com.mihaiLita.ecommerce.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The transport against the {@code cache_invalidation} table of the test database. Polls run on the test
+ * thread, inside its transaction; the poller thread is started with an interval long enough never to run.
+ * Racing inserts are played by inserting ids out of order. Auto-increment ids may leave gaps of their own
+ * (rolled back inserts of earlier tests), so only the explicit ids are checked for delivery.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class JdbcInvalidationTransportTests {
+    private static final Duration NEVER = Duration.ofHours(1);
+    private static final int BATCH_SIZE = 2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<CacheInvalidation> received = new ArrayList<>();
+    private JdbcInvalidationTransport transport;
+    private long newest;
+
+    @BeforeEach
+    public void setup() {
+        Long max = jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class);
+        newest = max == null ? 0 : max;
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transport.stop();
+    }
+
+    @Test
+    public void testOtherNodesInvalidationsAreReceived() {
+        // Given
+        start(NEVER);
+        JdbcInvalidationTransport other = new JdbcInvalidationTransport(jdbcTemplate, NEVER, BATCH_SIZE, NEVER, NEVER);
+
+        // When - more rows than one batch, one of them the node's own
+        other.send(List.of(product("other", 1L), product("other", 2L), product("other", 3L)));
+        transport.send(List.of(product("node", 4L)));
+        transport.poll();
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), received.stream().map(CacheInvalidation::entityId).toList());
+    }
+
+    @Test
+    public void testLowerIdIsWaitedFor() {
+        // Given - the higher of two racing ids commits first
+        start(NEVER);
+        long started = transport.deliveredUpTo();
+        insert(newest + 2, 2L);
+        tick();
+        transport.poll();
+        assertEquals(1, received.size());
+        assertEquals(started, transport.deliveredUpTo());
+
+        // When - the lower one commits
+        insert(newest + 1, 1L);
+        long beforePoll = tick();
+        transport.poll();
+
+        // Then - delivered, and everything up to this poll is
+        assertEquals(List.of(2L, 1L), received.stream().map(CacheInvalidation::entityId).toList());
+        assertTrue(transport.deliveredUpTo() >= beforePoll);
+    }
+
+    @Test
+    public void testGapIsSkippedAfterTheTimeout() {
+        // Given - an id that was never committed below one that was
+        start(Duration.ZERO);
+        long started = transport.deliveredUpTo();
+        insert(newest + 2, 2L);
+        tick();
+        transport.poll();
+        assertEquals(started, transport.deliveredUpTo());
+
+        // When - polled again once the gap timeout has passed
+        long beforePoll = tick();
+        transport.poll();
+
+        // Then - the gap is given up on and later rows are delivered as usual
+        assertTrue(transport.deliveredUpTo() >= beforePoll);
+        insert(newest + 3, 3L);
+        beforePoll = tick();
+        transport.poll();
+        assertEquals(List.of(2L, 3L), received.stream().map(CacheInvalidation::entityId).toList());
+        assertTrue(transport.deliveredUpTo() >= beforePoll);
+    }
+
+    private void start(Duration gapTimeout) {
+        transport = new JdbcInvalidationTransport(jdbcTemplate, NEVER, BATCH_SIZE, gapTimeout, NEVER);
+        transport.start("node", received::addAll);
+    }
+
+    private void insert(long id, Long productId) {
+        jdbcTemplate.update("insert into cache_invalidation (id, origin, kind, entity_id, sent_at) values (?, ?, ?, ?, ?)",
+                id, "other", CacheInvalidation.Kind.PRODUCT.name(), productId, System.currentTimeMillis());
+    }
+
+    private static CacheInvalidation product(String origin, Long productId) {
+        return new CacheInvalidation(origin, CacheInvalidation.Kind.PRODUCT, productId, 1L, null,
+                System.currentTimeMillis());
+    }
+
+    // waits for the wall clock to move on, so a poll's time is after every time taken before it
+    private static long tick() {
+        long now = System.currentTimeMillis();
+        while (System.currentTimeMillis() == now) {
+            Thread.onSpinWait();
+        }
+        return System.currentTimeMillis();
+    }
+}
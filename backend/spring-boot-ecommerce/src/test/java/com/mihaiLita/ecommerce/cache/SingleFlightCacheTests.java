@@ -0,0 +1,189 @@
+package com.mihaiLita.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightCacheTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        // Given - a slow load for a key that eight callers ask for at once
+        SingleFlightCache cache = cache(Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> cache.get("page-0", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "products";
+            })));
+        }
+        while (count("collapsed") < 7) {
+            Thread.sleep(1);
+        }
+
+        // When
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertEquals("products", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, count("executed"));
+        assertEquals(7, count("collapsed"));
+    }
+
+    @Test
+    public void testFailedLoadServesStaleValue() {
+        // Given - a value that was evicted and a database that is down
+        SingleFlightCache cache = cache(Duration.ofMinutes(1));
+        cache.get("page-0", () -> "products");
+        cache.clear();
+
+        // When
+        String value = cache.get("page-0", () -> {
+            throw new DataAccessResourceFailureException("Communications link failure");
+        });
+
+        // Then - the stale value is served but not cached as fresh
+        assertEquals("products", value);
+        assertEquals(1, count("stale_error"));
+        assertEquals("reloaded", cache.get("page-0", () -> "reloaded"));
+    }
+
+    @Test
+    public void testSlowLoadServesStaleValueToWaiters() throws Exception {
+        // Given - an evicted value whose reload is stuck
+        SingleFlightCache cache = cache(Duration.ofMillis(20));
+        cache.get("page-0", () -> "products");
+        cache.evict("page-0");
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> cache.get("page-0", () -> {
+            loading.countDown();
+            release.await();
+            return "reloaded";
+        }));
+        loading.await();
+
+        // When
+        String waiter = cache.get("page-0", () -> "not called");
+
+        // Then - the waiter gets the old value, the leader the new one
+        assertEquals("products", waiter);
+        assertEquals(1, count("stale_slow"));
+        release.countDown();
+        assertEquals("reloaded", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("reloaded", cache.get("page-0", () -> "not called"));
+    }
+
+    @Test
+    public void testFailedLoadWithoutStaleValueFails() {
+        // Given
+        SingleFlightCache cache = cache(Duration.ofMinutes(1));
+
+        // When / Then
+        Cache.ValueRetrievalException e = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("page-0", () -> {
+                    throw new DataAccessResourceFailureException("Communications link failure");
+                }));
+        assertEquals(DataAccessResourceFailureException.class, e.getCause().getClass());
+    }
+
+    @Test
+    public void testWaiterWithoutStaleValueTimesOut() throws Exception {
+        // Given - a load that never finishes and nothing stale to fall back on
+        SingleFlightCache cache = cache(Duration.ofMillis(10), Duration.ofMillis(50));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> cache.get("page-0", () -> {
+            loading.countDown();
+            release.await();
+            return "products";
+        }));
+        loading.await();
+
+        // When / Then
+        Cache.ValueRetrievalException e = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("page-0", () -> "not called"));
+        assertEquals(TimeoutException.class, e.getCause().getClass());
+        assertEquals(1, count("timeout"));
+        release.countDown();
+        assertEquals("products", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEveryCallerGetsItsOwnProducts() {
+        // Given
+        SingleFlightCache cache = cache(Duration.ofMinutes(1));
+        ProductCategory books = new ProductCategory();
+        books.setId(1L);
+        books.setCategoryName("Books");
+        Product product = new Product();
+        product.setId(7L);
+        product.setName("Crash Course in Python");
+        product.setCategory(books);
+        cache.get("page-0", () -> new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1));
+
+        // When - one caller changes what it got
+        Page<?> first = cache.get("page-0", () -> null);
+        ((Product) first.getContent().get(0)).setName("changed");
+
+        // Then - the next caller does not see it, nor the instance the loader returned
+        Page<?> second = cache.get("page-0", () -> null);
+        Product cached = (Product) second.getContent().get(0);
+        assertEquals("Crash Course in Python", cached.getName());
+        assertEquals("Books", cached.getCategory().getCategoryName());
+        assertEquals(1, second.getTotalElements());
+        assertNotSame(product, cached);
+        assertNotSame(first.getContent().get(0), cached);
+    }
+
+    private SingleFlightCache cache(Duration staleWait) {
+        return cache(staleWait, Duration.ofSeconds(10));
+    }
+
+    private SingleFlightCache cache(Duration staleWait, Duration loadTimeout) {
+        return new SingleFlightCache("productPages", Caffeine.newBuilder().build(), Caffeine.newBuilder().build(),
+                true, staleWait, loadTimeout, meterRegistry);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("catalog.cache.flights").tag("outcome", outcome).counter().count();
+    }
+}
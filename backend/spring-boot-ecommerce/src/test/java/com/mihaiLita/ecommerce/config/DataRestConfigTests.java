@@ -0,0 +1,28 @@
+package com.mihaiLita.ecommerce.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class DataRestConfigTests {
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void domainTypesListEveryEntity() {
+        List<Class<?>> entities = entityManager.getMetamodel().getEntities().stream()
+                .<Class<?>>map(EntityType::getJavaType)
+                .toList();
+
+        assertThat(DataRestConfig.DOMAIN_TYPES).containsExactlyInAnyOrderElementsOf(entities);
+    }
+}
@@ -0,0 +1,159 @@
+package com.mihaiLita.ecommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig(SecurityConfigTests.Config.class)
+@TestPropertySource(properties = "spring.data.rest.base-path=/api")
+public class SecurityConfigTests {
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    public void testAdminEndpointsNeedCredentials() throws Exception {
+        mockMvc.perform(post("/api/admin/reference-data/reload"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().exists("WWW-Authenticate"));
+        mockMvc.perform(post("/api/admin/reference-data/reload").with(httpBasic("shopper", "shopper")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testProductImportNeedsTheAdmin() throws Exception {
+        mockMvc.perform(post("/api/products/import"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/products/import").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testProductExportNeedsTheAdmin() throws Exception {
+        mockMvc.perform(get("/api/products/export"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/products/export").with(httpBasic("shopper", "shopper")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/products/export").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testAdminEndpointsAcceptTheAdmin() throws Exception {
+        mockMvc.perform(post("/api/admin/reference-data/reload").with(httpBasic("admin", "secret")))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testActuatorNeedsTheAdminExceptForHealth() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/actuator/caches").with(httpBasic("shopper", "shopper")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/caches").with(httpBasic("admin", "secret")))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testStorefrontStaysOpenAndCacheable() throws Exception {
+        // a POST without a CSRF token, as the checkout sends it
+        mockMvc.perform(post("/api/checkout/purchase"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Cache-Control"))
+                .andExpect(header().doesNotExist("Set-Cookie"));
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    @Import({SecurityConfig.class, Endpoints.class})
+    static class Config {
+
+        @Bean
+        public UserDetailsService users() {
+            return new InMemoryUserDetailsManager(
+                    User.withUsername("admin").password("{noop}secret").roles(SecurityConfig.ADMIN).build(),
+                    User.withUsername("shopper").password("{noop}shopper").roles("USER").build());
+        }
+    }
+
+    @RestController
+    static class Endpoints {
+
+        @PostMapping("/api/admin/reference-data/reload")
+        public ResponseEntity<Void> reload() {
+            return ResponseEntity.noContent().build();
+        }
+
+        @PostMapping("/api/products/import")
+        public String importProducts() {
+            return "{}";
+        }
+
+        @GetMapping("/api/products/export")
+        public String exportProducts() {
+            return "";
+        }
+
+        @PostMapping("/api/checkout/purchase")
+        public String purchase() {
+            return "ok";
+        }
+
+        @GetMapping("/api/products")
+        public String products() {
+            return "[]";
+        }
+
+        @GetMapping("/actuator/health")
+        public String health() {
+            return "{\"status\":\"UP\"}";
+        }
+
+        @GetMapping("/actuator/prometheus")
+        public String prometheus() {
+            return "";
+        }
+
+        @DeleteMapping("/actuator/caches")
+        public ResponseEntity<Void> clearCaches() {
+            return ResponseEntity.noContent().build();
+        }
+    }
+}
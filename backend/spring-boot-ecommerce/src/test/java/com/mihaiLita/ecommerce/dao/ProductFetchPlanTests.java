@@ -0,0 +1,87 @@
+package com.mihaiLita.ecommerce.dao;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class ProductFetchPlanTests {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ProductCategory category;
+
+    @BeforeEach
+    public void setup() {
+        productRepository.deleteAll();
+        productCategoryRepository.deleteAll();
+
+        category = new ProductCategory();
+        category.setCategoryName("Electronics");
+        category = productCategoryRepository.save(category);
+
+        for (int i = 0; i < 30; i++) {
+            Product product = new Product();
+            product.setSku("SKU-" + i);
+            product.setName("Product " + i);
+            product.setDescription("Product description " + i);
+            product.setUnitPrice(new BigDecimal("19.99"));
+            product.setImageUrl("product-" + i + ".png");
+            product.setActive(true);
+            product.setUnitsInStock(10);
+            product.setCategory(category);
+            productRepository.save(product);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testFindByCategoryIdStatementCountIsConstant() {
+        // When
+        long statementsForSmallPage = statementsForPage(5);
+        long statementsForMediumPage = statementsForPage(10);
+        long statementsForLargePage = statementsForPage(20);
+
+        // Then - one select with the category joined in, plus the count query
+        assertEquals(2, statementsForSmallPage, "Page of 5 should need a select and a count");
+        assertEquals(statementsForSmallPage, statementsForMediumPage, "Statement count should not grow with page size");
+        assertEquals(statementsForSmallPage, statementsForLargePage, "Statement count should not grow with page size");
+    }
+
+    private long statementsForPage(int size) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<Product> page = productRepository.findByCategoryId(category.getId(), PageRequest.of(0, size));
+
+        // touching the category must not trigger a select per product
+        assertEquals(size, page.getContent().size());
+        assertTrue(page.getContent().stream().allMatch(p -> "Electronics".equals(p.getCategory().getCategoryName())));
+
+        return statistics.getPrepareStatementCount();
+    }
+}
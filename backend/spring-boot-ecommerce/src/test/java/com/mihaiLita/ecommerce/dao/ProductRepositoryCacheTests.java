@@ -0,0 +1,105 @@
+package com.mihaiLita.ecommerce.dao;
+
+import com.mihaiLita.ecommerce.config.CatalogCacheConfig;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@ActiveProfiles("test")
+@Import(CatalogCacheConfig.class)
+public class ProductRepositoryCacheTests {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ProductCategory books;
+    private Product product;
+
+    @BeforeEach
+    public void setup() {
+        productRepository.deleteAllInBatch();
+        productCategoryRepository.deleteAllInBatch();
+
+        books = new ProductCategory();
+        books.setCategoryName("Books");
+        books = productCategoryRepository.save(books);
+
+        product = new Product();
+        product.setSku("BOOK-TECH-1000");
+        product.setName("Crash Course in Python");
+        product.setDescription("Learn Python at your own pace");
+        product.setUnitPrice(new BigDecimal("14.99"));
+        product.setImageUrl("assets/images/products/books/book-luv2code-1000.png");
+        product.setActive(true);
+        product.setUnitsInStock(100);
+        product.setCategory(books);
+        product = productRepository.save(product);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testFindByIdIsReadOnce() {
+        // Given
+        Statistics statistics = statistics();
+
+        // When
+        Product first = productRepository.findById(product.getId()).orElseThrow();
+        Product second = productRepository.findById(product.getId()).orElseThrow();
+
+        // Then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("Crash Course in Python", second.getName());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testCachedProductsAreNotShared() {
+        // Given
+        Page<Product> first = productRepository.findByCategoryId(books.getId(), PageRequest.of(0, 20));
+
+        // When - a caller changes what it got, and its persistence context goes away
+        first.getContent().get(0).setName("changed");
+        entityManager.clear();
+
+        // Then - the next caller gets the cached state as its own detached instance, category included
+        Page<Product> second = productRepository.findByCategoryId(books.getId(), PageRequest.of(0, 20));
+        Product cached = second.getContent().get(0);
+        assertEquals("Crash Course in Python", cached.getName());
+        assertEquals("Books", cached.getCategory().getCategoryName());
+        assertFalse(entityManager.contains(cached));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
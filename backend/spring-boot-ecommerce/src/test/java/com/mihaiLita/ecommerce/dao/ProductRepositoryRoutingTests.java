@@ -0,0 +1,124 @@
+package com.mihaiLita.ecommerce.dao;
+
+import com.mihaiLita.ecommerce.config.ReplicaRoutingConfig;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing through the real repositories, with the test database standing in for its own replica. The
+ * replica pool is read-only, so a write routed there would fail. Each repository call runs in its own
+ * transaction, as it does from a controller.
+ */
+@DataJpaTest(properties = {
+        "ecommerce.datasource.replicas.enabled=true",
+        "ecommerce.datasource.replicas.urls=${spring.datasource.url}",
+        "ecommerce.datasource.replicas.lag-query="
+})
+@ActiveProfiles("test")
+@Import({ReplicaRoutingConfig.class, ProductRepositoryRoutingTests.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductRepositoryRoutingTests {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Product product;
+
+    @BeforeEach
+    public void setup() {
+        ProductCategory category = new ProductCategory();
+        category.setCategoryName("Routing Books");
+        category = productCategoryRepository.save(category);
+
+        product = new Product();
+        product.setSku("ROUTING-BOOK-001");
+        product.setName("Java Programming Book");
+        product.setUnitPrice(new BigDecimal("49.99"));
+        product.setActive(true);
+        product.setUnitsInStock(25);
+        product.setCategory(category);
+        product = productRepository.save(product);
+    }
+
+    // the test database is shared and nothing here rolls back, so leave only what was there before
+    @AfterEach
+    public void cleanup() {
+        productRepository.deleteById(product.getId());
+        productCategoryRepository.deleteById(product.getCategory().getId());
+    }
+
+    @Test
+    public void testRepositoryReadsGoToTheReplica() {
+        // Given
+        double primary = connections("primary");
+        double replica = connections("replica-1");
+
+        // When
+        productRepository.findByNameContaining("Java", PageRequest.of(0, 10));
+        productRepository.findByCategoryId(product.getCategory().getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(primary, connections("primary"));
+        assertTrue(connections("replica-1") >= replica + 2);
+    }
+
+    @Test
+    public void testStockUpdatesStayOnThePrimary() {
+        // Given
+        double primary = connections("primary");
+        double replica = connections("replica-1");
+
+        // When
+        int reserved = productRepository.reserveStock(product.getId(), 5);
+        int released = productRepository.releaseStock(product.getId(), 2);
+
+        // Then
+        assertEquals(1, reserved);
+        assertEquals(1, released);
+        assertEquals(replica, connections("replica-1"));
+        assertTrue(connections("primary") >= primary + 2);
+        assertEquals(22, jdbcTemplate.queryForObject("select units_in_stock from product where id = ?",
+                Integer.class, product.getId()));
+    }
+
+    private double connections(String target) {
+        return meterRegistry.get("jdbc.routing.connections").tag("target", target).counter().count();
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
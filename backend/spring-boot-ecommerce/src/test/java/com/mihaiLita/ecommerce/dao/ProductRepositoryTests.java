@@ -7,16 +7,21 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -200,4 +205,34 @@ public class ProductRepositoryTests {
         assertEquals(7, firstPageResult.getTotalElements(), "Total elements should be 7");
         assertEquals(3, firstPageResult.getTotalPages(), "Total pages should be 3");
     }
+
+    @Test
+    public void testFindByCategoryIdKeysetScroll() {
+        // When
+        Window<Product> firstWindow = productRepository.findByCategoryIdOrderByIdAsc(
+                category1.getId(), ScrollPosition.keyset(), Limit.of(2));
+        Long lastId = firstWindow.getContent().get(1).getId();
+        Window<Product> secondWindow = productRepository.findByCategoryIdOrderByIdAsc(
+                category1.getId(), ScrollPosition.forward(Map.of("id", lastId)), Limit.of(2));
+
+        // Then
+        assertEquals(2, firstWindow.size(), "First window should have 2 products");
+        assertTrue(firstWindow.hasNext(), "First window should report more products");
+        assertEquals(1, secondWindow.size(), "Second window should have the remaining product");
+        assertFalse(secondWindow.hasNext(), "Second window should be the last one");
+        assertTrue(secondWindow.getContent().get(0).getId() > lastId,
+                "Second window should continue after the cursor");
+    }
+
+    @Test
+    public void testFindVersionByCategoryId() {
+        // When
+        CatalogVersion electronicsVersion = productRepository.findVersionByCategoryId(category1.getId());
+        CatalogVersion missingVersion = productRepository.findVersionByCategoryId(-1L);
+
+        // Then
+        assertEquals(3, electronicsVersion.getCount().longValue(), "Version should count the 3 electronics products");
+        assertTrue(electronicsVersion.getLastModified() != null, "Version should carry the newest timestamp");
+        assertEquals(0, missingVersion.getCount().longValue(), "Version of an unknown category should be empty");
+    }
 }
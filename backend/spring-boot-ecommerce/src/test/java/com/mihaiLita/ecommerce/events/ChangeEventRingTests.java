@@ -0,0 +1,110 @@
+package com.mihaiLita.ecommerce.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeEventRingTests {
+    private ChangeEventRing ring;
+
+    @AfterEach
+    public void cleanup() throws InterruptedException {
+        ring.stop();
+    }
+
+    @Test
+    public void testDeliversEveryEventInOrder() throws InterruptedException {
+        // Given
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1000);
+        ring = ring(64, events -> events.forEach(event -> {
+            received.add(event.sequence());
+            done.countDown();
+        }));
+
+        // When
+        for (long productId = 1; productId <= 1000; productId++) {
+            publish(productId);
+        }
+
+        // Then
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i + 1, received.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testFullRingDropsAfterPublishTimeout() throws InterruptedException {
+        // Given - a subscriber stuck on the first batch
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ring = ring(4, events -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // When - the event the subscriber holds keeps its slot until the batch returns
+        long[] sequences = new long[5];
+        sequences[0] = publish(1L);
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < sequences.length; i++) {
+            sequences[i] = publish(i + 1L);
+        }
+        release.countDown();
+
+        // Then
+        assertEquals(4, sequences[3]);
+        assertEquals(-1, sequences[4]);
+    }
+
+    @Test
+    public void testReadReportsEventsNoLongerHeld() throws InterruptedException {
+        // Given - each event is handed to the subscriber before the next is published
+        Semaphore delivered = new Semaphore(0);
+        ring = ring(4, events -> delivered.release(events.size()));
+        for (long productId = 1; productId <= 10; productId++) {
+            publish(productId);
+            assertTrue(delivered.tryAcquire(10, TimeUnit.SECONDS));
+        }
+
+        // When
+        List<ChangeEvent> events = ring.read(0, 100, Duration.ZERO);
+
+        // Then - only the last four are still in their slots
+        assertEquals(4, events.size());
+        assertEquals(7, events.get(0).sequence());
+        assertEquals(10, events.get(3).sequence());
+    }
+
+    private long publish(Long productId) {
+        return ring.publish(sequence -> new ProductChanged(sequence, ChangeEvent.Operation.UPDATED, productId, 1L,
+                null, Instant.now()));
+    }
+
+    private static ChangeEventRing ring(int capacity, ChangeEventSubscriber subscriber) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("subscriber", subscriber);
+        ChangeEventRing ring = new ChangeEventRing(capacity, 16, Duration.ofMillis(100),
+                beanFactory.getBeanProvider(ChangeEventSubscriber.class),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ring.start();
+        return ring;
+    }
+}
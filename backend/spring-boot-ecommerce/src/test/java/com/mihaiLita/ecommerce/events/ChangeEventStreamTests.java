@@ -0,0 +1,138 @@
+package com.mihaiLita.ecommerce.events;
+
+import com.mihaiLita.ecommerce.controller.ChangeEventController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ChangeEventStreamTests {
+    private ChangeEventRing ring;
+    private ChangeEventStream stream;
+    private MockMvc mockMvc;
+
+    @AfterEach
+    public void cleanup() throws InterruptedException {
+        stream.stop();
+        ring.stop();
+    }
+
+    @Test
+    public void testEventsReachEveryClient() throws Exception {
+        // Given
+        start(2, 16);
+        MvcResult first = open(null);
+        MvcResult second = open(null);
+
+        // When
+        publish(1L);
+        publish(2L);
+
+        // Then
+        await().atMost(Duration.ofSeconds(10)).until(() -> received(first, 2) && received(second, 2));
+        assertEquals(2, stream.clients());
+    }
+
+    @Test
+    public void testReconnectReplaysOnlyWhatWasMissed() throws Exception {
+        // Given - a client that has seen three events
+        start(2, 16);
+        MvcResult watcher = open(null);
+        publish(1L);
+        publish(2L);
+        publish(3L);
+        await().atMost(Duration.ofSeconds(10)).until(() -> received(watcher, 3));
+
+        // When - another reconnects after the first
+        MvcResult reconnected = open(1L);
+
+        // Then
+        await().atMost(Duration.ofSeconds(10)).until(() -> received(reconnected, 3));
+        assertTrue(received(reconnected, 2));
+        assertFalse(received(reconnected, 1));
+    }
+
+    @Test
+    public void testReplayLongerThanTheQueueStartsWithAReset() throws Exception {
+        // Given - twelve events seen by a client with room for all of them
+        start(2, 16);
+        MvcResult watcher = open(null);
+        for (long productId = 1; productId <= 12; productId++) {
+            publish(productId);
+        }
+        await().atMost(Duration.ofSeconds(10)).until(() -> received(watcher, 12));
+        stream.stop();
+
+        // When - a client with room for only four reconnects from the beginning
+        stream = new ChangeEventStream(ring, Duration.ofMinutes(1), 2, 4);
+        stream.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangeEventController(stream)).build();
+        // the new stream starts from the ring's last sequence, 12
+        MvcResult reconnected = open(0L);
+
+        // Then - a reset to 10 and the two newest events
+        await().atMost(Duration.ofSeconds(10)).until(() -> received(reconnected, 12));
+        String content = reconnected.getResponse().getContentAsString();
+        assertTrue(content.contains("event:reset"));
+        assertTrue(content.contains("\"skippedTo\":10"));
+        assertTrue(received(reconnected, 11));
+        assertFalse(received(reconnected, 9));
+    }
+
+    @Test
+    public void testStreamsBeyondTheLimitAreRefused() throws Exception {
+        // Given
+        start(1, 16);
+        open(null);
+
+        // When / Then
+        mockMvc.perform(get("/api/events"))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(1, stream.clients());
+    }
+
+    private void start(int maxClients, int queueSize) {
+        ring = new ChangeEventRing(64, 16, Duration.ofMillis(100),
+                new StaticListableBeanFactory().getBeanProvider(ChangeEventSubscriber.class),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ring.start();
+        stream = new ChangeEventStream(ring, Duration.ofMinutes(1), maxClients, queueSize);
+        stream.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangeEventController(stream)).build();
+    }
+
+    private MvcResult open(Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder events = get("/api/events");
+        if (lastEventId != null) {
+            events.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(events)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private void publish(Long productId) {
+        ring.publish(sequence -> new ProductChanged(sequence, ChangeEvent.Operation.UPDATED, productId, 1L,
+                null, Instant.now()));
+    }
+
+    private static boolean received(MvcResult result, long sequence) throws UnsupportedEncodingException {
+        return result.getResponse().getContentAsString().contains("id:" + sequence + "\n");
+    }
+}
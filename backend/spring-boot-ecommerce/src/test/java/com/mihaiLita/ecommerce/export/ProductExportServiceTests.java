@@ -0,0 +1,109 @@
+package com.mihaiLita.ecommerce.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An embedded H2 product table with two rows that were never updated and one that was.
+ */
+public class ProductExportServiceTests {
+    private static final Instant CREATED = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Instant UPDATED = Instant.parse("2025-03-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductExportService exportService;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("create table product (id bigint primary key, sku varchar(255), name varchar(255), "
+                + "description varchar(255), unit_price decimal(13, 2), image_url varchar(255), active bit, "
+                + "units_in_stock int, date_created timestamp, last_updated timestamp, category_id bigint)");
+        insert(1L, "Crash Course in Python", "A \"practical\", hands-on course", 1L, null);
+        insert(2L, "Coffee Mug", null, 2L, UPDATED);
+        insert(3L, "JavaScript Cookbook", null, 1L, null);
+
+        exportService = new ProductExportService(jdbcTemplate, objectMapper, 2);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.execute("drop table product");
+    }
+
+    @Test
+    public void testNdjsonStreamsEveryRowInIdOrder() throws IOException {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(ExportFormat.NDJSON, null, null, out);
+
+        // Then - more rows than the fetch size, one JSON document per line
+        List<JsonNode> products = ndjson(out);
+        assertEquals(3, rows);
+        assertEquals(List.of(1L, 2L, 3L), products.stream().map(product -> product.get("id").asLong()).toList());
+        assertEquals("19.99", products.get(0).get("unitPrice").asText());
+        assertEquals(UPDATED.toString(), products.get(1).get("lastUpdated").asText());
+        assertTrue(products.get(0).get("lastUpdated").isNull());
+    }
+
+    @Test
+    public void testSinceFallsBackToDateCreatedForRowsNeverUpdated() throws IOException {
+        // When - the updated row, and the never updated ones by their creation
+        ByteArrayOutputStream updatedOnly = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.NDJSON, null, CREATED.plusSeconds(1), updatedOnly);
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.NDJSON, null, CREATED, all);
+
+        // Then
+        assertEquals(List.of(2L), ndjson(updatedOnly).stream().map(product -> product.get("id").asLong()).toList());
+        assertEquals(3, ndjson(all).size());
+    }
+
+    @Test
+    public void testCsvQuotesFieldsAndFiltersByCategory() throws IOException {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(ExportFormat.CSV, 1L, null, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertEquals("id,sku,name,description,unitPrice,imageUrl,active,unitsInStock,dateCreated,lastUpdated,"
+                + "categoryId", lines[0]);
+        assertEquals("1,SKU-1,Crash Course in Python,\"A \"\"practical\"\", hands-on course\",19.99,"
+                + "assets/images/1.png,true,100," + CREATED + ",,1", lines[1]);
+    }
+
+    private void insert(Long id, String name, String description, Long categoryId, Instant lastUpdated) {
+        jdbcTemplate.update("insert into product values (?, ?, ?, ?, 19.99, ?, true, 100, ?, ?, ?)",
+                id, "SKU-" + id, name, description, "assets/images/" + id + ".png", Timestamp.from(CREATED),
+                lastUpdated == null ? null : Timestamp.from(lastUpdated), categoryId);
+    }
+
+    private List<JsonNode> ndjson(ByteArrayOutputStream out) throws IOException {
+        List<JsonNode> documents = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            documents.add(objectMapper.readTree(line));
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mihaiLita.ecommerce.facet;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProductFacetIndexTests {
+    private ProductFacetIndex facetIndex;
+
+    @BeforeEach
+    public void setup() {
+        facetIndex = new ProductFacetIndex(List.of(new BigDecimal("20"), new BigDecimal("10")));
+        facetIndex.rebuild(List.of(
+                product(1L, 1L, "14.99", true, 100),
+                product(2L, 1L, "9.99", true, 0),
+                product(3L, 1L, "24.99", false, 5),
+                product(4L, 2L, "18.99", true, 10),
+                product(5L, 2L, "18.99", true, 0)));
+    }
+
+    @Test
+    public void testCombinedFilters() {
+        FacetResult result = facetIndex.search(new FacetQuery(Set.of(1L, 2L), Set.of(1), true, true), 0, 10);
+
+        assertEquals(2, result.total());
+        assertEquals(List.of(1L, 4L), result.productIds());
+    }
+
+    @Test
+    public void testCountsIgnoreTheirOwnFacet() {
+        FacetResult result = facetIndex.search(new FacetQuery(Set.of(1L), Set.of(), null, true), 0, 10);
+
+        assertEquals(2, result.total());
+        // category counts as if no category were selected, still in stock only
+        assertEquals(Map.of(1L, 2, 2L, 1), result.categories());
+        // bands below 10, 10 to 20 and from 20, for in-stock products of category 1
+        assertEquals(List.of(0, 1, 1), result.priceBands().stream().map(FacetResult.PriceBand::count).toList());
+        assertEquals(new FacetResult.Flag(2, 1), result.inStock());
+        assertEquals(new FacetResult.Flag(1, 1), result.active());
+    }
+
+    @Test
+    public void testPaging() {
+        FacetQuery everything = new FacetQuery(null, null, null, null);
+
+        assertEquals(List.of(1L, 2L), facetIndex.search(everything, 0, 2).productIds());
+        assertEquals(List.of(5L), facetIndex.search(everything, 2, 2).productIds());
+        assertEquals(List.of(), facetIndex.search(everything, 3, 2).productIds());
+    }
+
+    @Test
+    public void testSortByPrice() {
+        FacetQuery cheapestFirst = new FacetQuery(null, null, null, null, FacetQuery.Order.PRICE_ASC);
+        FacetQuery dearestFirst = new FacetQuery(null, null, null, null, FacetQuery.Order.PRICE_DESC);
+
+        assertEquals(List.of(2L, 1L, 4L, 5L, 3L), facetIndex.search(cheapestFirst, 0, 10).productIds());
+        // the page starts inside the 10 to 20 band
+        assertEquals(List.of(4L, 5L), facetIndex.search(cheapestFirst, 1, 2).productIds());
+        assertEquals(List.of(3L, 5L, 4L), facetIndex.search(dearestFirst, 0, 3).productIds());
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        facetIndex.index(product(2L, 2L, "9.99", true, 3));
+        facetIndex.remove(3L);
+
+        FacetResult result = facetIndex.search(new FacetQuery(Set.of(2L), null, null, true), 0, 10);
+
+        assertEquals(List.of(2L, 4L), result.productIds());
+        assertEquals(Map.of(1L, 1, 2L, 2), result.categories());
+    }
+
+    private static Product product(Long id, Long categoryId, String price, boolean active, int unitsInStock) {
+        ProductCategory category = new ProductCategory();
+        category.setId(categoryId);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setUnitPrice(new BigDecimal(price));
+        product.setActive(active);
+        product.setUnitsInStock(unitsInStock);
+        return product;
+    }
+}
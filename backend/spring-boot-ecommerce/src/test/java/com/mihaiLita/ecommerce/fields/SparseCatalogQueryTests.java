@@ -0,0 +1,148 @@
+package com.mihaiLita.ecommerce.fields;
+
+import com.mihaiLita.ecommerce.dao.ProductCategoryRepository;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(SparseCatalogQuery.class)
+public class SparseCatalogQueryTests {
+    @Autowired
+    private SparseCatalogQuery sparseQuery;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ProductCategory books;
+
+    @BeforeEach
+    public void setup() {
+        productRepository.deleteAll();
+        productCategoryRepository.deleteAll();
+
+        books = category("Books");
+        ProductCategory mugs = category("Coffee Mugs");
+        for (int i = 0; i < 12; i++) {
+            product("Book " + i, books);
+        }
+        product("Mug", mugs);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testOnlyRequestedFieldsAreRead() {
+        // Given
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<String> fields = SparseResource.PRODUCTS.fields("id,name,unitPrice,imageUrl");
+
+        // When
+        Page<Map<String, Object>> page = sparseQuery.find(SparseResource.PRODUCTS, fields, books.getId(),
+                PageRequest.of(1, 5));
+
+        // Then - rows of the category only, and no product was materialized
+        assertEquals(5, page.getContent().size());
+        assertEquals(12, page.getTotalElements());
+        assertEquals(List.of("id", "name", "unitPrice", "imageUrl"), List.copyOf(page.getContent().get(0).keySet()));
+        assertEquals("Book 5", page.getContent().get(0).get("name"));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testCategoryIdIsReadFromTheForeignKey() {
+        // When
+        Page<Map<String, Object>> page = sparseQuery.find(SparseResource.PRODUCTS,
+                SparseResource.PRODUCTS.fields("name,categoryId"), null, PageRequest.of(0, 20));
+
+        // Then
+        assertEquals(13, page.getTotalElements());
+        assertEquals(books.getId(), page.getContent().get(0).get("categoryId"));
+    }
+
+    @Test
+    public void testUnknownFieldIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SparseResource.PRODUCTS.fields("name,category"));
+        assertThrows(IllegalArgumentException.class, () -> SparseResource.PRODUCT_CATEGORY.fields("unitPrice"));
+        assertEquals(List.of("id", "categoryName"), SparseResource.PRODUCT_CATEGORY.fields(null));
+    }
+
+    @Test
+    public void testSortByFieldName() {
+        // Given
+        Sort sort = SparseResource.PRODUCTS.sort(Sort.by(Sort.Direction.DESC, "categoryId").and(Sort.by("name")));
+
+        // When
+        Page<Map<String, Object>> page = sparseQuery.find(SparseResource.PRODUCTS,
+                SparseResource.PRODUCTS.fields("name"), null, PageRequest.of(0, 2, sort));
+
+        // Then - the mug's category was created last
+        assertEquals(Sort.by(Sort.Direction.DESC, "category.id").and(Sort.by("name")), sort);
+        assertEquals("Mug", page.getContent().get(0).get("name"));
+        assertEquals("Book 0", page.getContent().get(1).get("name"));
+    }
+
+    @Test
+    public void testUnknownSortPropertyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SparseResource.PRODUCTS.sort(Sort.by("category")));
+        assertThrows(IllegalArgumentException.class,
+                () -> SparseResource.PRODUCT_CATEGORY.sort(Sort.by("categoryName").and(Sort.by("unitPrice"))));
+        assertEquals(Sort.unsorted(), SparseResource.PRODUCTS.sort(Sort.unsorted()));
+    }
+
+    @Test
+    public void testCborOnlyWhenPreferred() {
+        assertEquals(SparseEncoding.JSON, SparseEncoding.negotiate(null));
+        assertEquals(SparseEncoding.JSON, SparseEncoding.negotiate("*/*"));
+        assertEquals(SparseEncoding.CBOR, SparseEncoding.negotiate("application/cbor"));
+        assertEquals(SparseEncoding.CBOR, SparseEncoding.negotiate("application/cbor, application/json;q=0.5"));
+        assertEquals(SparseEncoding.JSON, SparseEncoding.negotiate("application/json, application/cbor;q=0.5"));
+    }
+
+    private ProductCategory category(String name) {
+        ProductCategory category = new ProductCategory();
+        category.setCategoryName(name);
+        return productCategoryRepository.save(category);
+    }
+
+    private void product(String name, ProductCategory category) {
+        Product product = new Product();
+        product.setSku("SKU-" + name);
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setUnitPrice(new BigDecimal("19.99"));
+        product.setImageUrl("assets/images/products/" + name + ".png");
+        product.setActive(true);
+        product.setUnitsInStock(10);
+        product.setCategory(category);
+        productRepository.save(product);
+    }
+}
@@ -0,0 +1,106 @@
+package com.mihaiLita.ecommerce.image;
+
+import com.mihaiLita.ecommerce.controller.ProductImageController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ProductImageTests {
+    private static final String IMAGE = "assets/images/products/books/book-1000.png";
+
+    @TempDir
+    Path directory;
+
+    private ProductImageStore imageStore;
+    private ImageVariantPipeline variantPipeline;
+    private Path original;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        imageStore = new ProductImageStore(directory.resolve("public").toString(),
+                directory.resolve("variants").toString());
+        variantPipeline = new ImageVariantPipeline(imageStore, 1,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        original = directory.resolve("public").resolve(IMAGE);
+        Files.createDirectories(original.getParent());
+        ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        variantPipeline.stop();
+    }
+
+    @Test
+    public void testThumbnailIsScaledToItsWidth() throws Exception {
+        // Given
+        Path thumbnail = imageStore.variant(original, ImageVariant.THUMBNAIL);
+
+        // When
+        ImageVariantPipeline.write(original, thumbnail, ImageVariant.THUMBNAIL);
+
+        // Then
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertEquals(240, image.getWidth());
+        assertEquals(120, image.getHeight());
+        assertTrue(Files.size(thumbnail) < Files.size(original));
+        assertTrue(imageStore.isCurrent(original, thumbnail));
+    }
+
+    @Test
+    public void testPathsOutsideTheRootAreNotResolved() throws Exception {
+        // Given
+        Files.writeString(directory.resolve("secret.png"), "secret");
+
+        // When / Then
+        assertNotNull(imageStore.resolve("/" + IMAGE));
+        assertNull(imageStore.resolve("../secret.png"));
+        assertNull(imageStore.resolve("assets/../../secret.png"));
+        assertNull(imageStore.resolve("assets/images/products/books"));
+    }
+
+    @Test
+    public void testRangeRequestGetsThoseBytes() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ProductImageController(imageStore, variantPipeline,
+                Duration.ofDays(30), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class))).build();
+        byte[] bytes = Files.readAllBytes(original);
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/images/" + IMAGE).header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + bytes.length))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=2592000, public"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        assertArrayEquals(Arrays.copyOfRange(bytes, 10, 20), body);
+        mockMvc.perform(get("/api/images/" + IMAGE).header(HttpHeaders.RANGE, "bytes=" + bytes.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+        mockMvc.perform(get("/api/images/" + IMAGE).param("variant", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+}
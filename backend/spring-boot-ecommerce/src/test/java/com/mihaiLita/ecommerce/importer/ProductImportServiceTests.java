@@ -0,0 +1,181 @@
+package com.mihaiLita.ecommerce.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mihaiLita.ecommerce.cache.CacheCoherenceBus;
+import com.mihaiLita.ecommerce.cache.CatalogCacheInvalidator;
+import com.mihaiLita.ecommerce.export.ExportFormat;
+import com.mihaiLita.ecommerce.facet.ProductFacetIndexLoader;
+import com.mihaiLita.ecommerce.inventory.InventoryService;
+import com.mihaiLita.ecommerce.search.ProductSearchIndexLoader;
+import com.mihaiLita.ecommerce.summary.CategorySummaries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class ProductImportServiceTests {
+    private static final String HEADER = "sku,name,description,unitPrice,imageUrl,active,unitsInStock,category\n";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path rejectDirectory;
+
+    private ProductSearchIndexLoader searchIndexLoader;
+    private CatalogCacheInvalidator cacheInvalidator;
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.update("delete from order_item");
+        jdbcTemplate.update("delete from product");
+        jdbcTemplate.update("delete from product_category");
+        jdbcTemplate.update("insert into product_category (category_name) values ('Books')");
+
+        searchIndexLoader = mock(ProductSearchIndexLoader.class);
+        cacheInvalidator = mock(CatalogCacheInvalidator.class);
+        inventoryService = mock(InventoryService.class);
+    }
+
+    @Test
+    public void testRowsAreUpsertedBySkuAndBadRowsRejected() throws IOException {
+        // Given
+        ProductImportService importService = importService(500);
+        importService.importProducts(ExportFormat.CSV, csv(HEADER
+                + "BOOK-1,Crash Course in Python,,14.99,,true,100,Books\n"));
+
+        // When - the same sku with a new price, and a row in an unknown category
+        ImportReport report = importService.importProducts(ExportFormat.CSV, csv(HEADER
+                + "BOOK-1,Crash Course in Python,,12.99,,true,100,Books\n"
+                + "MUG-1,Coffee Mug,,18.99,,true,100,Mugs\n"));
+
+        // Then
+        assertEquals(2, report.rowsRead());
+        assertEquals(1, report.rowsImported());
+        assertEquals(1, report.rowsRejected());
+        assertEquals(new BigDecimal("12.99"), jdbcTemplate.queryForObject(
+                "select unit_price from product where sku = 'BOOK-1'", BigDecimal.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from product", Integer.class));
+    }
+
+    @Test
+    public void testMalformedNdjsonLineIsRejectedAndTheRestImported() throws IOException {
+        // Given - a line in the middle that is not JSON
+        String ndjson = "{\"sku\":\"BOOK-1\",\"name\":\"Crash Course in Python\",\"unitPrice\":\"14.99\",\"category\":\"Books\"}\n"
+                + "{\"sku\":\"BOOK-2\",\"name\":\n"
+                + "{\"sku\":\"BOOK-3\",\"name\":\"Become a Guru in JavaScript\",\"unitPrice\":\"20.99\",\"category\":\"Books\"}\n";
+
+        // When
+        ImportReport report = importService(1).importProducts(ExportFormat.NDJSON, csv(ndjson));
+
+        // Then
+        assertEquals(3, report.rowsRead());
+        assertEquals(2, report.rowsImported());
+        assertEquals(1, report.rowsRejected());
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from product", Integer.class));
+
+        List<String> rejected = Files.readAllLines(Path.of(report.rejectedRowsFile()));
+        assertEquals(1, rejected.size());
+        JsonNode reject = new ObjectMapper().readTree(rejected.get(0));
+        assertEquals(2, reject.get("line").asLong());
+        assertEquals("{\"sku\":\"BOOK-2\",\"name\":", reject.get("row").asText());
+    }
+
+    @Test
+    public void testImportRefreshesIndexesAndCaches() throws IOException {
+        // When
+        importService(500).importProducts(ExportFormat.CSV, csv(HEADER
+                + "BOOK-1,Crash Course in Python,,14.99,,true,100,Books\n"));
+
+        // Then
+        verify(searchIndexLoader).rebuild();
+        verify(cacheInvalidator).evictAll();
+        verify(inventoryService).invalidateAll();
+    }
+
+    @Test
+    public void testFailedImportStillRefreshesForTheRowsWritten() {
+        // Given - the first row is written on its own, then the upload breaks off
+        InputStream broken = new FailingInputStream(HEADER + "BOOK-1,Crash Course in Python,,14.99,,true,100,Books\n");
+
+        // When
+        assertThrows(IOException.class, () -> importService(1).importProducts(ExportFormat.CSV, broken));
+
+        // Then
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from product", Integer.class));
+        verify(searchIndexLoader).rebuild();
+        verify(cacheInvalidator).evictAll();
+        verify(inventoryService).invalidateAll();
+    }
+
+    @Test
+    public void testImportWithoutRowsWrittenDoesNotRefresh() throws IOException {
+        // When
+        importService(500).importProducts(ExportFormat.CSV, csv(HEADER + "MUG-1,Coffee Mug,,18.99,,true,100,Mugs\n"));
+
+        // Then
+        verify(searchIndexLoader, never()).rebuild();
+        verify(cacheInvalidator, never()).evictAll();
+    }
+
+    private ProductImportService importService(int batchSize) {
+        return new ProductImportService(jdbcTemplate, new ObjectMapper(), searchIndexLoader,
+                mock(ProductFacetIndexLoader.class), mock(CategorySummaries.class), cacheInvalidator,
+                new StaticListableBeanFactory().getBeanProvider(CacheCoherenceBus.class), inventoryService,
+                batchSize, rejectDirectory.toString());
+    }
+
+    private static InputStream csv(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // hands out its bytes in one read, then fails like a dropped connection
+    private static class FailingInputStream extends InputStream {
+        private final byte[] bytes;
+        private boolean read;
+
+        FailingInputStream(String text) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0];
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (read) {
+                throw new IOException("Connection reset");
+            }
+            read = true;
+            int count = Math.min(length, bytes.length);
+            System.arraycopy(bytes, 0, buffer, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.mihaiLita.ecommerce.inventory;
+
+import com.mihaiLita.ecommerce.cache.CatalogCacheInvalidator;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.events.ChangeEventPublisher;
+import com.mihaiLita.ecommerce.facet.ProductFacetIndex;
+import com.mihaiLita.ecommerce.search.ProductSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * An embedded H2 product table with one product in stock; the flush runs only when a test calls it.
+ */
+public class InMemoryInventoryServiceTests {
+    private static final long PRODUCT_ID = 1L;
+
+    @TempDir
+    Path journalDirectory;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CatalogCacheInvalidator cacheInvalidator;
+    private InMemoryInventoryService inventoryService;
+
+    @BeforeEach
+    public void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table product (id bigint primary key, units_in_stock int, "
+                + "last_updated timestamp, category_id bigint)");
+        jdbcTemplate.execute("create table inventory_flush (id int primary key, last_sequence bigint)");
+        jdbcTemplate.execute("create table inventory_reservation (id bigint auto_increment primary key, "
+                + "product_id bigint, delta int)");
+        jdbcTemplate.update("insert into product values (?, 200, null, 1)", PRODUCT_ID);
+        jdbcTemplate.update("insert into inventory_flush values (1, 0)");
+
+        cacheInvalidator = mock(CatalogCacheInvalidator.class);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        if (inventoryService != null) {
+            inventoryService.stop();
+        }
+        jdbcTemplate.execute("drop table product");
+        jdbcTemplate.execute("drop table inventory_flush");
+        jdbcTemplate.execute("drop table inventory_reservation");
+    }
+
+    @Test
+    public void testReservationsRacingInvalidationNeverOversell() throws Exception {
+        // Given
+        inventoryService = start();
+        int buyers = 8;
+        int attemptsPerBuyer = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(buyers + 1);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicBoolean buying = new AtomicBoolean(true);
+        AtomicInteger reserved = new AtomicInteger();
+
+        // When - an admin edit keeps dropping the counter while the buyers drain the stock
+        Future<?> invalidator = executor.submit(() -> {
+            go.await();
+            while (buying.get()) {
+                inventoryService.invalidate(PRODUCT_ID);
+            }
+            return null;
+        });
+        List<Future<?>> purchases = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            purchases.add(executor.submit(() -> {
+                go.await();
+                for (int attempt = 0; attempt < attemptsPerBuyer; attempt++) {
+                    if (inventoryService.reserve(PRODUCT_ID, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get(30, TimeUnit.SECONDS);
+        }
+        buying.set(false);
+        invalidator.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        inventoryService.flush();
+
+        // Then
+        assertEquals(200, reserved.get());
+        assertEquals(0, inventoryService.available(PRODUCT_ID));
+        assertEquals(0, stockRow());
+    }
+
+    @Test
+    public void testSeedsRacingFlushesCountEveryChangeOnce() throws Exception {
+        // Given
+        inventoryService = start();
+        int buyers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(buyers + 2);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicBoolean buying = new AtomicBoolean(true);
+        AtomicInteger reserved = new AtomicInteger();
+
+        // When - the counter is reseeded while flushes keep writing the row behind it
+        Future<?> flusher = executor.submit(() -> {
+            go.await();
+            while (buying.get()) {
+                inventoryService.flush();
+            }
+            return null;
+        });
+        Future<?> invalidator = executor.submit(() -> {
+            go.await();
+            while (buying.get()) {
+                inventoryService.invalidate(PRODUCT_ID);
+            }
+            return null;
+        });
+        List<Future<?>> purchases = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            purchases.add(executor.submit(() -> {
+                go.await();
+                for (int attempt = 0; attempt < 100; attempt++) {
+                    if (inventoryService.reserve(PRODUCT_ID, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get(30, TimeUnit.SECONDS);
+        }
+        buying.set(false);
+        flusher.get(30, TimeUnit.SECONDS);
+        invalidator.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        inventoryService.flush();
+
+        // Then
+        assertEquals(200, reserved.get());
+        inventoryService.invalidate(PRODUCT_ID);
+        assertEquals(0, inventoryService.available(PRODUCT_ID));
+        assertEquals(0, stockRow());
+    }
+
+    @Test
+    public void testReleaseAfterInvalidationIsNotLost() throws IOException {
+        // Given
+        inventoryService = start();
+        inventoryService.reserve(PRODUCT_ID, 5);
+
+        // When - the counter is dropped before the flush, then the units come back
+        inventoryService.invalidate(PRODUCT_ID);
+        inventoryService.release(PRODUCT_ID, 2);
+        inventoryService.flush();
+
+        // Then
+        assertEquals(197, inventoryService.available(PRODUCT_ID));
+        assertEquals(197, stockRow());
+    }
+
+    @Test
+    public void testFlushStampsTheRowAndEvictsTheProduct() throws IOException {
+        // Given
+        inventoryService = start();
+        inventoryService.reserve(PRODUCT_ID, 3);
+
+        // When
+        inventoryService.flush();
+
+        // Then
+        assertEquals(197, stockRow());
+        assertNotNull(jdbcTemplate.queryForObject("select last_updated from product where id = ?",
+                Timestamp.class, PRODUCT_ID));
+        verify(cacheInvalidator).evictProduct(PRODUCT_ID);
+    }
+
+    @Test
+    public void testRolledBackReservationGivesTheUnitsBack() throws IOException {
+        // Given
+        inventoryService = start();
+
+        // When - the order fails after its stock was reserved
+        transactionTemplate().executeWithoutResult(status -> {
+            inventoryService.reserve(PRODUCT_ID, 5);
+            assertEquals(195, inventoryService.available(PRODUCT_ID));
+            status.setRollbackOnly();
+        });
+        inventoryService.flush();
+
+        // Then - nothing is held and nothing would be recovered after a crash
+        assertEquals(200, inventoryService.available(PRODUCT_ID));
+        assertEquals(200, stockRow());
+        assertEquals(0, reservationRows());
+    }
+
+    @Test
+    public void testCommittedReservationIsFlushedWithItsRow() throws IOException {
+        // Given
+        inventoryService = start();
+
+        // When
+        transactionTemplate().executeWithoutResult(status -> inventoryService.reserve(PRODUCT_ID, 4));
+
+        // Then - durable with the order until the flush writes it to the product
+        assertEquals(196, inventoryService.available(PRODUCT_ID));
+        assertEquals(1, reservationRows());
+        inventoryService.flush();
+        assertEquals(196, stockRow());
+        assertEquals(0, reservationRows());
+    }
+
+    @Test
+    public void testRecoverAppliesCommittedReservations() throws IOException {
+        // Given - a crash after an order committed but before its reservation was flushed
+        jdbcTemplate.update("insert into inventory_reservation (product_id, delta) values (?, -3)", PRODUCT_ID);
+
+        // When
+        inventoryService = start();
+
+        // Then
+        assertEquals(197, stockRow());
+        assertEquals(197, inventoryService.available(PRODUCT_ID));
+        assertEquals(0, reservationRows());
+    }
+
+    @Test
+    public void testRecoverAppliesOnlyTheUnflushedJournalEntries() throws IOException {
+        // Given - a crash after the first change was flushed but before the second was
+        InventoryJournal journal = new InventoryJournal(journalDirectory, true);
+        journal.open(1);
+        journal.append(PRODUCT_ID, -3);
+        long last = journal.append(PRODUCT_ID, -2);
+        journal.sync(last);
+        journal.close();
+        jdbcTemplate.update("update product set units_in_stock = 197");
+        jdbcTemplate.update("update inventory_flush set last_sequence = 1");
+
+        // When
+        inventoryService = start();
+
+        // Then
+        assertEquals(195, stockRow());
+        assertEquals(195, inventoryService.available(PRODUCT_ID));
+        assertEquals(2, jdbcTemplate.queryForObject("select last_sequence from inventory_flush", Long.class));
+
+        // and the journal carries on past the recovered sequence
+        inventoryService.reserve(PRODUCT_ID, 1);
+        inventoryService.flush();
+        assertEquals(194, stockRow());
+        // the change took sequence 3 and the flush marks one past it
+        assertEquals(4, jdbcTemplate.queryForObject("select last_sequence from inventory_flush", Long.class));
+    }
+
+    private InMemoryInventoryService start() throws IOException {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("cacheInvalidator", cacheInvalidator);
+        InMemoryInventoryService service = new InMemoryInventoryService(jdbcTemplate,
+                transactionTemplate(),
+                beans.getBeanProvider(ProductRepository.class), beans.getBeanProvider(CatalogCacheInvalidator.class),
+                beans.getBeanProvider(ProductSearchIndex.class), beans.getBeanProvider(ProductFacetIndex.class),
+                beans.getBeanProvider(ChangeEventPublisher.class), journalDirectory.toString(), true,
+                Duration.ofHours(1));
+        service.start();
+        return service;
+    }
+
+    private TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    private int reservationRows() {
+        return jdbcTemplate.queryForObject("select count(*) from inventory_reservation", Integer.class);
+    }
+
+    private int stockRow() {
+        return jdbcTemplate.queryForObject("select units_in_stock from product where id = ?", Integer.class, PRODUCT_ID);
+    }
+}
@@ -0,0 +1,100 @@
+package com.mihaiLita.ecommerce.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class InventoryJournalTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testEntriesSurviveReopen() throws IOException {
+        // Given
+        InventoryJournal journal = new InventoryJournal(directory, true);
+        journal.open(1);
+        journal.append(7L, -2);
+        journal.roll();
+        long last = journal.append(9L, 5);
+        journal.sync(last);
+        journal.close();
+
+        // When
+        List<InventoryJournal.Entry> entries = new InventoryJournal(directory, true).readAll();
+
+        // Then
+        assertEquals(List.of(new InventoryJournal.Entry(1, 7L, -2), new InventoryJournal.Entry(2, 9L, 5)), entries);
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws IOException {
+        // Given
+        InventoryJournal journal = new InventoryJournal(directory, false);
+        journal.open(100);
+        journal.append(1L, -1);
+        journal.append(2L, -3);
+        journal.close();
+
+        // a crash half way through the second record
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(InventoryJournal.RECORD_SIZE + 10);
+        }
+
+        // When
+        List<InventoryJournal.Entry> entries = new InventoryJournal(directory, false).readAll();
+
+        // Then
+        assertEquals(List.of(new InventoryJournal.Entry(100, 1L, -1)), entries);
+    }
+
+    @Test
+    public void testCorruptRecordIsDropped() throws IOException {
+        // Given
+        InventoryJournal journal = new InventoryJournal(directory, false);
+        journal.open(1);
+        journal.append(1L, -1);
+        journal.close();
+
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 17);
+        }
+
+        // When / Then
+        assertEquals(List.of(), new InventoryJournal(directory, false).readAll());
+    }
+
+    @Test
+    public void testRollSealsOnlyNonEmptySegments() throws IOException {
+        InventoryJournal journal = new InventoryJournal(directory, false);
+        journal.open(1);
+
+        assertNull(journal.roll());
+
+        journal.append(3L, 1);
+        Path sealed = journal.roll();
+        Files.delete(sealed);
+        journal.append(3L, 1);
+        journal.close();
+
+        assertEquals(List.of(new InventoryJournal.Entry(2, 3L, 1)), new InventoryJournal(directory, false).readAll());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mihaiLita.ecommerce.jdbc;
+
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class JdbcGateExceptionHandlerTests {
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new FailingController())
+                .setControllerAdvice(new JdbcGateExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void testRejectedStatementIsServiceUnavailable() throws Exception {
+        mockMvc.perform(get("/statement"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    public void testRejectedTransactionIsServiceUnavailable() throws Exception {
+        // the rejection is three causes deep, as when a @Transactional method cannot get its connection
+        mockMvc.perform(get("/transaction"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    public void testOtherResourceFailuresStayServerErrors() throws Exception {
+        mockMvc.perform(get("/down"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist("Retry-After"));
+    }
+
+    @RestController
+    static class FailingController {
+
+        @GetMapping("/statement")
+        public void statement() {
+            throw new DataAccessResourceFailureException("Could not open connection", rejected());
+        }
+
+        @GetMapping("/transaction")
+        public void transaction() {
+            throw new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                    new PersistenceException("Unable to acquire JDBC Connection", rejected()));
+        }
+
+        @GetMapping("/down")
+        public void down() {
+            throw new DataAccessResourceFailureException("Communications link failure");
+        }
+
+        private static JdbcGateRejectedException rejected() {
+            return new JdbcGateRejectedException("Connection gate full");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mihaiLita.ecommerce.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two embedded H2 databases stand in for the primary and a replica; each knows its own name.
+ */
+public class ReplicaRoutingDataSourceTests {
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    public void setup() {
+        primary = database("primary");
+        replica = database("replica-1");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        routing.destroy();
+        primary.close();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseTheReplica() {
+        // Given
+        routing = routing("", Duration.ofSeconds(5));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        // When
+        String readOnly = transaction(true).execute(status -> name(jdbcTemplate));
+        String readWrite = transaction(false).execute(status -> name(jdbcTemplate));
+        String outsideTransaction = name(jdbcTemplate);
+
+        // Then
+        assertEquals("replica-1", readOnly);
+        assertEquals("primary", readWrite);
+        assertEquals("primary", outsideTransaction);
+    }
+
+    @Test
+    public void testLaggingReplicaFallsBackToThePrimary() {
+        // Given - the probe reports 30 seconds behind
+        routing = routing("select 30", Duration.ofSeconds(5));
+        routing.checkLag();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        // When / Then
+        assertEquals("primary", transaction(true).execute(status -> name(jdbcTemplate)));
+    }
+
+    @Test
+    public void testReplicaWithinMaxLagStaysInRotation() {
+        routing = routing("select 2", Duration.ofSeconds(5));
+        routing.checkLag();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        assertEquals("replica-1", transaction(true).execute(status -> name(jdbcTemplate)));
+    }
+
+    @Test
+    public void testLeastLoadedPicksTheReplicaWithFewestActiveConnections() throws SQLException {
+        // Given - replica-1 has a connection checked out
+        HikariDataSource busy = replica;
+        HikariDataSource idle = database("replica-2");
+        routing = new ReplicaRoutingDataSource(primary, List.of(busy, idle), ReplicaRoutingDataSource.Selection.LEAST_LOADED,
+                "", Duration.ofSeconds(5), Duration.ofHours(1), new SimpleMeterRegistry());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        try (Connection checkedOut = busy.getConnection()) {
+            // When / Then
+            assertEquals("replica-2", transaction(true).execute(status -> name(jdbcTemplate)));
+            assertEquals("replica-2", transaction(true).execute(status -> name(jdbcTemplate)));
+        }
+
+        // once it is released, the first replica is as good again and wins the tie
+        assertEquals("replica-1", transaction(true).execute(status -> name(jdbcTemplate)));
+    }
+
+    private ReplicaRoutingDataSource routing(String lagQuery, Duration maxLag) {
+        return new ReplicaRoutingDataSource(primary, List.of(replica), ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+                lagQuery, maxLag, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        // the transaction manager sees the lazy proxy, like JPA does in the application
+        TransactionTemplate template = new TransactionTemplate(
+                new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(routing)));
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private static String name(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(32))");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
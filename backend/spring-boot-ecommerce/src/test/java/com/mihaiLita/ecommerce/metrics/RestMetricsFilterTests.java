@@ -0,0 +1,132 @@
+package com.mihaiLita.ecommerce.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RestMetricsFilterTests {
+    private static final String SEARCH_PATTERN = "/api/{repository}/search/{search}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private RestMetricsFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        RepositoryRestConfiguration restConfiguration = mock(RepositoryRestConfiguration.class);
+        when(restConfiguration.getBasePath()).thenReturn(URI.create("/api"));
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RestMetricsFilter(meterRegistry, restConfiguration);
+    }
+
+    @Test
+    public void testRequestIsRecordedPerResourceWithItsSqlWork() throws ServletException, IOException {
+        // Given - a search that prepares two statements and loads three entities
+        FilterChain chain = (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, SEARCH_PATTERN);
+            SqlStatementCounter statementCounter = new SqlStatementCounter();
+            statementCounter.inspect("select p1_0.id from product p1_0");
+            statementCounter.inspect("select count(p1_0.id) from product p1_0");
+            SqlRequestCounters.entityLoaded();
+            SqlRequestCounters.entityLoaded();
+            SqlRequestCounters.entityLoaded();
+        };
+
+        // When
+        filter.doFilter(get("/api/products/search/findByNameContaining"), new MockHttpServletResponse(), chain);
+
+        // Then
+        Timer timer = meterRegistry.find("catalog.rest.requests")
+                .tags("resource", "products", "uri", "/api/products/search/{search}", "method", "GET", "status", "200")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        assertEquals(2.0, summary("catalog.rest.sql.statements", "products").totalAmount());
+        assertEquals(3.0, summary("catalog.rest.entities.loaded", "products").totalAmount());
+    }
+
+    @Test
+    public void testUnmatchedPathsShareOneSeries() throws ServletException, IOException {
+        // When - no handler matched, so the path is not trusted as a resource name
+        filter.doFilter(get("/api/no-such-thing"), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        // Then
+        assertNotNull(meterRegistry.find("catalog.rest.requests").tags("resource", "none", "uri", "none").timer());
+    }
+
+    @Test
+    public void testRequestsOutsideTheApiAreNotRecorded() throws ServletException, IOException {
+        // When
+        filter.doFilter(get("/actuator/health"), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        // Then
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    @Test
+    public void testStatementsOutsideARequestAreNotCounted() throws ServletException, IOException {
+        // Given - a statement from a background thread, before and after a request
+        SqlStatementCounter statementCounter = new SqlStatementCounter();
+        assertEquals("select 1", statementCounter.inspect("select 1"));
+        filter.doFilter(get("/api/products"), new MockHttpServletResponse(), (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/{repository}");
+            statementCounter.inspect("select p1_0.id from product p1_0");
+        });
+
+        // When
+        statementCounter.inspect("select 1");
+
+        // Then
+        assertEquals(1.0, summary("catalog.rest.sql.statements", "products").totalAmount());
+    }
+
+    @Test
+    public void testSqlWorkIsRecordedWhenTheRequestFails() {
+        // Given
+        FilterChain chain = (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/{repository}");
+            new SqlStatementCounter().inspect("select p1_0.id from product p1_0");
+            throw new ServletException("boom");
+        };
+
+        // When
+        try {
+            filter.doFilter(get("/api/products"), new MockHttpServletResponse(), chain);
+        } catch (ServletException | IOException expected) {
+        }
+
+        // Then
+        assertEquals(1.0, summary("catalog.rest.sql.statements", "products").totalAmount());
+        assertNull(meterRegistry.find("catalog.rest.requests").tags("resource", "none").timer());
+    }
+
+    private DistributionSummary summary(String name, String resource) {
+        DistributionSummary summary = meterRegistry.find(name).tags("resource", resource).summary();
+        assertNotNull(summary, name);
+        return summary;
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
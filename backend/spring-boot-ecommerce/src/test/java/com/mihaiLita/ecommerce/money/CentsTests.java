@@ -0,0 +1,41 @@
+package com.mihaiLita.ecommerce.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CentsTests {
+
+    @Test
+    public void testConvertsFromBigDecimal() {
+        assertEquals(1499, Cents.of(new BigDecimal("14.99")));
+        assertEquals(1000, Cents.of(new BigDecimal("10")));
+        assertEquals(new BigDecimal("14.99"), Cents.toBigDecimal(1499));
+    }
+
+    @Test
+    public void testFormatsTwoFractionDigits() {
+        assertEquals("14.99", Cents.toString(1499));
+        assertEquals("0.00", Cents.toString(0));
+        assertEquals("0.05", Cents.toString(5));
+        assertEquals("-0.05", Cents.toString(-5));
+        assertEquals("92233720368547758.07", Cents.toString(Long.MAX_VALUE));
+        assertEquals("-92233720368547758.08", Cents.toString(Long.MIN_VALUE));
+        assertEquals(Cents.MAX_LENGTH, Cents.toString(Long.MIN_VALUE).length());
+    }
+
+    @Test
+    public void testSerializesAsDecimalNumber() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(new Price(1499, 1000L));
+
+        assertEquals("{\"amount\":14.99,\"limit\":10.00}", json);
+    }
+
+    public record Price(@JsonSerialize(using = CentsSerializer.class) long amount,
+                        @JsonSerialize(using = CentsSerializer.class) Long limit) {
+    }
+}
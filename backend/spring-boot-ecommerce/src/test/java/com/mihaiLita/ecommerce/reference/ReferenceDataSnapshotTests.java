@@ -0,0 +1,89 @@
+package com.mihaiLita.ecommerce.reference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReferenceDataSnapshotTests {
+    private ReferenceDataSnapshot snapshot;
+
+    @BeforeEach
+    void setup() {
+        List<ReferenceDataSnapshot.CountryRow> countries = List.of(
+                new ReferenceDataSnapshot.CountryRow(1, "BR", "Brazil"),
+                new ReferenceDataSnapshot.CountryRow(2, "CA", "Canada"),
+                new ReferenceDataSnapshot.CountryRow(3, "DE", "Germany"));
+        List<ReferenceDataSnapshot.StateRow> states = List.of(
+                new ReferenceDataSnapshot.StateRow(10, "Ontario", 2),
+                new ReferenceDataSnapshot.StateRow(11, "Acre", 1),
+                new ReferenceDataSnapshot.StateRow(12, "Quebec", 2),
+                new ReferenceDataSnapshot.StateRow(13, "Nowhere", 99));
+
+        snapshot = new ReferenceDataSnapshot(countries, states);
+    }
+
+    @Test
+    void countryIndexFindsCountryByCodeIgnoringCase() {
+        assertThat(snapshot.countryIndex("CA")).isEqualTo(1);
+        assertThat(snapshot.countryIndex("ca")).isEqualTo(1);
+        assertThat(snapshot.countryName(snapshot.countryIndex("DE"))).isEqualTo("Germany");
+    }
+
+    @Test
+    void countryIndexReturnsMinusOneForUnknownOrMalformedCodes() {
+        assertThat(snapshot.countryIndex("US")).isEqualTo(-1);
+        assertThat(snapshot.countryIndex("INVALID")).isEqualTo(-1);
+        assertThat(snapshot.countryIndex("1!")).isEqualTo(-1);
+        assertThat(snapshot.countryIndex(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void statesAreGroupedByCountryInInputOrder() {
+        int canada = snapshot.countryIndex("CA");
+
+        assertThat(snapshot.statesTo(canada) - snapshot.statesFrom(canada)).isEqualTo(2);
+        assertThat(snapshot.stateName(snapshot.statesFrom(canada))).isEqualTo("Ontario");
+        assertThat(snapshot.stateName(snapshot.statesFrom(canada) + 1)).isEqualTo("Quebec");
+
+        int germany = snapshot.countryIndex("DE");
+        assertThat(snapshot.statesTo(germany)).isEqualTo(snapshot.statesFrom(germany));
+    }
+
+    @Test
+    void statesOfUnknownCountriesAreDropped() {
+        assertThat(snapshot.stateCount()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countriesDocumentIsTheFirstPageAtTheDefaultSize() {
+        Map<String, Object> document = ReferenceDataService.countriesDocument("http://localhost:8080/api", snapshot, 2);
+
+        Map<String, Object> embedded = (Map<String, Object>) document.get("_embedded");
+        assertThat((List<?>) embedded.get("countries")).hasSize(2);
+        assertThat((Map<String, Object>) document.get("page"))
+                .containsEntry("size", 2)
+                .containsEntry("totalElements", 3)
+                .containsEntry("totalPages", 2)
+                .containsEntry("number", 0);
+        assertThat((Map<String, Object>) document.get("_links"))
+                .containsOnlyKeys("first", "self", "next", "last", "profile")
+                .containsEntry("self", Map.of("href", "http://localhost:8080/api/countries?page=0&size=2"))
+                .containsEntry("last", Map.of("href", "http://localhost:8080/api/countries?page=1&size=2"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countriesDocumentFittingOnePageHasNoPagingLinks() {
+        Map<String, Object> document = ReferenceDataService.countriesDocument("http://localhost:8080/api", snapshot, 20);
+
+        assertThat((Map<String, Object>) document.get("page"))
+                .containsEntry("size", 20)
+                .containsEntry("totalPages", 1);
+        assertThat((Map<String, Object>) document.get("_links")).containsOnlyKeys("self", "profile");
+    }
+}
@@ -0,0 +1,122 @@
+package com.mihaiLita.ecommerce.search;
+
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductSearchIndexTests {
+    private ProductSearchIndex searchIndex;
+    private ProductCategory electronics;
+
+    @BeforeEach
+    public void setup() {
+        electronics = new ProductCategory();
+        electronics.setId(1L);
+        electronics.setCategoryName("Electronics");
+
+        List<Product> products = new ArrayList<>();
+        products.add(product(1L, "Laptop", "High-performance laptop", "1299.99"));
+        products.add(product(2L, "Smartphone", "Latest smartphone model", "799.99"));
+        products.add(product(3L, "Java Programming Book", "Learn Java programming", "49.99"));
+        products.add(product(4L, "Smart Watch", "Wearable technology", "299.99"));
+
+        searchIndex = new ProductSearchIndex();
+        searchIndex.rebuild(products);
+    }
+
+    @Test
+    public void testFindByNameContaining() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertTrue(searchIndex.isReady());
+        assertEquals(2, searchIndex.findByNameContaining("Smart", pageable).getTotalElements());
+        assertEquals(1, searchIndex.findByNameContaining("Laptop", pageable).getTotalElements());
+        assertEquals(1, searchIndex.findByNameContaining("Book", pageable).getTotalElements());
+        assertEquals(0, searchIndex.findByNameContaining("Tablet", pageable).getTotalElements());
+    }
+
+    @Test
+    public void testFindByNameContainingMatchesLikeSemantics() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        // infix, case-insensitive and across word boundaries, like name LIKE '%term%'
+        assertEquals("Laptop", searchIndex.findByNameContaining("top", pageable).getContent().get(0).getName());
+        assertEquals(2, searchIndex.findByNameContaining("SMART", pageable).getTotalElements());
+        assertEquals(1, searchIndex.findByNameContaining("va Prog", pageable).getTotalElements());
+        assertEquals(0, searchIndex.findByNameContaining("Java Book", pageable).getTotalElements());
+        assertEquals(4, searchIndex.findByNameContaining("", pageable).getTotalElements());
+    }
+
+    @Test
+    public void testLongTokensMatchThroughTheirGrams() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        // longer than a gram, inside a token, and grams spread over two tokens that do not form the needle
+        assertEquals("Smartphone", searchIndex.findByNameContaining("martphon", pageable).getContent().get(0).getName());
+        assertEquals(1, searchIndex.findByNameContaining("programming", pageable).getTotalElements());
+        assertEquals(0, searchIndex.findByNameContaining("bookjava", pageable).getTotalElements());
+        // descriptions are not indexed
+        assertEquals(0, searchIndex.findByNameContaining("wearable", pageable).getTotalElements());
+    }
+
+    @Test
+    public void testPaginationAndSorting() {
+        Page<Product> firstPage = searchIndex.findByNameContaining("a", PageRequest.of(0, 2, Sort.by("unitPrice")));
+        Page<Product> secondPage = searchIndex.findByNameContaining("a", PageRequest.of(1, 2, Sort.by("unitPrice")));
+
+        assertEquals(4, firstPage.getTotalElements());
+        assertEquals(2, firstPage.getTotalPages());
+        assertEquals("Java Programming Book", firstPage.getContent().get(0).getName());
+        assertEquals("Laptop", secondPage.getContent().get(1).getName());
+    }
+
+    @Test
+    public void testUnknownSortPropertyIsRejected() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("category"));
+
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.findByNameContaining("a", pageable));
+    }
+
+    @Test
+    public void testIndexUpdateAndRemove() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Product renamed = product(1L, "Notebook", "High-performance notebook", "1299.99");
+        searchIndex.index(renamed);
+        searchIndex.remove(4L);
+
+        assertEquals(0, searchIndex.findByNameContaining("Laptop", pageable).getTotalElements());
+        assertEquals(2, searchIndex.findByNameContaining("book", pageable).getTotalElements());
+        assertEquals(1, searchIndex.findByNameContaining("Smart", pageable).getTotalElements());
+        assertFalse(searchIndex.findByNameContaining("Watch", pageable).hasContent());
+        assertEquals(3, searchIndex.size());
+    }
+
+    private Product product(Long id, String name, String description, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku("SKU-" + id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setUnitPrice(new BigDecimal(price));
+        product.setImageUrl("product-" + id + ".png");
+        product.setActive(true);
+        product.setUnitsInStock(10);
+        product.setCategory(electronics);
+        return product;
+    }
+}
@@ -0,0 +1,188 @@
+package com.mihaiLita.ecommerce.service;
+
+import com.mihaiLita.ecommerce.dao.CustomerRepository;
+import com.mihaiLita.ecommerce.dao.OrderRepository;
+import com.mihaiLita.ecommerce.dao.ProductCategoryRepository;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.dto.CartItem;
+import com.mihaiLita.ecommerce.dto.CustomerDetails;
+import com.mihaiLita.ecommerce.dto.Purchase;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.entity.ProductCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CheckoutServiceContentionTests {
+    private static final int BUYERS = 1000;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductCategory category;
+    private Product product;
+
+    @BeforeEach
+    public void setup() {
+        category = new ProductCategory();
+        category.setCategoryName("Hot Items");
+        category = productCategoryRepository.save(category);
+
+        product = new Product();
+        product.setSku("HOT-SKU-1");
+        product.setName("Hot Product");
+        product.setDescription("Everybody wants one");
+        product.setUnitPrice(new BigDecimal("9.99"));
+        product.setImageUrl("hot.png");
+        product.setActive(true);
+        product.setUnitsInStock(STOCK);
+        product.setCategory(category);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        customerRepository.deleteAll();
+        productRepository.deleteById(product.getId());
+        productCategoryRepository.deleteById(category.getId());
+    }
+
+    @Test
+    public void testConcurrentBuyersNeverOversell() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Purchase purchase = purchase("buyer" + i + "@example.com", product.getId(), 1);
+            buyers.add(executor.submit(() -> {
+                start.await();
+                try {
+                    checkoutService.placeOrder(purchase);
+                    placed.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Integer unitsInStock = jdbcTemplate.queryForObject(
+                "select units_in_stock from product where id = ?", Integer.class, product.getId());
+        Integer unitsSold = jdbcTemplate.queryForObject(
+                "select coalesce(sum(quantity), 0) from order_item where product_id = ?", Integer.class, product.getId());
+
+        assertEquals(STOCK, placed.get(), "Exactly the available stock should be sold");
+        assertEquals(BUYERS - STOCK, rejected.get(), "Every other buyer should be turned away");
+        assertEquals(0, unitsInStock, "Stock should never go negative");
+        assertEquals(STOCK, unitsSold, "Order items should match the units taken from stock");
+        assertEquals(STOCK, orderRepository.count(), "Each successful buyer should have one order");
+    }
+
+    @Test
+    public void testFailedReservationRollsBackWholeCart() {
+        // Given
+        Purchase purchase = purchase("greedy@example.com", product.getId(), 1);
+        CartItem tooMany = new CartItem();
+        tooMany.setProductId(product.getId());
+        tooMany.setQuantity(STOCK);
+        purchase.getCartItems().add(tooMany);
+
+        // When / Then
+        assertThrows(InsufficientStockException.class, () -> checkoutService.placeOrder(purchase));
+        assertEquals(STOCK, productRepository.findById(product.getId()).orElseThrow().getUnitsInStock());
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    public void testFirstPurchasesWithTheSameEmailShareOneCustomer() throws Exception {
+        // Given - a new email in several carts at once, so more than one checkout tries to insert it
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> buyers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Purchase purchase = purchase("returning@example.com", product.getId(), 1);
+            buyers.add(executor.submit(() -> {
+                start.await();
+                return checkoutService.placeOrder(purchase);
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<?> buyer : buyers) {
+            buyer.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then - every order went through, all for the one customer row
+        Long customerId = customerRepository.findByEmail("returning@example.com").getId();
+        assertEquals(1, customerRepository.count());
+        assertEquals(8, orderRepository.count());
+        assertEquals(8, jdbcTemplate.queryForObject(
+                "select count(*) from orders where customer_id = ?", Integer.class, customerId));
+    }
+
+    private static Purchase purchase(String email, Long productId, int quantity) {
+        CustomerDetails customer = new CustomerDetails();
+        customer.setFirstName("Test");
+        customer.setLastName("Buyer");
+        customer.setEmail(email);
+
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+
+        Purchase purchase = new Purchase();
+        purchase.setCustomer(customer);
+        purchase.setCartItems(new ArrayList<>(List.of(item)));
+        return purchase;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mihaiLita.ecommerce.summary;
+
+import com.mihaiLita.ecommerce.cache.HalResponseCache;
+import com.mihaiLita.ecommerce.events.ChangeEvent;
+import com.mihaiLita.ecommerce.events.ProductChanged;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CategorySummariesTests {
+    private JdbcTemplate jdbcTemplate;
+    private CategorySummaries summaries;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:summaries;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("drop all objects");
+        jdbcTemplate.execute("create table product_category (id bigint primary key)");
+        jdbcTemplate.execute("create table product (id bigint primary key, category_id bigint, unit_price decimal(13,2), "
+                + "active boolean, units_in_stock int, date_created timestamp)");
+        jdbcTemplate.update("insert into product_category (id) values (1), (2), (3)");
+        insert(1, 1, "14.99", true, 100, "2026-01-01T00:00:00Z");
+        insert(2, 1, "9.99", true, 0, "2026-02-01T00:00:00Z");
+        insert(3, 1, "24.99", false, 5, "2026-03-01T00:00:00Z");
+        insert(4, 2, "18.99", true, 10, "2026-01-15T00:00:00Z");
+
+        summaries = new CategorySummaries(jdbcTemplate, new StaticListableBeanFactory().getBeanProvider(HalResponseCache.class));
+        summaries.rebuild();
+    }
+
+    @Test
+    public void testBuildsFromTheProductTable() {
+        assertEquals(new CategorySummary(3, 2, 2, 999L, 2499L, Instant.parse("2026-03-01T00:00:00Z")), summaries.get(1L));
+        assertEquals(CategorySummary.EMPTY, summaries.get(3L));
+    }
+
+    @Test
+    public void testAppliesTheCurrentRowOfAChangedProduct() {
+        // Given - a product sells out and is repriced above the range
+        jdbcTemplate.update("update product set unit_price = 29.99, units_in_stock = 0 where id = 1");
+
+        // When
+        summaries.onEvents(List.of(changed(1, 1L)));
+
+        // Then
+        assertEquals(new CategorySummary(3, 2, 1, 999L, 2999L, Instant.parse("2026-03-01T00:00:00Z")), summaries.get(1L));
+    }
+
+    @Test
+    public void testMovedAndDeletedProductsLeaveTheirCategory() {
+        // Given - the newest product moves to category 2, the cheapest is deleted
+        jdbcTemplate.update("update product set category_id = 2 where id = 3");
+        jdbcTemplate.update("delete from product where id = 2");
+
+        // When - duplicate events change nothing twice
+        summaries.onEvents(List.of(changed(3, 2L), changed(2, 1L), changed(3, 2L)));
+
+        // Then
+        assertEquals(new CategorySummary(1, 1, 1, 1499L, 1499L, Instant.parse("2026-01-01T00:00:00Z")), summaries.get(1L));
+        assertEquals(new CategorySummary(2, 1, 2, 1899L, 2499L, Instant.parse("2026-03-01T00:00:00Z")), summaries.get(2L));
+    }
+
+    @Test
+    public void testVersionMovesOnlyWhenASummaryChanges() {
+        // Given
+        long built = summaries.version();
+
+        // When - an event for a product whose row did not change
+        summaries.onEvents(List.of(changed(4, 2L)));
+
+        // Then
+        assertEquals(built, summaries.version());
+
+        // When - the product is repriced
+        jdbcTemplate.update("update product set unit_price = 19.99 where id = 4");
+        summaries.onEvents(List.of(changed(4, 2L)));
+
+        // Then
+        assertEquals(built + 1, summaries.version());
+    }
+
+    @Test
+    public void testExtremesAreRecomputedAfterProductsMoveBackAndForth() {
+        // Given - the cheapest product moves away and back, the priciest moves away
+        jdbcTemplate.update("update product set category_id = 2 where id = 2");
+        summaries.onEvents(List.of(changed(2, 2L)));
+        jdbcTemplate.update("update product set category_id = 1 where id = 2");
+        jdbcTemplate.update("update product set category_id = 3 where id = 3");
+
+        // When
+        summaries.onEvents(List.of(changed(2, 1L), changed(3, 3L)));
+
+        // Then
+        assertEquals(new CategorySummary(2, 2, 1, 999L, 1499L, Instant.parse("2026-02-01T00:00:00Z")), summaries.get(1L));
+        assertEquals(new CategorySummary(1, 1, 1, 1899L, 1899L, Instant.parse("2026-01-15T00:00:00Z")), summaries.get(2L));
+        assertEquals(new CategorySummary(1, 0, 1, 2499L, 2499L, Instant.parse("2026-03-01T00:00:00Z")), summaries.get(3L));
+    }
+
+    private void insert(long id, long categoryId, String price, boolean active, int unitsInStock, String created) {
+        jdbcTemplate.update("insert into product (id, category_id, unit_price, active, units_in_stock, date_created) "
+                        + "values (?, ?, ?, ?, ?, ?)", id, categoryId, new BigDecimal(price), active, unitsInStock,
+                Timestamp.from(Instant.parse(created)));
+    }
+
+    private static ProductChanged changed(long productId, Long categoryId) {
+        return new ProductChanged(productId, ChangeEvent.Operation.UPDATED, productId, categoryId, null, Instant.now());
+    }
+}
@@ -0,0 +1,181 @@
+package com.mihaiLita.ecommerce.web;
+
+import com.mihaiLita.ecommerce.dao.CatalogVersion;
+import com.mihaiLita.ecommerce.dao.ProductCategoryName;
+import com.mihaiLita.ecommerce.dao.ProductCategoryRepository;
+import com.mihaiLita.ecommerce.dao.ProductRepository;
+import com.mihaiLita.ecommerce.entity.Product;
+import com.mihaiLita.ecommerce.search.ProductSearchIndex;
+import com.mihaiLita.ecommerce.summary.CategorySummaries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CatalogConditionalGetFilterTests {
+    private ProductRepository productRepository;
+    private ProductCategoryRepository productCategoryRepository;
+    private ProductSearchIndex searchIndex;
+    private CategorySummaries categorySummaries;
+    private CatalogConditionalGetFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findVersionByCategoryId(1L)).thenReturn(version(4L, new Date(1_700_000_000_000L)));
+
+        RepositoryRestConfiguration restConfiguration = mock(RepositoryRestConfiguration.class);
+        when(restConfiguration.getBasePath()).thenReturn(URI.create("/api"));
+
+        productCategoryRepository = mock(ProductCategoryRepository.class);
+        when(productCategoryRepository.findAllNames()).thenReturn(List.of(category(1L, "Books")));
+
+        searchIndex = new ProductSearchIndex();
+        categorySummaries = mock(CategorySummaries.class);
+        filter = new CatalogConditionalGetFilter(productRepository, productCategoryRepository, searchIndex,
+                categorySummaries, restConfiguration);
+    }
+
+    @Test
+    public void testUnconditionalRequestSkipsTheAggregate() throws Exception {
+        // When
+        MockHttpServletResponse response = get(request("/api/products/search/findByCategoryId", "id", "1"));
+
+        // Then - rendered without a query for validators
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        verify(productRepository, never()).findVersionByCategoryId(anyLong());
+    }
+
+    @Test
+    public void testConditionalRequestIsAnsweredWithNotModified() throws Exception {
+        // Given - the ETag of a page kept by the response cache
+        MockHttpServletRequest rendering = request("/api/products/search/findByCategoryId", "id", "1");
+        rendering.setAttribute(HalResponseCacheFilter.RENDERING_ATTRIBUTE, Boolean.TRUE);
+        String etag = get(rendering).getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        // When
+        MockHttpServletRequest conditional = request("/api/products/search/findByCategoryId", "id", "1");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = get(conditional);
+
+        // Then
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    public void testSearchValidatorsComeFromTheIndex() throws Exception {
+        // Given
+        searchIndex.rebuild(List.of(product(1L, "Crash Course in Python"), product(2L, "Coffee Mug")));
+        MockHttpServletRequest first = request("/api/products/search/findByNameContaining", "name", "python");
+        first.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+        String etag = get(first).getHeader(HttpHeaders.ETAG);
+
+        // When - a product joins the results
+        searchIndex.index(product(3L, "Python Cookbook"));
+        MockHttpServletRequest second = request("/api/products/search/findByNameContaining", "name", "python");
+        second.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = get(second);
+
+        // Then - the old ETag no longer matches
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testSummaryValidatorsFollowTheSummaries() throws Exception {
+        // Given
+        when(categorySummaries.version()).thenReturn(1L);
+        MockHttpServletRequest first = request("/api/product-category", "projection", "summary");
+        first.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+        String etag = get(first).getHeader(HttpHeaders.ETAG);
+
+        // When - a product is added to the category, which leaves its name alone
+        when(categorySummaries.version()).thenReturn(2L);
+        MockHttpServletRequest second = request("/api/product-category", "projection", "summary");
+        second.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = get(second);
+
+        // Then - the old ETag no longer matches
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testIdBeyondLongPassesThrough() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/99999999999999999999");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+
+        // When
+        MockHttpServletResponse response = get(request);
+
+        // Then - left to Spring Data REST rather than failing in the filter
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        verify(productRepository, never()).findVersionById(anyLong());
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String parameter, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addParameter(parameter, value);
+        return request;
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDateCreated(new Date(1_700_000_000_000L + id));
+        return product;
+    }
+
+    private static ProductCategoryName category(Long id, String name) {
+        return new ProductCategoryName() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getCategoryName() {
+                return name;
+            }
+        };
+    }
+
+    private static CatalogVersion version(Long count, Date lastModified) {
+        return new CatalogVersion() {
+            @Override
+            public Long getCount() {
+                return count;
+            }
+
+            @Override
+            public Date getLastModified() {
+                return lastModified;
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.mihaiLita.ecommerce.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A CBOR mapping next to a JSON one for the same path, as SparseCatalogController stands next to Spring
+ * Data REST.
+ */
+public class CborAcceptFilterTests {
+    private static final String PAGE = "/api/products";
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new Products())
+                .addFilters(new CborAcceptFilter())
+                .build();
+    }
+
+    @Test
+    public void testPreferredCborIsMapped() throws Exception {
+        mockMvc.perform(get(PAGE).header(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("cbor"));
+    }
+
+    @Test
+    public void testCborBehindJsonIsNot() throws Exception {
+        mockMvc.perform(get(PAGE).header(HttpHeaders.ACCEPT, "application/json, application/cbor;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("json for application/json"));
+    }
+
+    @Test
+    public void testTieGoesToJson() throws Exception {
+        mockMvc.perform(get(PAGE).header(HttpHeaders.ACCEPT, "application/cbor;q=0.9, application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("json for application/json;q=0.9"));
+    }
+
+    @RestController
+    static class Products {
+
+        @GetMapping(value = PAGE, produces = "application/cbor")
+        public String cbor() {
+            return "cbor";
+        }
+
+        @GetMapping(value = PAGE, produces = "application/json")
+        public String json(@RequestHeader(HttpHeaders.ACCEPT) String accept) {
+            return "json for " + accept;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.mihaiLita.ecommerce.web;
+
+import com.mihaiLita.ecommerce.cache.HalResponseCache;
+import com.mihaiLita.ecommerce.config.CorsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The CORS filter from {@link CorsConfig} in front of the response cache, as the application orders them.
+ * The first request for a page renders it, later ones are answered from the cache.
+ */
+public class HalResponseCacheFilterTests {
+    private static final String ORIGIN = "http://localhost:4200";
+    private static final String PAGE = "/api/products/search/findByCategoryId";
+    private static final String ETAG = "\"v1\"";
+
+    private Products products;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        RepositoryRestConfiguration restConfiguration = mock(RepositoryRestConfiguration.class);
+        when(restConfiguration.getBasePath()).thenReturn(URI.create("/api"));
+        HalResponseCache responseCache = new HalResponseCache(DataSize.ofMegabytes(1),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        products = new Products();
+        mockMvc = MockMvcBuilders.standaloneSetup(products)
+                .addFilters(new CorsConfig().catalogCorsFilter("/api", List.of(ORIGIN)).getFilter(),
+                        new HalResponseCacheFilter(responseCache, restConfiguration))
+                .build();
+    }
+
+    @Test
+    public void testCachedResponseCarriesCorsHeaders() throws Exception {
+        // Given
+        mockMvc.perform(get(PAGE).param("id", "1").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN));
+
+        // When - the same page again, answered from the cache
+        mockMvc.perform(get(PAGE).param("id", "1").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"_embedded\":{\"products\":[]}}"))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN));
+
+        // Then
+        assertEquals(1, products.rendered.get());
+    }
+
+    @Test
+    public void testCachedResponseIsRefusedToOtherOrigins() throws Exception {
+        // Given
+        mockMvc.perform(get(PAGE).param("id", "1"))
+                .andExpect(status().isOk());
+
+        // When / Then
+        mockMvc.perform(get(PAGE).param("id", "1").header(HttpHeaders.ORIGIN, "http://evil.example"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testPreflightIsAnsweredBeforeTheCache() throws Exception {
+        mockMvc.perform(options(PAGE)
+                        .param("id", "1")
+                        .header(HttpHeaders.ORIGIN, ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN));
+        assertEquals(0, products.rendered.get());
+    }
+
+    @Test
+    public void testVaryIsAddedToWhatCorsSets() throws Exception {
+        // Given
+        mockMvc.perform(get(PAGE).param("id", "1").header(HttpHeaders.ORIGIN, ORIGIN));
+
+        // When
+        MvcResult hit = mockMvc.perform(get(PAGE).param("id", "1").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andReturn();
+
+        // Then
+        List<String> vary = hit.getResponse().getHeaders(HttpHeaders.VARY);
+        assertTrue(vary.stream().anyMatch(value -> value.contains(HttpHeaders.ORIGIN)), vary.toString());
+        assertTrue(vary.contains(HttpHeaders.ACCEPT), vary.toString());
+        assertTrue(vary.contains(HttpHeaders.ACCEPT_ENCODING), vary.toString());
+    }
+
+    @Test
+    public void testGzipBodyHasItsOwnEtag() throws Exception {
+        // Given
+        String identity = mockMvc.perform(get(PAGE).param("id", "1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When
+        MvcResult gzip = mockMvc.perform(get(PAGE).param("id", "1").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        String gzipEtag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Then - each validates only its own body
+        assertEquals(ETAG, identity);
+        assertNotEquals(identity, gzipEtag);
+        mockMvc.perform(get(PAGE).param("id", "1")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(PAGE).param("id", "1")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, identity))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(PAGE).param("id", "1").header(HttpHeaders.IF_NONE_MATCH, identity))
+                .andExpect(status().isNotModified());
+    }
+
+    @RestController
+    @CrossOrigin(ORIGIN)
+    static class Products {
+        private final AtomicInteger rendered = new AtomicInteger();
+
+        @GetMapping(value = PAGE, produces = "application/hal+json")
+        public ResponseEntity<String> findByCategoryId() {
+            rendered.incrementAndGet();
+            return ResponseEntity.ok().eTag(ETAG).body("{\"_embedded\":{\"products\":[]}}");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- -----------------------------------------------------
+-- The bulk product import upserts on sku
+-- -----------------------------------------------------
+USE `full-stack-ecommerce`;
+
+ALTER TABLE `product` ADD UNIQUE KEY `uk_product_sku` (`sku`);
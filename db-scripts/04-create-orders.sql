@@ -0,0 +1,44 @@
+-- -----------------------------------------------------
+-- Customers and orders placed through checkout
+-- -----------------------------------------------------
+USE `full-stack-ecommerce`;
+
+CREATE TABLE IF NOT EXISTS `customer` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `first_name` VARCHAR(255) DEFAULT NULL,
+  `last_name` VARCHAR(255) DEFAULT NULL,
+  `email` VARCHAR(255) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_customer_email` (`email`))
+ENGINE=InnoDB
+AUTO_INCREMENT = 1;
+
+CREATE TABLE IF NOT EXISTS `orders` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `order_tracking_number` VARCHAR(255) DEFAULT NULL,
+  `total_quantity` INT(11) DEFAULT NULL,
+  `total_price` DECIMAL(19,2) DEFAULT NULL,
+  `status` VARCHAR(128) DEFAULT NULL,
+  `date_created` DATETIME(6) DEFAULT NULL,
+  `last_updated` DATETIME(6) DEFAULT NULL,
+  `customer_id` BIGINT(20) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_order_tracking_number` (`order_tracking_number`),
+  KEY `fk_customer` (`customer_id`),
+  CONSTRAINT `fk_customer` FOREIGN KEY (`customer_id`) REFERENCES `customer` (`id`))
+ENGINE=InnoDB
+AUTO_INCREMENT = 1;
+
+CREATE TABLE IF NOT EXISTS `order_item` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `image_url` VARCHAR(255) DEFAULT NULL,
+  `quantity` INT(11) DEFAULT NULL,
+  `unit_price` DECIMAL(13,2) DEFAULT NULL,
+  `order_id` BIGINT(20) NOT NULL,
+  `product_id` BIGINT(20) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `fk_order` (`order_id`),
+  CONSTRAINT `fk_order` FOREIGN KEY (`order_id`) REFERENCES `orders` (`id`),
+  CONSTRAINT `fk_product` FOREIGN KEY (`product_id`) REFERENCES `product` (`id`))
+ENGINE=InnoDB
+AUTO_INCREMENT = 1;
@@ -0,0 +1,13 @@
+-- -----------------------------------------------------
+-- Last inventory journal sequence written to product.units_in_stock
+-- (ecommerce.inventory.mode=memory)
+-- -----------------------------------------------------
+USE `full-stack-ecommerce`;
+
+CREATE TABLE IF NOT EXISTS `inventory_flush` (
+  `id` TINYINT NOT NULL,
+  `last_sequence` BIGINT(20) NOT NULL,
+  PRIMARY KEY (`id`))
+ENGINE=InnoDB;
+
+INSERT IGNORE INTO `inventory_flush` (id, last_sequence) VALUES (1, 0);
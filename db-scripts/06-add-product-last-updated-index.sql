@@ -0,0 +1,7 @@
+-- -----------------------------------------------------
+-- The change event tailer reads products in (last_updated, id) order
+-- (ecommerce.events.tailer.enabled=true)
+-- -----------------------------------------------------
+USE `full-stack-ecommerce`;
+
+ALTER TABLE `product` ADD KEY `idx_product_last_updated` (`last_updated`, `id`);
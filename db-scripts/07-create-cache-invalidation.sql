@@ -0,0 +1,18 @@
+-- -----------------------------------------------------
+-- Cache invalidations broadcast between application nodes
+-- (ecommerce.cache.coherence.transport=jdbc)
+-- -----------------------------------------------------
+USE `full-stack-ecommerce`;
+
+CREATE TABLE IF NOT EXISTS `cache_invalidation` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `origin` VARCHAR(64) NOT NULL,
+  `kind` VARCHAR(32) NOT NULL,
+  `entity_id` BIGINT(20) DEFAULT NULL,
+  `category_id` BIGINT(20) DEFAULT NULL,
+  `previous_category_id` BIGINT(20) DEFAULT NULL,
+  `sent_at` BIGINT(20) NOT NULL,
+  `created_at` DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+  PRIMARY KEY (`id`),
+  KEY `idx_cache_invalidation_created_at` (`created_at`))
+ENGINE=InnoDB;
@@ -0,0 +1,9 @@
+-- -----------------------------------------------------
+-- The product export filters on last_updated, falling back to date_created for rows that were
+-- never updated (GET /api/products/export?since=). idx_product_last_updated (last_updated, id)
+-- has id between the two columns, so it cannot bound date_created and the export falls back to a
+-- full scan; the tailer in turn needs id second to read in order without a filesort
+-- -----------------------------------------------------
+USE `full-stack-ecommerce`;
+
+ALTER TABLE `product` ADD KEY `idx_product_modified` (`last_updated`, `date_created`);
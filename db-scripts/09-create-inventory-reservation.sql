@@ -0,0 +1,13 @@
+-- -----------------------------------------------------
+-- Stock reserved by committed checkouts and not yet flushed to product.units_in_stock
+-- (ecommerce.inventory.mode=memory). Written in the order's transaction, so a reservation
+-- survives a crash exactly when its order does.
+-- -----------------------------------------------------
+USE `full-stack-ecommerce`;
+
+CREATE TABLE IF NOT EXISTS `inventory_reservation` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `product_id` BIGINT(20) NOT NULL,
+  `delta` INT(11) NOT NULL,
+  PRIMARY KEY (`id`))
+ENGINE=InnoDB;
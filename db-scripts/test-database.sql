@@ -435,3 +435,98 @@ INSERT INTO product (sku, name, description, image_url, active, units_in_stock,
 INSERT INTO product (sku, name, description, image_url, active, units_in_stock, unit_price, category_id,date_created) VALUES ('LUGGAGETAG-1023', 'Luggage Tag - Flames', 'This luggage tag will help you identify your luggage. The luggage tag is very unique and it will stand out from the crowd. The luggage tag is created out of a rugged and durable plastic. Buy this luggage tag now to make it easy to identify your luggage!', 'assets/images/products/luggagetags/luggagetag-luv2code-1023.png', 1, 100, 16.99, 4, NOW());
 INSERT INTO product (sku, name, description, image_url, active, units_in_stock, unit_price, category_id,date_created) VALUES ('LUGGAGETAG-1024', 'Luggage Tag - Countryside', 'This luggage tag will help you identify your luggage. The luggage tag is very unique and it will stand out from the crowd. The luggage tag is created out of a rugged and durable plastic. Buy this luggage tag now to make it easy to identify your luggage!', 'assets/images/products/luggagetags/luggagetag-luv2code-1024.png', 1, 100, 16.99, 4, NOW());
 
+-- -----------------------------------------------------
+-- The bulk product import upserts on sku
+-- -----------------------------------------------------
+ALTER TABLE `full-stack-ecommerce-test`.`product` ADD UNIQUE KEY `uk_product_sku` (`sku`);
+
+-- -----------------------------------------------------
+-- Customers and orders placed through checkout
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `full-stack-ecommerce-test`.`customer` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `first_name` VARCHAR(255) DEFAULT NULL,
+  `last_name` VARCHAR(255) DEFAULT NULL,
+  `email` VARCHAR(255) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_customer_email` (`email`))
+ENGINE=InnoDB
+AUTO_INCREMENT = 1;
+
+CREATE TABLE IF NOT EXISTS `full-stack-ecommerce-test`.`orders` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `order_tracking_number` VARCHAR(255) DEFAULT NULL,
+  `total_quantity` INT(11) DEFAULT NULL,
+  `total_price` DECIMAL(19,2) DEFAULT NULL,
+  `status` VARCHAR(128) DEFAULT NULL,
+  `date_created` DATETIME(6) DEFAULT NULL,
+  `last_updated` DATETIME(6) DEFAULT NULL,
+  `customer_id` BIGINT(20) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_order_tracking_number` (`order_tracking_number`),
+  KEY `fk_customer` (`customer_id`),
+  CONSTRAINT `fk_customer` FOREIGN KEY (`customer_id`) REFERENCES `customer` (`id`))
+ENGINE=InnoDB
+AUTO_INCREMENT = 1;
+
+CREATE TABLE IF NOT EXISTS `full-stack-ecommerce-test`.`order_item` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `image_url` VARCHAR(255) DEFAULT NULL,
+  `quantity` INT(11) DEFAULT NULL,
+  `unit_price` DECIMAL(13,2) DEFAULT NULL,
+  `order_id` BIGINT(20) NOT NULL,
+  `product_id` BIGINT(20) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `fk_order` (`order_id`),
+  CONSTRAINT `fk_order` FOREIGN KEY (`order_id`) REFERENCES `orders` (`id`),
+  CONSTRAINT `fk_product` FOREIGN KEY (`product_id`) REFERENCES `product` (`id`))
+ENGINE=InnoDB
+AUTO_INCREMENT = 1;
+
+-- -----------------------------------------------------
+-- Last inventory journal sequence written to product.units_in_stock
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `full-stack-ecommerce-test`.`inventory_flush` (
+  `id` TINYINT NOT NULL,
+  `last_sequence` BIGINT(20) NOT NULL,
+  PRIMARY KEY (`id`))
+ENGINE=InnoDB;
+
+INSERT IGNORE INTO `full-stack-ecommerce-test`.`inventory_flush` (id, last_sequence) VALUES (1, 0);
+
+-- -----------------------------------------------------
+-- Stock reserved by committed checkouts and not yet flushed
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `full-stack-ecommerce-test`.`inventory_reservation` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `product_id` BIGINT(20) NOT NULL,
+  `delta` INT(11) NOT NULL,
+  PRIMARY KEY (`id`))
+ENGINE=InnoDB;
+
+-- -----------------------------------------------------
+-- The change event tailer reads products in (last_updated, id) order
+-- -----------------------------------------------------
+ALTER TABLE `full-stack-ecommerce-test`.`product` ADD KEY `idx_product_last_updated` (`last_updated`, `id`);
+
+-- -----------------------------------------------------
+-- The product export filters on last_updated, falling back to date_created; the
+-- tailer's index above cannot bound date_created
+-- -----------------------------------------------------
+ALTER TABLE `full-stack-ecommerce-test`.`product` ADD KEY `idx_product_modified` (`last_updated`, `date_created`);
+
+-- -----------------------------------------------------
+-- Cache invalidations broadcast between application nodes
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `full-stack-ecommerce-test`.`cache_invalidation` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+  `origin` VARCHAR(64) NOT NULL,
+  `kind` VARCHAR(32) NOT NULL,
+  `entity_id` BIGINT(20) DEFAULT NULL,
+  `category_id` BIGINT(20) DEFAULT NULL,
+  `previous_category_id` BIGINT(20) DEFAULT NULL,
+  `sent_at` BIGINT(20) NOT NULL,
+  `created_at` DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+  PRIMARY KEY (`id`),
+  KEY `idx_cache_invalidation_created_at` (`created_at`))
+ENGINE=InnoDB;
@@ -36,6 +36,10 @@ export class ProductDetailsComponent implements OnInit{
     )
   }
 
+  imageUrl(): string {
+    return this.productService.imageUrl(this.product.imageUrl, 'medium');
+  }
+
   addToCart() {
     console.log(`Adding to cart: ${this.product.name}, ${this.product.unitPrice}`);
     const theCartItem = new CartItem(this.product);
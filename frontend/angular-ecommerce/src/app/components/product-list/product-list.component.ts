@@ -97,6 +97,10 @@ export class ProductListComponent implements OnInit {
     }
   }
 
+  imageUrl(theProduct: Product): string {
+    return this.productService.imageUrl(theProduct.imageUrl, 'thumbnail');
+  }
+
   addToCart(theProduct: Product) {
     console.log(`Adding to cart: ${theProduct.name}, ${theProduct.unitPrice}`);
 
@@ -11,14 +11,16 @@ export class ProductService {
 
   private baseUrl = 'http://localhost:8080/api/products';
   private categoryUrl = 'http://localhost:8080/api/product-category';
+  private imagesUrl = 'http://localhost:8080/api/images';
 
   constructor(private httpClient: HttpClient) { }
 
   getProductListPaginate(thePage: number,
                          thePageSize: number,
                          theCategoryId: number): Observable<GetResponseProducts> {
+    // only the fields the grid and the cart use
     const searchUrl = `${this.baseUrl}/search/findByCategoryId?id=${theCategoryId}`
-                    + `&page=${thePage}&size=${thePageSize}`;
+                    + `&page=${thePage}&size=${thePageSize}&fields=id,name,unitPrice,imageUrl`;
 
     return this.httpClient.get<GetResponseProducts>(searchUrl);
   }
@@ -45,6 +47,10 @@ export class ProductService {
     return this.httpClient.get<GetResponseProducts>(searchUrl);
   }
 
+  imageUrl(theImageUrl: string, theVariant: string): string {
+    return `${this.imagesUrl}/${theImageUrl}?variant=${theVariant}`;
+  }
+
   private getProducts(searchUrl: string) {
     return this.httpClient.get<GetResponseProducts>(searchUrl).pipe(
       map(response => response._embedded.products)